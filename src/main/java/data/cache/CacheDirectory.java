@@ -0,0 +1,40 @@
+package data.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+public class CacheDirectory {
+
+    private static final String ROOT = ".me7tuner" + File.separator + "cache";
+
+    /**
+     * @param name the sub-directory for one kind of cached data
+     * @return the directory, created if it does not exist yet
+     */
+    public static File get(String name) {
+        File directory = new File(System.getProperty("user.home"), ROOT + File.separator + name);
+
+        if (!directory.isDirectory()) {
+            // A failure here surfaces as an IOException when the cache is written
+            directory.mkdirs();
+        }
+
+        return directory;
+    }
+
+    /**
+     * Moves a fully written temporary file over a cache file. Unlike {@link File#renameTo(File)} this also replaces an
+     * existing cache file on Windows. The move is atomic where the file system supports it so a reader sees either the
+     * old or the new file.
+     */
+    public static void replace(File temp, File target) throws IOException {
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package data.equation;
+
+import data.parser.bin.CellType;
+
+import javax.script.ScriptException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Converts physical values back to the raw cell value whose decoded value is closest. Linear fractional equations are
+ * inverted symbolically, 8 and 16 bit cells are otherwise searched in their {@link ConversionTable} (a binary search
+ * if the equation is monotone) and wider cells are bisected. Values outside of the range of the cell saturate at the
+ * nearest end, and do not round trip unless they are within one LSB of it.
+ * <p>
+ * Raw values are searched by key: the raw value itself for integer cells and the bits of the float ordered so that
+ * adjacent keys are adjacent floats for float cells.
+ */
+public class CellEncoder {
+
+    private static final Map<String, CellEncoder> cache = new ConcurrentHashMap<>();
+
+    private final DoubleUnaryOperator forward;
+    private final DoubleUnaryOperator symbolicInverse;
+    private final ConversionTable table;
+    private final boolean floating;
+    private final long minKey;
+    private final long maxKey;
+    // 1 if the decoded values never decrease, -1 if they never increase, 0 if the equation is not monotone
+    private final int direction;
+
+    private CellEncoder(DoubleUnaryOperator forward, DoubleUnaryOperator symbolicInverse, ConversionTable table, CellType cellType) {
+        this.forward = forward;
+        this.symbolicInverse = symbolicInverse;
+        this.table = table;
+        this.floating = cellType.isFloating();
+
+        int sizeBits = cellType.getSizeBits();
+        if (floating) {
+            minKey = key(-Float.MAX_VALUE);
+            maxKey = key(Float.MAX_VALUE);
+        } else {
+            minKey = cellType.isSigned() ? -(1L << (sizeBits - 1)) : 0;
+            maxKey = cellType.isSigned() ? (1L << (sizeBits - 1)) - 1 : (1L << sizeBits) - 1;
+        }
+
+        this.direction = table == null ? direction(decodeKey(minKey), decodeKey(maxKey)) : direction(table.getValues());
+    }
+
+    public static CellEncoder get(String equation, String varId, CellType cellType) throws ScriptException {
+        String key = varId + '\u0000' + equation + '\u0000' + cellType;
+        CellEncoder encoder = cache.get(key);
+
+        if (encoder == null) {
+            DoubleUnaryOperator symbolicInverse;
+            try {
+                symbolicInverse = EquationInverter.invert(EquationParser.parse(equation, varId));
+            } catch (IllegalArgumentException e) {
+                symbolicInverse = null;
+            }
+
+            ConversionTable table = cellType.isFloating() ? null : ConversionCache.get(equation, varId, cellType.getSizeBits(), cellType.isSigned());
+
+            encoder = new CellEncoder(EquationCompiler.compile(equation, varId), symbolicInverse, table, cellType);
+
+            CellEncoder previous = cache.putIfAbsent(key, encoder);
+            if (previous != null) {
+                encoder = previous;
+            }
+        }
+
+        return encoder;
+    }
+
+    /**
+     * @return the raw value to store, an integer for integer cells
+     */
+    public double encode(double value) {
+        long key;
+
+        if (symbolicInverse != null && !Double.isNaN(symbolicInverse.applyAsDouble(value))) {
+            double inverse = symbolicInverse.applyAsDouble(value);
+            key = saturate(floating ? key((float) inverse) : Math.round(inverse), value);
+        } else if (table != null) {
+            key = direction == 0 ? scan(value) : search(value);
+        } else {
+            key = bisect(value);
+        }
+
+        // The closed form and the searches may land one step off the closest value
+        long best = key;
+        for (long candidate = Math.max(minKey, key - 1); candidate <= Math.min(maxKey, key + 1); candidate++) {
+            if (Math.abs(decodeKey(candidate) - value) < Math.abs(decodeKey(best) - value)) {
+                best = candidate;
+            }
+        }
+
+        return raw(best);
+    }
+
+    public double decode(double raw) {
+        return decodeKey(key(raw));
+    }
+
+    /**
+     * @return true if the raw value decodes to within one LSB of the value. A value that saturated at either end of the
+     * cell only round trips if it is within one LSB of that end.
+     */
+    public boolean roundTrips(double raw, double value) {
+        if (Double.isNaN(value)) {
+            return false;
+        }
+
+        long key = key(raw);
+        double decoded = decodeKey(key);
+
+        // The LSB at either end of the cell is the step to the only neighbour it has
+        double lsb = 0;
+        if (key < maxKey) {
+            lsb = Math.max(lsb, Math.abs(decodeKey(key + 1) - decoded));
+        }
+        if (key > minKey) {
+            lsb = Math.max(lsb, Math.abs(decoded - decodeKey(key - 1)));
+        }
+
+        return Math.abs(decoded - value) <= lsb * (1 + 1e-9);
+    }
+
+    private double decodeKey(long key) {
+        return table != null ? table.decode((int) key) : forward.applyAsDouble(raw(key));
+    }
+
+    private long key(double raw) {
+        return floating ? key((float) raw) : (long) raw;
+    }
+
+    private double raw(long key) {
+        if (!floating) {
+            return key;
+        }
+
+        int bits = (int) key;
+        return Float.intBitsToFloat(bits < 0 ? bits ^ 0x7FFFFFFF : bits);
+    }
+
+    /**
+     * Orders float bit patterns so negative floats sort below positive ones.
+     */
+    private static long key(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits < 0 ? bits ^ 0x7FFFFFFF : bits;
+    }
+
+    /**
+     * An inverse outside of the cell saturates at whichever end decodes closer to the value. For rational equations
+     * that is not necessarily the end the inverse overshot.
+     */
+    private long saturate(long key, double value) {
+        if (key >= minKey && key <= maxKey) {
+            return key;
+        }
+
+        return Math.abs(decodeKey(minKey) - value) <= Math.abs(decodeKey(maxKey) - value) ? minKey : maxKey;
+    }
+
+    private long search(double value) {
+        double[] values = table.getValues();
+        int low = 0;
+        int high = values.length - 1;
+
+        // First index whose value is at or past the target in the direction of the table
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if ((values[mid] - value) * direction < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return table.getMinRaw() + low;
+    }
+
+    private long scan(double value) {
+        double[] values = table.getValues();
+        int best = 0;
+
+        for (int i = 1; i < values.length; i++) {
+            if (Double.isNaN(values[best]) || Math.abs(values[i] - value) < Math.abs(values[best] - value)) {
+                best = i;
+            }
+        }
+
+        return table.getMinRaw() + best;
+    }
+
+    private long bisect(double value) {
+        long low = minKey;
+        long high = maxKey;
+        int sign = direction == 0 ? 1 : direction;
+
+        while (low < high) {
+            long mid = low + (high - low) / 2;
+            if ((decodeKey(mid) - value) * sign < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    private static int direction(double first, double last) {
+        return first <= last ? 1 : -1;
+    }
+
+    private static int direction(double[] values) {
+        boolean increasing = true;
+        boolean decreasing = true;
+
+        for (int i = 1; i < values.length && (increasing || decreasing); i++) {
+            // NaN fails both comparisons, so a table containing NaN is scanned
+            increasing &= values[i] >= values[i - 1];
+            decreasing &= values[i] <= values[i - 1];
+        }
+
+        return increasing ? 1 : decreasing ? -1 : 0;
+    }
+}
@@ -0,0 +1,109 @@
+package data.equation;
+
+import data.cache.CacheDirectory;
+import io.reactivex.annotations.Nullable;
+
+import javax.script.ScriptException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares {@link ConversionTable}s between every table that uses the same equation, cell size and signedness. Tables
+ * are persisted to the cache directory so they are only evaluated once across runs.
+ */
+public class ConversionCache {
+
+    private static final int MAGIC = 0x4D374C54; // M7LT
+    private static final int VERSION = 1;
+
+    private static final Map<String, ConversionTable> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @return the conversion table or null if the cell size has too many raw values to tabulate
+     */
+    @Nullable
+    public static ConversionTable get(String equation, String varId, int sizeBits, boolean signed) throws ScriptException {
+        if (sizeBits != 8 && sizeBits != 16) {
+            return null;
+        }
+
+        String key = varId + '\u0000' + equation + '\u0000' + sizeBits + (signed ? "s" : "u");
+        ConversionTable table = cache.get(key);
+
+        if (table == null) {
+            File file = new File(CacheDirectory.get("conversions"), UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)) + ".lut");
+            table = load(file, key);
+
+            if (table == null) {
+                table = ConversionTable.build(EquationCompiler.compile(equation, varId), sizeBits, signed);
+                save(file, key, table);
+            }
+
+            ConversionTable previous = cache.putIfAbsent(key, table);
+            if (previous != null) {
+                table = previous;
+            }
+        }
+
+        return table;
+    }
+
+    private static ConversionTable load(File file, String key) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !key.equals(in.readUTF())) {
+                return null;
+            }
+
+            int minRaw = in.readInt();
+            double[] values = new double[in.readInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = in.readDouble();
+            }
+
+            return new ConversionTable(minRaw, values);
+        } catch (IOException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    private static void save(File file, String key, ConversionTable table) {
+        File temp;
+
+        try {
+            // Unique so threads decoding tables with the same equation can't interleave their writes
+            temp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(key);
+            out.writeInt(table.getMinRaw());
+            out.writeInt(table.getValues().length);
+            for (double value : table.getValues()) {
+                out.writeDouble(value);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            temp.delete();
+            return;
+        }
+
+        try {
+            CacheDirectory.replace(temp, file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            temp.delete();
+        }
+    }
+}
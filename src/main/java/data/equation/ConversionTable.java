@@ -0,0 +1,45 @@
+package data.equation;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * The physical value of every possible raw value of an 8 or 16 bit cell, so decoding is an array index.
+ */
+public class ConversionTable {
+
+    private final int minRaw;
+    private final double[] values;
+
+    ConversionTable(int minRaw, double[] values) {
+        this.minRaw = minRaw;
+        this.values = values;
+    }
+
+    static ConversionTable build(DoubleUnaryOperator equation, int sizeBits, boolean signed) {
+        int count = 1 << sizeBits;
+        int minRaw = signed ? -(count >> 1) : 0;
+        double[] values = new double[count];
+
+        for (int i = 0; i < count; i++) {
+            values[i] = equation.applyAsDouble(minRaw + i);
+        }
+
+        return new ConversionTable(minRaw, values);
+    }
+
+    public double decode(int raw) {
+        return values[raw - minRaw];
+    }
+
+    public int getMinRaw() {
+        return minRaw;
+    }
+
+    public int getMaxRaw() {
+        return minRaw + values.length - 1;
+    }
+
+    double[] getValues() {
+        return values;
+    }
+}
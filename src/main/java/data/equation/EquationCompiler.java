@@ -0,0 +1,111 @@
+package data.equation;
+
+import javax.script.*;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Compiles XDF MATH equations into primitive evaluators. Compiled equations are cached by variable and equation string
+ * so each distinct equation is only parsed once no matter how many tables share it. Equations outside of the
+ * {@link EquationParser} grammar fall back to the JavaScript engine.
+ */
+public class EquationCompiler {
+
+    private static final Map<String, DoubleUnaryOperator> cache = new ConcurrentHashMap<>();
+
+    // ScriptEngines are not thread safe, an evaluation borrows an engine no other thread is using. The engines are
+    // pooled rather than kept per thread so the threads of the common pool do not each hold one for good.
+    private static final int MAX_SCRIPT_EVALUATORS = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private static final BlockingQueue<ScriptEvaluator> idleScriptEvaluators = new LinkedBlockingQueue<>();
+    private static final AtomicInteger scriptEvaluatorCount = new AtomicInteger();
+    private static final AtomicInteger scriptFunctionCount = new AtomicInteger();
+
+    public static DoubleUnaryOperator compile(String equation, String varId) throws ScriptException {
+        String key = varId + '\u0000' + equation;
+        DoubleUnaryOperator operator = cache.get(key);
+
+        if (operator == null) {
+            try {
+                operator = EquationParser.parse(equation, varId)::evaluate;
+            } catch (IllegalArgumentException e) {
+                operator = compileScript(equation, varId);
+            }
+
+            DoubleUnaryOperator previous = cache.putIfAbsent(key, operator);
+            if (previous != null) {
+                operator = previous;
+            }
+        }
+
+        return operator;
+    }
+
+    private static DoubleUnaryOperator compileScript(String equation, String varId) throws ScriptException {
+        String function = "func" + scriptFunctionCount.getAndIncrement();
+        String source = "function " + function + "(" + varId + ") { return " + equation + "}";
+
+        // Compile now so a broken equation fails here
+        ScriptEvaluator compiler = acquire();
+        try {
+            compiler.define(function, source);
+        } finally {
+            idleScriptEvaluators.add(compiler);
+        }
+
+        return value -> {
+            ScriptEvaluator evaluator = acquire();
+            try {
+                evaluator.define(function, source);
+
+                return ((Number) ((Invocable) evaluator.engine).invokeFunction(function, value)).doubleValue();
+            } catch (ScriptException | NoSuchMethodException e) {
+                throw new IllegalStateException("Unable to evaluate " + equation, e);
+            } finally {
+                idleScriptEvaluators.add(evaluator);
+            }
+        };
+    }
+
+    /**
+     * @return an idle engine, a new one while there are fewer than {@link #MAX_SCRIPT_EVALUATORS}, or else the first
+     * engine another thread gives back
+     */
+    private static ScriptEvaluator acquire() {
+        ScriptEvaluator evaluator = idleScriptEvaluators.poll();
+
+        if (evaluator != null) {
+            return evaluator;
+        }
+
+        for (int count = scriptEvaluatorCount.get(); count < MAX_SCRIPT_EVALUATORS; count = scriptEvaluatorCount.get()) {
+            if (scriptEvaluatorCount.compareAndSet(count, count + 1)) {
+                return new ScriptEvaluator();
+            }
+        }
+
+        try {
+            return idleScriptEvaluators.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a script engine", e);
+        }
+    }
+
+    private static class ScriptEvaluator {
+        private final ScriptEngine engine = new ScriptEngineManager().getEngineByName("graal.js");
+        private final Set<String> functions = new HashSet<>();
+
+        private void define(String function, String source) throws ScriptException {
+            if (!functions.contains(function)) {
+                ((Compilable) engine).compile(source).eval(engine.getBindings(ScriptContext.ENGINE_SCOPE));
+                functions.add(function);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package data.equation;
+
+import io.reactivex.annotations.Nullable;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Symbolic inversion of XDF MATH equations. Equations that reduce to the linear fractional form (a*X+b)/(c*X+d) -
+ * which covers every affine equation and rational equations such as "1000/(X+5)" - are inverted exactly. Everything
+ * else has to be inverted numerically, see {@link CellEncoder}.
+ */
+public class EquationInverter {
+
+    /**
+     * @return the physical-to-raw inverse or null if the equation does not have a closed form inverse
+     */
+    @Nullable
+    public static DoubleUnaryOperator invert(Expression expression) {
+        LinearFractional f = LinearFractional.of(expression);
+
+        if (f == null || f.a * f.d - f.b * f.c == 0) {
+            return null;
+        }
+
+        // y = (aX + b) / (cX + d)  =>  X = (b - dy) / (cy - a)
+        return y -> (f.b - f.d * y) / (f.c * y - f.a);
+    }
+
+    /**
+     * (a*X + b) / (c*X + d)
+     */
+    private record LinearFractional(double a, double b, double c, double d) {
+
+        private static final LinearFractional VARIABLE = new LinearFractional(1, 0, 0, 1);
+
+        static LinearFractional constant(double value) {
+            return new LinearFractional(0, value, 0, 1);
+        }
+
+        static LinearFractional of(Expression expression) {
+            if (expression instanceof Expression.Constant constant) {
+                return constant(constant.value());
+            } else if (expression instanceof Expression.Variable) {
+                return VARIABLE;
+            } else if (expression instanceof Expression.Negate negate) {
+                LinearFractional operand = of(negate.operand());
+                return operand == null ? null : operand.negate();
+            } else if (expression instanceof Expression.Binary binary) {
+                LinearFractional left = of(binary.left());
+                LinearFractional right = of(binary.right());
+
+                if (left == null || right == null) {
+                    return null;
+                }
+
+                return switch (binary.operator()) {
+                    case '+' -> left.add(right);
+                    case '-' -> left.add(right.negate());
+                    case '*' -> left.multiply(right);
+                    case '/' -> left.divide(right);
+                    default -> null;
+                };
+            }
+
+            return null;
+        }
+
+        boolean isConstant() {
+            return a == 0 && c == 0;
+        }
+
+        boolean isAffine() {
+            return c == 0;
+        }
+
+        double value() {
+            return b / d;
+        }
+
+        LinearFractional negate() {
+            return new LinearFractional(-a, -b, c, d);
+        }
+
+        LinearFractional add(LinearFractional other) {
+            if (isAffine() && other.isAffine()) {
+                return new LinearFractional(a * other.d + other.a * d, b * other.d + other.b * d, 0, d * other.d);
+            } else if (other.isConstant()) {
+                double k = other.value();
+                return new LinearFractional(a + k * c, b + k * d, c, d);
+            } else if (isConstant()) {
+                return other.add(this);
+            }
+
+            return null;
+        }
+
+        LinearFractional multiply(LinearFractional other) {
+            if (other.isConstant()) {
+                double k = other.value();
+                return new LinearFractional(a * k, b * k, c, d);
+            } else if (isConstant()) {
+                return other.multiply(this);
+            }
+
+            return null;
+        }
+
+        LinearFractional divide(LinearFractional other) {
+            if (other.isConstant()) {
+                double k = other.value();
+                return new LinearFractional(a, b, c * k, d * k);
+            } else if (isAffine() && other.isAffine()) {
+                // ((aX + b) / d) / ((a'X + b') / d') = d'(aX + b) / d(a'X + b')
+                return new LinearFractional(a * other.d, b * other.d, other.a * d, other.b * d);
+            } else if (isConstant()) {
+                double k = value();
+                return new LinearFractional(k * other.c, k * other.d, other.a, other.b);
+            }
+
+            return null;
+        }
+    }
+}
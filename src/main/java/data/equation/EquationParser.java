@@ -0,0 +1,242 @@
+package data.equation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Recursive descent parser for the XDF MATH equation grammar:
+ * <pre>
+ * expression := term (('+' | '-') term)*
+ * term       := unary (('*' | '/') unary)*
+ * unary      := ('+' | '-') unary | primary
+ * primary    := number | variable | function '(' expression (',' expression)* ')' | '(' expression ')'
+ * </pre>
+ * Function names are case-insensitive and may carry a JavaScript "Math." prefix. Constant sub-expressions are folded
+ * while parsing.
+ */
+public class EquationParser {
+
+    private static final Map<String, Integer> FUNCTION_ARITY = Map.ofEntries(
+            Map.entry("abs", 1), Map.entry("sqrt", 1), Map.entry("exp", 1), Map.entry("log", 1), Map.entry("ln", 1),
+            Map.entry("log10", 1), Map.entry("floor", 1), Map.entry("ceil", 1), Map.entry("round", 1),
+            Map.entry("sin", 1), Map.entry("cos", 1), Map.entry("tan", 1),
+            Map.entry("pow", 2), Map.entry("min", 2), Map.entry("max", 2));
+
+    private final String equation;
+    private final String varId;
+    private int position;
+
+    private EquationParser(String equation, String varId) {
+        this.equation = equation;
+        this.varId = varId;
+    }
+
+    /**
+     * @param equation the XDF equation, e.g. "X*0.023438+0"
+     * @param varId the variable the raw cell value is bound to, "X" if empty
+     * @throws IllegalArgumentException if the equation is outside the supported grammar
+     */
+    public static Expression parse(String equation, String varId) {
+        String variable = varId == null || varId.isBlank() ? "X" : varId.trim();
+
+        if (equation == null || equation.isBlank()) {
+            return new Expression.Variable();
+        }
+
+        EquationParser parser = new EquationParser(equation, variable);
+        Expression expression = parser.parseExpression();
+        parser.skipWhitespace();
+
+        if (parser.position != equation.length()) {
+            throw parser.error("Unexpected character '" + equation.charAt(parser.position) + "'");
+        }
+
+        return expression;
+    }
+
+    private Expression parseExpression() {
+        Expression left = parseTerm();
+
+        while (true) {
+            skipWhitespace();
+            if (accept('+')) {
+                left = fold(new Expression.Binary('+', left, parseTerm()));
+            } else if (accept('-')) {
+                left = fold(new Expression.Binary('-', left, parseTerm()));
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expression parseTerm() {
+        Expression left = parseUnary();
+
+        while (true) {
+            skipWhitespace();
+            if (accept('*')) {
+                left = fold(new Expression.Binary('*', left, parseUnary()));
+            } else if (accept('/')) {
+                left = fold(new Expression.Binary('/', left, parseUnary()));
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expression parseUnary() {
+        skipWhitespace();
+
+        if (accept('-')) {
+            return fold(new Expression.Negate(parseUnary()));
+        } else if (accept('+')) {
+            return parseUnary();
+        }
+
+        return parsePrimary();
+    }
+
+    private Expression parsePrimary() {
+        skipWhitespace();
+
+        if (position >= equation.length()) {
+            throw error("Unexpected end of equation");
+        }
+
+        char c = equation.charAt(position);
+
+        if (accept('(')) {
+            Expression expression = parseExpression();
+            expect(')');
+            return expression;
+        } else if (Character.isDigit(c) || c == '.') {
+            return new Expression.Constant(parseNumber());
+        } else if (Character.isLetter(c) || c == '_') {
+            String identifier = parseIdentifier();
+
+            if (identifier.equals(varId)) {
+                return new Expression.Variable();
+            }
+
+            String function = identifier.toLowerCase(Locale.ROOT);
+            if (function.startsWith("math.")) {
+                function = function.substring("math.".length());
+            }
+
+            Integer arity = FUNCTION_ARITY.get(function);
+            if (arity == null) {
+                throw error("Unknown identifier '" + identifier + "'");
+            }
+
+            skipWhitespace();
+            expect('(');
+            List<Expression> arguments = new ArrayList<>();
+            arguments.add(parseExpression());
+            skipWhitespace();
+            while (accept(',')) {
+                arguments.add(parseExpression());
+                skipWhitespace();
+            }
+            expect(')');
+
+            if (arguments.size() != arity) {
+                throw error(function + " expects " + arity + " argument(s)");
+            }
+
+            return fold(new Expression.Call(function, List.copyOf(arguments)));
+        }
+
+        throw error("Unexpected character '" + c + "'");
+    }
+
+    private double parseNumber() {
+        int start = position;
+
+        if (equation.startsWith("0x", position) || equation.startsWith("0X", position)) {
+            position += 2;
+            while (position < equation.length() && Character.digit(equation.charAt(position), 16) != -1) {
+                position++;
+            }
+            return Long.parseLong(equation.substring(start + 2, position), 16);
+        }
+
+        while (position < equation.length() && (Character.isDigit(equation.charAt(position)) || equation.charAt(position) == '.')) {
+            position++;
+        }
+
+        if (position < equation.length() && (equation.charAt(position) == 'e' || equation.charAt(position) == 'E')) {
+            int exponent = position + 1;
+            if (exponent < equation.length() && (equation.charAt(exponent) == '+' || equation.charAt(exponent) == '-')) {
+                exponent++;
+            }
+            if (exponent < equation.length() && Character.isDigit(equation.charAt(exponent))) {
+                position = exponent;
+                while (position < equation.length() && Character.isDigit(equation.charAt(position))) {
+                    position++;
+                }
+            }
+        }
+
+        try {
+            return Double.parseDouble(equation.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + equation.substring(start, position) + "'");
+        }
+    }
+
+    private String parseIdentifier() {
+        int start = position;
+
+        while (position < equation.length()) {
+            char c = equation.charAt(position);
+            if (Character.isLetterOrDigit(c) || c == '_' || c == '.') {
+                position++;
+            } else {
+                break;
+            }
+        }
+
+        return equation.substring(start, position);
+    }
+
+    private static Expression fold(Expression expression) {
+        if (expression instanceof Expression.Binary binary && binary.left().isConstant() && binary.right().isConstant()) {
+            return new Expression.Constant(expression.evaluate(0));
+        } else if (expression instanceof Expression.Negate negate && negate.operand().isConstant()) {
+            return new Expression.Constant(expression.evaluate(0));
+        } else if (expression instanceof Expression.Call call && call.arguments().stream().allMatch(Expression::isConstant)) {
+            return new Expression.Constant(expression.evaluate(0));
+        }
+
+        return expression;
+    }
+
+    private void skipWhitespace() {
+        while (position < equation.length() && Character.isWhitespace(equation.charAt(position))) {
+            position++;
+        }
+    }
+
+    private boolean accept(char c) {
+        if (position < equation.length() && equation.charAt(position) == c) {
+            position++;
+            return true;
+        }
+
+        return false;
+    }
+
+    private void expect(char c) {
+        skipWhitespace();
+
+        if (!accept(c)) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at " + position + " in \"" + equation + "\"");
+    }
+}
@@ -0,0 +1,83 @@
+package data.equation;
+
+import java.util.List;
+
+/**
+ * A parsed XDF MATH equation. Nodes are immutable and evaluate against the single raw cell value (the VAR of the
+ * equation).
+ */
+public interface Expression {
+
+    double evaluate(double x);
+
+    default boolean isConstant() {
+        return false;
+    }
+
+    record Constant(double value) implements Expression {
+        @Override
+        public double evaluate(double x) {
+            return value;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+    }
+
+    record Variable() implements Expression {
+        @Override
+        public double evaluate(double x) {
+            return x;
+        }
+    }
+
+    record Negate(Expression operand) implements Expression {
+        @Override
+        public double evaluate(double x) {
+            return -operand.evaluate(x);
+        }
+    }
+
+    record Binary(char operator, Expression left, Expression right) implements Expression {
+        @Override
+        public double evaluate(double x) {
+            double l = left.evaluate(x);
+            double r = right.evaluate(x);
+
+            return switch (operator) {
+                case '+' -> l + r;
+                case '-' -> l - r;
+                case '*' -> l * r;
+                case '/' -> l / r;
+                default -> throw new IllegalStateException("Unknown operator: " + operator);
+            };
+        }
+    }
+
+    record Call(String function, List<Expression> arguments) implements Expression {
+        @Override
+        public double evaluate(double x) {
+            double a = arguments.get(0).evaluate(x);
+
+            return switch (function) {
+                case "abs" -> Math.abs(a);
+                case "sqrt" -> Math.sqrt(a);
+                case "exp" -> Math.exp(a);
+                case "log", "ln" -> Math.log(a);
+                case "log10" -> Math.log10(a);
+                case "floor" -> Math.floor(a);
+                case "ceil" -> Math.ceil(a);
+                case "round" -> Math.floor(a + 0.5);
+                case "sin" -> Math.sin(a);
+                case "cos" -> Math.cos(a);
+                case "tan" -> Math.tan(a);
+                case "pow" -> Math.pow(a, arguments.get(1).evaluate(x));
+                case "min" -> Math.min(a, arguments.get(1).evaluate(x));
+                case "max" -> Math.max(a, arguments.get(1).evaluate(x));
+                default -> throw new IllegalStateException("Unknown function: " + function);
+            };
+        }
+    }
+}
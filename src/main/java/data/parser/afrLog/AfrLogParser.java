@@ -2,6 +2,7 @@ package data.parser.afrLog;
 
 import data.contract.AfrLogFileContract;
 import data.contract.Me7LogFileContract;
+import domain.model.log.LogFrame;
 import io.reactivex.Observer;
 import io.reactivex.Single;
 import io.reactivex.SingleObserver;
@@ -23,7 +24,7 @@ public class AfrLogParser {
 
     private static AfrLogParser instance;
 
-    private final PublishSubject<Map<String, List<Double>>> publishSubject = PublishSubject.create();
+    private final PublishSubject<LogFrame<String>> publishSubject = PublishSubject.create();
 
     private AfrLogParser() {}
 
@@ -39,7 +40,7 @@ public class AfrLogParser {
         return instance;
     }
 
-    public void register(Observer<Map<String, List<Double>>> observer){
+    public void register(Observer<LogFrame<String>> observer){
         SwingUtilities.invokeLater(() -> publishSubject.subscribe(observer));
     }
 
@@ -50,7 +51,7 @@ public class AfrLogParser {
             }
 
             @Override
-            public void onSuccess(@NonNull Map<String, List<Double>> logMap) {
+            public void onSuccess(@NonNull LogFrame<String> logMap) {
                 SwingUtilities.invokeLater(() -> publishSubject.onNext(logMap));
             }
 
@@ -61,14 +62,14 @@ public class AfrLogParser {
         });
     }
 
-    public void load(Map<Me7LogFileContract.Header, List<Double>> logs) {
+    public void load(LogFrame<Me7LogFileContract.Header> logs) {
         Single.fromCallable(() -> parse(logs)).subscribeOn(Schedulers.io()).subscribe(new SingleObserver<>() {
             @Override
             public void onSubscribe(@NonNull Disposable disposable) {
             }
 
             @Override
-            public void onSuccess(@NonNull Map<String, List<Double>> logMap) {
+            public void onSuccess(@NonNull LogFrame<String> logMap) {
                 SwingUtilities.invokeLater(() -> publishSubject.onNext(logMap));
             }
 
@@ -79,34 +80,41 @@ public class AfrLogParser {
         });
     }
 
-    private Map<String, List<Double>> parse(Map<Me7LogFileContract.Header, List<Double>> log) {
+    private LogFrame<String> parse(LogFrame<Me7LogFileContract.Header> log) {
+        LogFrame.Builder<String> builder = builder();
 
-        Map<String, List<Double>> map = new HashMap<>();
+        if (log.hasColumn(Me7LogFileContract.Header.WIDE_BAND_O2_HEADER) && !log.isEmpty()) {
+            builder.addStartTime(log.getStartTimes()[0]);
 
-        if(!log.get(Me7LogFileContract.Header.WIDE_BAND_O2_HEADER).isEmpty()) {
-            map.put(AfrLogFileContract.START_TIME, new ArrayList<>());
-            map.put(AfrLogFileContract.TIMESTAMP, new ArrayList<>());
-            map.put(AfrLogFileContract.RPM_HEADER, new ArrayList<>());
-            map.put(AfrLogFileContract.AFR_HEADER, new ArrayList<>());
-            map.put(AfrLogFileContract.TPS_HEADER, new ArrayList<>());
-            map.put(AfrLogFileContract.BOOST_HEADER, new ArrayList<>());
+            LogFrame.Column timestamps = log.column(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER);
+            LogFrame.Column rpm = log.column(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
+            LogFrame.Column wideBandO2 = log.column(Me7LogFileContract.Header.WIDE_BAND_O2_HEADER);
+            LogFrame.Column throttlePlateAngle = log.column(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER);
 
-            double startTime = log.get(Me7LogFileContract.Header.START_TIME_HEADER).get(0);
-            map.get(AfrLogFileContract.START_TIME).add(startTime);
-
-            for(int i = 0; i < log.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER).size(); i++) {
-                map.get(AfrLogFileContract.START_TIME).add(log.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER).get(i));
-                map.get(AfrLogFileContract.RPM_HEADER).add(log.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER).get(i));
+            for(int i = 0; i < log.size(); i++) {
+                builder.add(AfrLogFileContract.TIMESTAMP, timestamps.get(i));
+                builder.add(AfrLogFileContract.RPM_HEADER, rpm.get(i));
                 // ME7.5 afr is normalized. Covert to stoichiometric gasoline ratio
-                map.get(AfrLogFileContract.AFR_HEADER).add(log.get(Me7LogFileContract.Header.WIDE_BAND_O2_HEADER).get(i) * 14.7);
-                map.get(AfrLogFileContract.TPS_HEADER).add(log.get(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER).get(i));
+                builder.add(AfrLogFileContract.AFR_HEADER, wideBandO2.get(i) * 14.7);
+                builder.add(AfrLogFileContract.TPS_HEADER, throttlePlateAngle.get(i));
+                // ME7 does not log boost with the wide band
+                builder.add(AfrLogFileContract.BOOST_HEADER, Double.NaN);
             }
         }
 
-        return map;
+        return builder.build();
+    }
+
+    private static LogFrame.Builder<String> builder() {
+        return LogFrame.<String>builder()
+                .addColumn(AfrLogFileContract.TIMESTAMP)
+                .addColumn(AfrLogFileContract.RPM_HEADER)
+                .addColumn(AfrLogFileContract.AFR_HEADER)
+                .addColumn(AfrLogFileContract.TPS_HEADER)
+                .addColumn(AfrLogFileContract.BOOST_HEADER);
     }
 
-    private Map<String, List<Double>> parse(File file) {
+    private LogFrame<String> parse(File file) {
 
         int timeColumnIndex = -1;
         int rpmColumnIndex = -1;
@@ -115,14 +123,9 @@ public class AfrLogParser {
         int boostColumnIndex = -1;
 
         double lastPsi = 0;
+        double startTime = Double.NaN;
 
-        Map<String, List<Double>> map = new HashMap<>();
-        map.put(AfrLogFileContract.START_TIME, new ArrayList<>());
-        map.put(AfrLogFileContract.TIMESTAMP, new ArrayList<>());
-        map.put(AfrLogFileContract.RPM_HEADER, new ArrayList<>());
-        map.put(AfrLogFileContract.AFR_HEADER, new ArrayList<>());
-        map.put(AfrLogFileContract.TPS_HEADER, new ArrayList<>());
-        map.put(AfrLogFileContract.BOOST_HEADER, new ArrayList<>());
+        LogFrame.Builder<String> builder = builder();
 
         try {
             boolean headersFound = false;
@@ -158,10 +161,14 @@ public class AfrLogParser {
                     double seconds = Double.parseDouble(split[2]);
                     double timestamp = (minuteSeconds + seconds);
 
-                    map.get(AfrLogFileContract.TIMESTAMP).add(timestamp);
-                    map.get(AfrLogFileContract.TPS_HEADER).add(Double.parseDouble(record.get(tpsColumnIndex)));
-                    map.get(AfrLogFileContract.RPM_HEADER).add(Double.parseDouble(record.get(rpmColumnIndex)));
-                    map.get(AfrLogFileContract.AFR_HEADER).add(Double.parseDouble(record.get(afrColumnIndex)));
+                    if (Double.isNaN(startTime)) {
+                        startTime = timestamp;
+                    }
+
+                    builder.add(AfrLogFileContract.TIMESTAMP, timestamp);
+                    builder.add(AfrLogFileContract.TPS_HEADER, Double.parseDouble(record.get(tpsColumnIndex)));
+                    builder.add(AfrLogFileContract.RPM_HEADER, Double.parseDouble(record.get(rpmColumnIndex)));
+                    builder.add(AfrLogFileContract.AFR_HEADER, Double.parseDouble(record.get(afrColumnIndex)));
 
                     double psi = Double.parseDouble(record.get(boostColumnIndex));
 
@@ -180,19 +187,22 @@ public class AfrLogParser {
                         mbar = psi*33.8639;
                     }
 
-                    map.get(AfrLogFileContract.BOOST_HEADER).add(mbar);
+                    builder.add(AfrLogFileContract.BOOST_HEADER, mbar);
                 }
             }
 
-            double startTime = map.get(AfrLogFileContract.TIMESTAMP).get(0);
-            map.get(AfrLogFileContract.START_TIME).add(startTime);
+            if (Double.isNaN(startTime)) {
+                throw new IOException("No samples in " + file.getName());
+            }
+
+            builder.addStartTime(startTime);
 
-            return map;
+            return builder.build();
         } catch (IOException e) {
             e.printStackTrace();
         }
 
-        return new HashMap<>();
+        return builder().build();
     }
 
     private boolean headersFound(int timeColumnIndex, int rpmColumnIndex, int tpsColumnIndex, int afrColumnIndex, int boostColumnIndex) {
@@ -0,0 +1,87 @@
+package data.parser.bin;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * A static interval tree over the address ranges of a set of tables. The ranges are sorted by start address and the
+ * sorted array is treated as an implicit balanced tree where every node also knows the largest end address in its
+ * subtree, so an overlap query visits O(log n + k) nodes.
+ */
+class AddressIndex {
+
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] tables;
+    private final int[] maxEnds;
+
+    /**
+     * @param addressRanges the address ranges of each table, by table index
+     */
+    AddressIndex(List<List<AddressRange>> addressRanges) {
+        List<int[]> entries = new ArrayList<>();
+        for (int table = 0; table < addressRanges.size(); table++) {
+            for (AddressRange range : addressRanges.get(table)) {
+                entries.add(new int[]{range.start(), range.end(), table});
+            }
+        }
+
+        entries.sort(Comparator.comparingInt(entry -> entry[0]));
+
+        starts = new int[entries.size()];
+        ends = new int[entries.size()];
+        tables = new int[entries.size()];
+        maxEnds = new int[entries.size()];
+
+        for (int i = 0; i < entries.size(); i++) {
+            starts[i] = entries.get(i)[0];
+            ends[i] = entries.get(i)[1];
+            tables[i] = entries.get(i)[2];
+        }
+
+        buildMaxEnds(0, starts.length);
+    }
+
+    private int buildMaxEnds(int low, int high) {
+        if (low >= high) {
+            return Integer.MIN_VALUE;
+        }
+
+        int mid = (low + high) >>> 1;
+        maxEnds[mid] = Math.max(ends[mid], Math.max(buildMaxEnds(low, mid), buildMaxEnds(mid + 1, high)));
+
+        return maxEnds[mid];
+    }
+
+    /**
+     * Calls the consumer with the table index of every range that overlaps the given range. A table with several
+     * overlapping ranges is reported once per range.
+     */
+    void query(AddressRange range, IntConsumer consumer) {
+        query(0, starts.length, range.start(), range.end(), consumer);
+    }
+
+    private void query(int low, int high, int start, int end, IntConsumer consumer) {
+        if (low >= high) {
+            return;
+        }
+
+        int mid = (low + high) >>> 1;
+
+        // Nothing in this subtree reaches the query
+        if (maxEnds[mid] <= start) {
+            return;
+        }
+
+        query(low, mid, start, end, consumer);
+
+        // Everything right of a range starting past the query starts past it too
+        if (starts[mid] < end) {
+            if (start < ends[mid]) {
+                consumer.accept(tables[mid]);
+            }
+
+            query(mid + 1, high, start, end, consumer);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package data.parser.bin;
+
+import data.parser.xdf.AxisDefinition;
+import data.parser.xdf.TableDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A half-open byte range [start, end) of a bin image.
+ */
+public record AddressRange(int start, int end) {
+
+    public static AddressRange of(int address, int length) {
+        return new AddressRange(address, address + length);
+    }
+
+    /**
+     * @return the byte ranges in the bin that hold the table's axes and data. Axes defined in the XDF are not included.
+     */
+    public static List<AddressRange> of(TableDefinition tableDefinition) {
+        List<AddressRange> ranges = new ArrayList<>(3);
+
+        AxisDefinition xAxis = tableDefinition.getXAxis();
+        AxisDefinition yAxis = tableDefinition.getYAxis();
+        AxisDefinition zAxis = tableDefinition.getZAxis();
+
+        if (xAxis != null && xAxis.getAddress() != 0) {
+            ranges.add(of(xAxis.getAddress(), xAxis.getSizeBits() / 8 * Math.max(xAxis.getRowCount(), 1) * Math.max(xAxis.getIndexCount(), 1)));
+        }
+
+        if (yAxis != null && yAxis.getAddress() != 0) {
+            ranges.add(of(yAxis.getAddress(), yAxis.getSizeBits() / 8 * Math.max(yAxis.getRowCount(), 1) * Math.max(yAxis.getIndexCount(), 1)));
+        }
+
+        if (zAxis != null && zAxis.getAddress() != 0) {
+            ranges.add(of(zAxis.getAddress(), zAxis.getSizeBits() / 8 * Math.max(zAxis.getRowCount(), 1) * Math.max(zAxis.getColumnCount(), 1)));
+        }
+
+        return ranges;
+    }
+
+    public int length() {
+        return end - start;
+    }
+
+    public boolean overlaps(AddressRange other) {
+        return start < other.end && other.start < end;
+    }
+}
@@ -0,0 +1,256 @@
+package data.parser.bin;
+
+import data.parser.xdf.TableDefinition;
+import data.parser.xdf.XdfParser;
+import domain.math.map.Map3d;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares two bins table by table. Tables are compared in parallel, and a table whose bytes are the same in both bins
+ * is not decoded at all. Bytes outside of every table are compared as raw ranges.
+ */
+public class BinComparator {
+
+    // Unmapped bytes are compared in blocks, only blocks that differ are walked byte by byte
+    private static final int BLOCK_SIZE = 4096;
+
+    /**
+     * Compares the bins with the table definitions of the XDF loaded in {@link XdfParser}.
+     */
+    public static BinComparison compare(File base, File other) throws IOException {
+        return compare(base, other, XdfParser.getInstance().getTableDefinitions());
+    }
+
+    public static BinComparison compare(File base, File other, List<TableDefinition> tableDefinitions) throws IOException {
+        return compare(TableRegistry.map(base, tableDefinitions), TableRegistry.map(other, tableDefinitions));
+    }
+
+    public static BinComparison compare(ByteBuffer base, ByteBuffer other, List<TableDefinition> tableDefinitions) {
+        return compare(new TableRegistry(base, tableDefinitions), new TableRegistry(other, tableDefinitions));
+    }
+
+    private static BinComparison compare(TableRegistry base, TableRegistry other) {
+        ByteBuffer baseImage = base.getImage();
+        ByteBuffer otherImage = other.getImage();
+        List<TableDefinition> tableDefinitions = base.getTableDefinitions();
+        // Each table sets only its own element, the stream completes before it is read
+        boolean[] identical = new boolean[tableDefinitions.size()];
+
+        List<TableDifference> tableDifferences = IntStream.range(0, tableDefinitions.size()).parallel()
+                .mapToObj(index -> {
+                    TableDefinition tableDefinition = tableDefinitions.get(index);
+
+                    if (isIdentical(baseImage, otherImage, AddressRange.of(tableDefinition))) {
+                        identical[index] = true;
+                        return null;
+                    }
+
+                    return compare(tableDefinition, base.getMap(index).getSecond(), other.getMap(index).getSecond());
+                })
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        int identicalTables = 0;
+        for (boolean tableIdentical : identical) {
+            if (tableIdentical) {
+                identicalTables++;
+            }
+        }
+
+        // The tables that differ only in bytes that do not change their values
+        int byteOnlyDifferences = Collections.frequency(tableDifferences, null) - identicalTables;
+        tableDifferences.removeIf(Objects::isNull);
+
+        return new BinComparison(Collections.unmodifiableList(tableDifferences), identicalTables, byteOnlyDifferences, unmappedDifferences(baseImage, otherImage, tableDefinitions));
+    }
+
+    /**
+     * @return true if every range is inside both images and has the same bytes in each
+     */
+    private static boolean isIdentical(ByteBuffer base, ByteBuffer other, List<AddressRange> ranges) {
+        for (AddressRange range : ranges) {
+            if (range.end() > base.capacity() || range.end() > other.capacity()) {
+                return false;
+            }
+
+            int length = range.end() - range.start();
+            if (base.slice(range.start(), length).mismatch(other.slice(range.start(), length)) != -1) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the difference or null if the decoded tables are the same, which happens when only unused bits changed
+     */
+    private static TableDifference compare(TableDefinition tableDefinition, Map3d base, Map3d other) {
+        int changedAxisCells = countChanged(base.xAxis, other.xAxis) + countChanged(base.yAxis, other.yAxis);
+
+        if (!isSameShape(base.zAxis, other.zAxis)) {
+            int cells = Math.max(countCells(base.zAxis), countCells(other.zAxis));
+            return new TableDifference(tableDefinition, cells, changedAxisCells, Double.NaN, Double.NaN, true);
+        }
+
+        int changedCells = 0;
+        double maxAbsoluteDelta = Double.NaN;
+        double maxRelativeDelta = Double.NaN;
+
+        for (int i = 0; i < base.zAxis.length; i++) {
+            for (int j = 0; j < base.zAxis[i].length; j++) {
+                Double a = base.zAxis[i][j];
+                Double b = other.zAxis[i][j];
+
+                if (Objects.equals(a, b)) {
+                    continue;
+                }
+
+                changedCells++;
+
+                if (a == null || b == null || a.isNaN() || b.isNaN()) {
+                    continue;
+                }
+
+                double delta = Math.abs(b - a);
+                maxAbsoluteDelta = Double.isNaN(maxAbsoluteDelta) ? delta : Math.max(maxAbsoluteDelta, delta);
+
+                if (a != 0) {
+                    double relativeDelta = delta / Math.abs(a);
+                    maxRelativeDelta = Double.isNaN(maxRelativeDelta) ? relativeDelta : Math.max(maxRelativeDelta, relativeDelta);
+                }
+            }
+        }
+
+        if (changedCells == 0 && changedAxisCells == 0) {
+            return null;
+        }
+
+        return new TableDifference(tableDefinition, changedCells, changedAxisCells, maxAbsoluteDelta, maxRelativeDelta, false);
+    }
+
+    private static int countChanged(Double[] base, Double[] other) {
+        if (base.length != other.length) {
+            return Math.max(base.length, other.length);
+        }
+
+        int changed = 0;
+        for (int i = 0; i < base.length; i++) {
+            if (!Objects.equals(base[i], other[i])) {
+                changed++;
+            }
+        }
+
+        return changed;
+    }
+
+    private static boolean isSameShape(Double[][] base, Double[][] other) {
+        if (base.length != other.length) {
+            return false;
+        }
+
+        for (int i = 0; i < base.length; i++) {
+            if (base[i].length != other[i].length) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int countCells(Double[][] values) {
+        int cells = 0;
+        for (Double[] row : values) {
+            cells += row.length;
+        }
+
+        return cells;
+    }
+
+    private static List<AddressRange> unmappedDifferences(ByteBuffer base, ByteBuffer other, List<TableDefinition> tableDefinitions) {
+        List<AddressRange> differences = new ArrayList<>();
+        int length = Math.min(base.capacity(), other.capacity());
+
+        int start = -1;
+        for (int block = 0; block < length; block += BLOCK_SIZE) {
+            int blockLength = Math.min(BLOCK_SIZE, length - block);
+
+            if (base.slice(block, blockLength).mismatch(other.slice(block, blockLength)) == -1) {
+                if (start >= 0) {
+                    differences.add(new AddressRange(start, block));
+                    start = -1;
+                }
+                continue;
+            }
+
+            for (int i = block; i < block + blockLength; i++) {
+                boolean different = base.get(i) != other.get(i);
+
+                if (different && start < 0) {
+                    start = i;
+                } else if (!different && start >= 0) {
+                    differences.add(new AddressRange(start, i));
+                    start = -1;
+                }
+            }
+        }
+
+        if (start >= 0) {
+            differences.add(new AddressRange(start, length));
+        }
+
+        if (base.capacity() != other.capacity()) {
+            differences.add(new AddressRange(length, Math.max(base.capacity(), other.capacity())));
+        }
+
+        return subtract(differences, tableDefinitions);
+    }
+
+    /**
+     * @return the parts of the ranges, which must be sorted and disjoint, that are not covered by any table
+     */
+    private static List<AddressRange> subtract(List<AddressRange> ranges, List<TableDefinition> tableDefinitions) {
+        List<AddressRange> tables = new ArrayList<>();
+        for (TableDefinition tableDefinition : tableDefinitions) {
+            tables.addAll(AddressRange.of(tableDefinition));
+        }
+        tables.sort(Comparator.comparingInt(AddressRange::start));
+
+        List<AddressRange> result = new ArrayList<>();
+        int table = 0;
+        // The end of the tables seen so far, tables may overlap each other
+        int covered = Integer.MIN_VALUE;
+
+        for (AddressRange range : ranges) {
+            int position = range.start();
+
+            while (position < range.end()) {
+                // Take in every table that starts at or before the position
+                while (table < tables.size() && tables.get(table).start() <= position) {
+                    covered = Math.max(covered, tables.get(table).end());
+                    table++;
+                }
+
+                if (covered > position) {
+                    position = Math.min(covered, range.end());
+                    continue;
+                }
+
+                int next = table < tables.size() ? Math.min(tables.get(table).start(), range.end()) : range.end();
+                result.add(new AddressRange(position, next));
+                position = next;
+            }
+        }
+
+        return Collections.unmodifiableList(result);
+    }
+}
@@ -0,0 +1,16 @@
+package data.parser.bin;
+
+import java.util.List;
+
+/**
+ * The differences between a base bin and another bin.
+ *
+ * @param tableDifferences the tables that differ, in definition order
+ * @param identicalTables the number of tables whose bytes are the same in both bins
+ * @param byteOnlyDifferences the number of tables whose bytes differ but decode to the same values in both bins, such as
+ *                            when only unused bits changed. They are neither identical nor in the table differences.
+ * @param unmappedDifferences the byte ranges that differ outside of every table, including any bytes past the end of
+ *                            the shorter bin
+ */
+public record BinComparison(List<TableDifference> tableDifferences, int identicalTables, int byteOnlyDifferences, List<AddressRange> unmappedDifferences) {
+}
@@ -1,33 +1,31 @@
 package data.parser.bin;
 
-import data.parser.xdf.AxisDefinition;
 import data.parser.xdf.TableDefinition;
 import data.parser.xdf.XdfParser;
 import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
+import io.reactivex.annotations.Nullable;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.subjects.BehaviorSubject;
+import io.reactivex.subjects.PublishSubject;
 import domain.math.map.Map3d;
 import org.apache.commons.math3.util.Pair;
 import data.preferences.bin.BinFilePreferences;
+import data.writer.BinJournal;
 import data.writer.BinWriter;
 
-import javax.script.*;
-import java.io.*;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 public class BinParser {
 
     private static volatile BinParser instance;
 
-    private final ScriptEngine engine = new ScriptEngineManager().getEngineByName("graal.js");
-
-    private final List<Pair<TableDefinition, Map3d>> mapList = new ArrayList<>();
+    private volatile TableRegistry tableRegistry = TableRegistry.empty();
 
     private final BehaviorSubject<List<Pair<TableDefinition, Map3d>>> behaviorSubject = BehaviorSubject.create();
+    private final PublishSubject<List<TableDefinition>> tableChangeSubject = PublishSubject.create();
 
     private File binaryFile = new File("");
 
@@ -43,7 +41,7 @@ public class BinParser {
 
                 if (binaryFile.exists() && binaryFile.isFile()) {
                     try {
-                        parse(new BufferedInputStream(new FileInputStream(binaryFile)), XdfParser.getInstance().getTableDefinitions());
+                        parse(binaryFile, XdfParser.getInstance().getTableDefinitions());
                     } catch (IOException e) {
                         e.printStackTrace();
                     }
@@ -68,7 +66,7 @@ public class BinParser {
             public void onNext(@NonNull List<TableDefinition> tableDefinitions) {
                 if (binaryFile.exists() && binaryFile.isFile()) {
                     try {
-                        parse(new BufferedInputStream(new FileInputStream(binaryFile)), tableDefinitions);
+                        parse(binaryFile, tableDefinitions);
                     } catch (IOException e) {
                         e.printStackTrace();
                     }
@@ -84,19 +82,19 @@ public class BinParser {
             }
         });
 
-        BinWriter.getInstance().register(new Observer<>() {
+        BinWriter.getInstance().registerDirtyRangeObserver(new Observer<>() {
             @Override
             public void onSubscribe(@NonNull Disposable disposable) {
             }
 
             @Override
-            public void onNext(@NonNull TableDefinition tableDefinition) {
-                if (binaryFile.exists() && binaryFile.isFile()) {
-                    try {
-                        parse(new BufferedInputStream(new FileInputStream(binaryFile)), XdfParser.getInstance().getTableDefinitions());
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
+            public void onNext(@NonNull List<AddressRange> dirtyRanges) {
+                // The image is a shared mapping of the bin so it already holds the written bytes. Only the tables
+                // that were written need to be decoded again.
+                List<TableDefinition> changedTables = tableRegistry.invalidate(dirtyRanges);
+
+                if (!changedTables.isEmpty()) {
+                    tableChangeSubject.onNext(changedTables);
                 }
             }
 
@@ -122,175 +120,72 @@ public class BinParser {
         return instance;
     }
 
+    /**
+     * @param observer notified with a read-only view of every table each time a bin or XDF is loaded. A table is
+     *                 decoded the first time it is accessed through the view, so publishing costs nothing however many
+     *                 tables the XDF defines. The view is not a snapshot: after a write it decodes the written tables
+     *                 again and shows the new values. It keeps showing the bin it was published for once another bin
+     *                 or XDF is loaded.
+     */
     public void registerMapListObserver(@NonNull Observer<List<Pair<TableDefinition, Map3d>>> observer) {
         behaviorSubject.subscribe(observer);
     }
 
-    public List<Pair<TableDefinition, Map3d>> getMapList() {
-        return mapList;
+    /**
+     * @param observer notified with the tables that changed when a write touches part of the loaded bin. A new bin or
+     *                 XDF is published to {@link #registerMapListObserver(Observer)} observers instead.
+     */
+    public void registerTableChangeObserver(@NonNull Observer<List<TableDefinition>> observer) {
+        tableChangeSubject.subscribe(observer);
     }
 
-    private void parse(InputStream inputStream, List<TableDefinition> tableDefinitions) throws IOException {
-        mapList.clear();
-
-        BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream);
-        byte[] bytes = new byte[bufferedInputStream.available()];
-        bufferedInputStream.read(bytes);
-        for(TableDefinition tableDefinition:tableDefinitions) {
-            AxisDefinition xAxisDefinition = tableDefinition.getXAxis();
-            AxisDefinition yAxisDefinition = tableDefinition.getYAxis();
-            AxisDefinition zAxisDefinition = tableDefinition.getZAxis();
-
-            Double[] xAxis = new Double[0];
-            Double[] yAxis = new Double[0];
-            Double[][] zAxis = new Double[0][0];
-
-            if(xAxisDefinition != null) {
-                xAxis = parseAxis(bytes, xAxisDefinition);
-            }
-            if(yAxisDefinition != null) {
-                yAxis = parseAxis(bytes, yAxisDefinition);
-            }
-            if(zAxisDefinition != null) {
-                zAxis = parseData(bytes, zAxisDefinition);
-            }
-
-            mapList.add(new Pair<>(tableDefinition, new Map3d(xAxis, yAxis, zAxis)));
-        }
-
-        behaviorSubject.onNext(mapList);
+    /**
+     * @return every table of the loaded bin. Tables are decoded as they are accessed.
+     */
+    public List<Pair<TableDefinition, Map3d>> getMapList() {
+        return tableRegistry.getMapList();
     }
 
-    private Double[] parseAxis(byte[] bytes, AxisDefinition axisDefinition) {
-        ByteBuffer buffer = ByteBuffer.wrap(bytes);
-        int address = axisDefinition.getAddress();
-
-        if(address != 0) { // Parse from the bin
-            buffer.position(address);
-            int strideBytes = axisDefinition.getSizeBits()/8;
-            // Determine how many bytes per row to get the last index of the axis
-            buffer.limit(address + (strideBytes*axisDefinition.getIndexCount()));
-
-            ByteBuffer slice = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
-            slice.position(0);
-
-            try {
-                CompiledScript compiledScript = ((Compilable)engine)
-                        .compile("function func("+ axisDefinition.getVarId() +") { return " + axisDefinition.getEquation() + "}");
-                compiledScript.eval(compiledScript.getEngine()
-                        .getBindings(ScriptContext.ENGINE_SCOPE));
-
-                Invocable funcEngine = (Invocable) compiledScript.getEngine();
-
-                Double[] axis = new Double[axisDefinition.getIndexCount()];
-
-                for (int i = 0; i < axis.length; i++) {
-                    int value;
-                    if(strideBytes == 1) {
-                        // 0x00 = unsigned, LSB last
-                        // 0x01 = signed, LSB last
-                        // 0x02 = unsigned, LSB first
-                        // 0x03 = signed, LSB first
-                        if(axisDefinition.getType() % 2 == 0) {
-                            value = Byte.toUnsignedInt(slice.get());
-                        } else {
-                            value = slice.get();
-                        }
-                    } else {
-                        // 0x00 = unsigned, LSB last
-                        // 0x01 = signed, LSB last
-                        // 0x02 = unsigned, LSB first
-                        // 0x03 = signed, LSB first
-                        if(axisDefinition.getType() % 2 == 0) {
-                            value = Short.toUnsignedInt(slice.getShort());
-                        } else {
-                            value = slice.getShort();
-                        }
-                    }
-
-                    axis[i] = ((Number)funcEngine.invokeFunction("func", value)).doubleValue();
-                }
+    /**
+     * @return the tables defined by the XDF, or an empty list if no bin is loaded
+     */
+    public List<TableDefinition> getTableDefinitions() {
+        return tableRegistry.getTableDefinitions();
+    }
 
-                return axis;
-            } catch (ScriptException | NoSuchMethodException e) {
-                e.printStackTrace();
-            }
-        } else if(axisDefinition.getIndexCount() != 0) { // Parse from xdf
-            Double[] axis = new Double[axisDefinition.getIndexCount()];
-            for(int i = 0; i < axis.length; i++) {
-                axis[i] = axisDefinition.getAxisValues().get(i).getSecond().doubleValue();
-            }
+    /**
+     * Decodes the table on first access.
+     *
+     * @return the decoded table or null if the definition is not part of the loaded bin
+     */
+    @Nullable
+    public Pair<TableDefinition, Map3d> getMap(TableDefinition tableDefinition) {
+        return tableRegistry.getMap(tableDefinition);
+    }
 
-            return axis;
-        }
+    /**
+     * @return the decoded table with the title, description and unit, or null if the loaded bin has no such table
+     */
+    @Nullable
+    public Pair<TableDefinition, Map3d> getMap(TableKey key) {
+        return tableRegistry.getMap(key);
+    }
 
-        return new Double[0];
+    /**
+     * @return the tables of the loaded bin with any byte in the ranges
+     */
+    public List<TableDefinition> getOverlappingTables(List<AddressRange> ranges) {
+        return tableRegistry.getOverlappingTables(ranges);
     }
 
-    private Double[][] parseData(byte[] bytes, AxisDefinition axisDefinition) {
-        ByteBuffer buffer = ByteBuffer.wrap(bytes);
-        int address = axisDefinition.getAddress();
-
-        if(address != 0) {
-            buffer.position(address);
-            int rowCount = axisDefinition.getRowCount();
-            int columnCount = Math.max(1, axisDefinition.getColumnCount());
-
-            int stride = axisDefinition.getSizeBits()/8;
-
-            // Determine how many bytes per row to get the last index of the axis
-            buffer.limit(address + (stride*(rowCount * columnCount)));
-            ByteBuffer slice = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
-            slice.position(0);
-
-            try {
-                CompiledScript compiledScript = ((Compilable)engine)
-                        .compile("function func("+ axisDefinition.getVarId() +") { return " + axisDefinition.getEquation() + "}");
-                compiledScript.eval(compiledScript.getEngine()
-                        .getBindings(ScriptContext.ENGINE_SCOPE));
-
-                Invocable funcEngine = (Invocable) compiledScript.getEngine();
-
-                Double[][] axis = new Double[rowCount][columnCount];
-
-                for (int i = 0; i < axis.length; i++) {
-                    axis[i] = new Double[columnCount];
-                    for (int j = 0; j < axis[i].length; j++) {
-                        int value;
-                        if(stride == 1) {
-                            // 0x00 = unsigned, LSB last
-                            // 0x01 = signed, LSB last
-                            // 0x02 = unsigned, LSB first
-                            // 0x03 = signed, LSB first
-                            if(axisDefinition.getType() % 2 == 0) {
-                                value = Byte.toUnsignedInt(slice.get());
-                            } else {
-                                value = slice.get();
-                            }
-                        } else {
-                            // 0x00 = unsigned, LSB last
-                            // 0x01 = signed, LSB last
-                            // 0x02 = unsigned, LSB first
-                            // 0x03 = signed, LSB first
-                            if(axisDefinition.getType() % 2 == 0) {
-                                value = Short.toUnsignedInt(slice.getShort());
-                            } else {
-                                value = slice.getShort();
-                            }
-                        }
-
-                        axis[i][j] = ((Number)funcEngine.invokeFunction("func", value)).doubleValue();
-                    }
-                }
+    private void parse(File file, List<TableDefinition> tableDefinitions) throws IOException {
+        // Undo a write that was interrupted before it completed
+        BinJournal.rollback(file);
 
-                return axis;
-            } catch (ScriptException | NoSuchMethodException e) {
-                e.printStackTrace();
-            }
-        }
+        tableRegistry = TableRegistry.map(file, tableDefinitions);
 
-        return new Double[0][0];
+        // Observers only look up the few tables they show, decoding every table here would make opening a bin scale
+        // with the size of the XDF again
+        behaviorSubject.onNext(tableRegistry.getMapList());
     }
-
-
 }
@@ -0,0 +1,165 @@
+package data.parser.bin;
+
+import data.parser.xdf.AxisDefinition;
+import io.reactivex.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The storage type of the cells of an axis. Each type reads and writes its cells without per-cell branching, the byte
+ * order is set on the buffer by the caller.
+ */
+public enum CellType {
+    U8(1, false, false) {
+        @Override
+        public void read(ByteBuffer buffer, double[] raw) {
+            for (int i = 0; i < raw.length; i++) {
+                raw[i] = buffer.get(i) & 0xFF;
+            }
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, double raw) {
+            buffer.put((byte) (long) raw);
+        }
+    },
+    S8(1, true, false) {
+        @Override
+        public void read(ByteBuffer buffer, double[] raw) {
+            for (int i = 0; i < raw.length; i++) {
+                raw[i] = buffer.get(i);
+            }
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, double raw) {
+            buffer.put((byte) (long) raw);
+        }
+    },
+    U16(2, false, false) {
+        @Override
+        public void read(ByteBuffer buffer, double[] raw) {
+            for (int i = 0; i < raw.length; i++) {
+                raw[i] = buffer.getShort(i << 1) & 0xFFFF;
+            }
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, double raw) {
+            buffer.putShort((short) (long) raw);
+        }
+    },
+    S16(2, true, false) {
+        @Override
+        public void read(ByteBuffer buffer, double[] raw) {
+            for (int i = 0; i < raw.length; i++) {
+                raw[i] = buffer.getShort(i << 1);
+            }
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, double raw) {
+            buffer.putShort((short) (long) raw);
+        }
+    },
+    U32(4, false, false) {
+        @Override
+        public void read(ByteBuffer buffer, double[] raw) {
+            for (int i = 0; i < raw.length; i++) {
+                raw[i] = buffer.getInt(i << 2) & 0xFFFFFFFFL;
+            }
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, double raw) {
+            buffer.putInt((int) (long) raw);
+        }
+    },
+    S32(4, true, false) {
+        @Override
+        public void read(ByteBuffer buffer, double[] raw) {
+            for (int i = 0; i < raw.length; i++) {
+                raw[i] = buffer.getInt(i << 2);
+            }
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, double raw) {
+            buffer.putInt((int) (long) raw);
+        }
+    },
+    F32(4, true, true) {
+        @Override
+        public void read(ByteBuffer buffer, double[] raw) {
+            for (int i = 0; i < raw.length; i++) {
+                raw[i] = buffer.getFloat(i << 2);
+            }
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, double raw) {
+            buffer.putFloat((float) raw);
+        }
+    };
+
+    // XDF mmedtypeflags
+    private static final int SIGNED_FLAG = 0x01;
+    private static final int LSB_FIRST_FLAG = 0x02;
+    private static final int FLOAT_FLAG = 0x10000;
+
+    private final int sizeBytes;
+    private final boolean signed;
+    private final boolean floating;
+
+    CellType(int sizeBytes, boolean signed, boolean floating) {
+        this.sizeBytes = sizeBytes;
+        this.signed = signed;
+        this.floating = floating;
+    }
+
+    /**
+     * @return the cell type or null if the element size is not supported
+     */
+    @Nullable
+    public static CellType of(AxisDefinition axisDefinition) {
+        boolean signed = (axisDefinition.getType() & SIGNED_FLAG) != 0;
+
+        return switch (axisDefinition.getSizeBits()) {
+            case 8 -> signed ? S8 : U8;
+            case 16 -> signed ? S16 : U16;
+            case 32 -> (axisDefinition.getType() & FLOAT_FLAG) != 0 ? F32 : signed ? S32 : U32;
+            default -> null;
+        };
+    }
+
+    public static ByteOrder getByteOrder(AxisDefinition axisDefinition) {
+        return (axisDefinition.getType() & LSB_FIRST_FLAG) != 0 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+    }
+
+    /**
+     * Reads raw.length cells from the start of the buffer with absolute reads.
+     */
+    public abstract void read(ByteBuffer buffer, double[] raw);
+
+    /**
+     * Writes one cell at the buffer's position. Integer raw values must already be in range.
+     */
+    public abstract void write(ByteBuffer buffer, double raw);
+
+    public int getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public int getSizeBits() {
+        return sizeBytes * 8;
+    }
+
+    public boolean isSigned() {
+        return signed;
+    }
+
+    public boolean isFloating() {
+        return floating;
+    }
+}
@@ -0,0 +1,140 @@
+package data.parser.bin;
+
+import data.equation.ConversionCache;
+import data.equation.ConversionTable;
+import data.equation.EquationCompiler;
+import data.parser.xdf.AxisDefinition;
+import data.parser.xdf.TableDefinition;
+import domain.math.map.Map3d;
+
+import javax.script.ScriptException;
+import java.nio.ByteBuffer;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Decodes a single table from a bin image. The image is only read with absolute slices so one image can be shared by
+ * any number of decoding threads.
+ */
+public class TableDecoder {
+
+    public static Map3d decode(ByteBuffer image, TableDefinition tableDefinition) {
+        AxisDefinition xAxisDefinition = tableDefinition.getXAxis();
+        AxisDefinition yAxisDefinition = tableDefinition.getYAxis();
+        AxisDefinition zAxisDefinition = tableDefinition.getZAxis();
+
+        Double[] xAxis = new Double[0];
+        Double[] yAxis = new Double[0];
+        Double[][] zAxis = new Double[0][0];
+
+        if(xAxisDefinition != null) {
+            xAxis = parseAxis(image, xAxisDefinition);
+        }
+        if(yAxisDefinition != null) {
+            yAxis = parseAxis(image, yAxisDefinition);
+        }
+        if(zAxisDefinition != null) {
+            zAxis = parseData(image, zAxisDefinition);
+        }
+
+        return new Map3d(xAxis, yAxis, zAxis);
+    }
+
+    private static Double[] parseAxis(ByteBuffer image, AxisDefinition axisDefinition) {
+        if(axisDefinition.getAddress() != 0) { // Parse from the bin
+            double[] values = decodeCells(image, axisDefinition, axisDefinition.getIndexCount());
+
+            if(values != null) {
+                Double[] axis = new Double[values.length];
+                for (int i = 0; i < axis.length; i++) {
+                    axis[i] = values[i];
+                }
+
+                return axis;
+            }
+        } else if(axisDefinition.getIndexCount() != 0) { // Parse from xdf
+            Double[] axis = new Double[axisDefinition.getIndexCount()];
+            for(int i = 0; i < axis.length; i++) {
+                axis[i] = axisDefinition.getAxisValues().get(i).getSecond().doubleValue();
+            }
+
+            return axis;
+        }
+
+        return new Double[0];
+    }
+
+    private static Double[][] parseData(ByteBuffer image, AxisDefinition axisDefinition) {
+        if(axisDefinition.getAddress() != 0) {
+            int rowCount = axisDefinition.getRowCount();
+            int columnCount = Math.max(1, axisDefinition.getColumnCount());
+
+            double[] values = decodeCells(image, axisDefinition, rowCount * columnCount);
+
+            if(values != null) {
+                Double[][] axis = new Double[rowCount][columnCount];
+
+                int index = 0;
+                for (int i = 0; i < axis.length; i++) {
+                    for (int j = 0; j < axis[i].length; j++) {
+                        axis[i][j] = values[index++];
+                    }
+                }
+
+                return axis;
+            }
+        }
+
+        return new Double[0][0];
+    }
+
+    /**
+     * @return the physical values of the cells at the address of the axis or null if the cells are outside of the image
+     * or have an unsupported size
+     */
+    private static double[] decodeCells(ByteBuffer image, AxisDefinition axisDefinition, int count) {
+        CellType cellType = CellType.of(axisDefinition);
+
+        if(cellType == null) {
+            return null;
+        }
+
+        int address = axisDefinition.getAddress();
+        int length = cellType.getSizeBytes() * count;
+
+        if(address + length > image.capacity()) {
+            return null;
+        }
+
+        double[] values = new double[count];
+        cellType.read(image.slice(address, length).order(CellType.getByteOrder(axisDefinition)), values);
+
+        try {
+            convert(axisDefinition, cellType, values);
+        } catch (ScriptException e) {
+            e.printStackTrace();
+            return null;
+        }
+
+        return values;
+    }
+
+    /**
+     * Converts raw values in place. 8 and 16 bit cells are converted with a shared lookup table, anything wider
+     * evaluates the equation per cell.
+     */
+    private static void convert(AxisDefinition axisDefinition, CellType cellType, double[] values) throws ScriptException {
+        ConversionTable table = cellType.isFloating() ? null : ConversionCache.get(axisDefinition.getEquation(), axisDefinition.getVarId(), cellType.getSizeBits(), cellType.isSigned());
+
+        if (table != null) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = table.decode((int) values[i]);
+            }
+        } else {
+            DoubleUnaryOperator func = EquationCompiler.compile(axisDefinition.getEquation(), axisDefinition.getVarId());
+
+            for (int i = 0; i < values.length; i++) {
+                values[i] = func.applyAsDouble(values[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package data.parser.bin;
+
+import data.parser.xdf.TableDefinition;
+
+/**
+ * How a table differs between two bins.
+ *
+ * @param changedCells the number of data cells with a different value
+ * @param changedAxisCells the number of axis breakpoints read from the bin with a different value
+ * @param maxAbsoluteDelta the largest absolute difference of a data cell, NaN if no two comparable cells differ
+ * @param maxRelativeDelta the largest difference of a data cell relative to the base value, NaN if no cell with a
+ *                         non zero base value differs
+ * @param sizeChanged true if the table could be read from only one of the bins, every cell then counts as changed
+ */
+public record TableDifference(TableDefinition tableDefinition, int changedCells, int changedAxisCells, double maxAbsoluteDelta, double maxRelativeDelta, boolean sizeChanged) {
+}
@@ -0,0 +1,13 @@
+package data.parser.bin;
+
+import data.parser.xdf.TableDefinition;
+
+/**
+ * Identifies a table the way map preferences store it, by title, description and unit.
+ */
+public record TableKey(String title, String description, String unit) {
+
+    public static TableKey of(TableDefinition tableDefinition) {
+        return new TableKey(tableDefinition.getTableName(), tableDefinition.getTableDescription(), tableDefinition.getZAxis().getUnit());
+    }
+}
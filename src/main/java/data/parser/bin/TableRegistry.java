@@ -0,0 +1,181 @@
+package data.parser.bin;
+
+import data.parser.xdf.TableDefinition;
+import domain.math.map.Map3d;
+import org.apache.commons.math3.util.Pair;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * The tables of a read-only, memory mapped bin image. A table is decoded the first time it is requested and cached
+ * from then on. {@link #decodeAll()} decodes the remaining tables in parallel.
+ */
+public class TableRegistry {
+
+    private final ByteBuffer image;
+    private final List<TableDefinition> tableDefinitions;
+    private final Map<TableDefinition, Integer> indices = new IdentityHashMap<>();
+    private final Map<TableKey, Integer> keys = new HashMap<>();
+    private final AddressIndex addressIndex;
+    private final AtomicReferenceArray<DecodedTable> decodedTables;
+    // Bumped each time a table is invalidated, a decoded table is only used while its generation is current
+    private final AtomicLongArray generations;
+
+    private final List<Pair<TableDefinition, Map3d>> mapList = new AbstractList<>() {
+        @Override
+        public Pair<TableDefinition, Map3d> get(int index) {
+            return getMap(index);
+        }
+
+        @Override
+        public int size() {
+            return tableDefinitions.size();
+        }
+    };
+
+    public TableRegistry(ByteBuffer image, List<TableDefinition> tableDefinitions) {
+        this.image = image.asReadOnlyBuffer();
+        this.tableDefinitions = List.copyOf(tableDefinitions);
+        this.decodedTables = new AtomicReferenceArray<>(this.tableDefinitions.size());
+        this.generations = new AtomicLongArray(this.tableDefinitions.size());
+
+        List<List<AddressRange>> addressRanges = new ArrayList<>(this.tableDefinitions.size());
+
+        for (int i = 0; i < this.tableDefinitions.size(); i++) {
+            indices.put(this.tableDefinitions.get(i), i);
+            // The first of several tables with the same key wins
+            keys.putIfAbsent(TableKey.of(this.tableDefinitions.get(i)), i);
+            addressRanges.add(AddressRange.of(this.tableDefinitions.get(i)));
+        }
+
+        addressIndex = new AddressIndex(addressRanges);
+    }
+
+    public static TableRegistry empty() {
+        return new TableRegistry(ByteBuffer.allocate(0), List.of());
+    }
+
+    public static TableRegistry map(File file, List<TableDefinition> tableDefinitions) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new TableRegistry(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), tableDefinitions);
+        }
+    }
+
+    public ByteBuffer getImage() {
+        return image.duplicate();
+    }
+
+    public List<TableDefinition> getTableDefinitions() {
+        return tableDefinitions;
+    }
+
+    public Pair<TableDefinition, Map3d> getMap(int index) {
+        while (true) {
+            long generation = generations.get(index);
+            DecodedTable decodedTable = decodedTables.get(index);
+
+            // A decode from before the table was last invalidated may have read the bytes from before the write
+            if (decodedTable != null && decodedTable.generation() == generation) {
+                return decodedTable.map();
+            }
+
+            TableDefinition tableDefinition = tableDefinitions.get(index);
+            decodedTables.compareAndSet(index, decodedTable, new DecodedTable(generation, new Pair<>(tableDefinition, TableDecoder.decode(image, tableDefinition))));
+        }
+    }
+
+    /**
+     * Decodes every table that has not been decoded yet on the common fork join pool.
+     *
+     * @return an immutable snapshot of every table
+     */
+    public List<Pair<TableDefinition, Map3d>> decodeAll() {
+        IntStream.range(0, tableDefinitions.size()).parallel().forEach(this::getMap);
+
+        List<Pair<TableDefinition, Map3d>> snapshot = new ArrayList<>(tableDefinitions.size());
+        for (int i = 0; i < tableDefinitions.size(); i++) {
+            snapshot.add(getMap(i));
+        }
+
+        return Collections.unmodifiableList(snapshot);
+    }
+
+    /**
+     * @return the decoded table or null if the definition does not belong to this registry
+     */
+    public Pair<TableDefinition, Map3d> getMap(TableDefinition tableDefinition) {
+        Integer index = indices.get(tableDefinition);
+
+        return index == null ? null : getMap(index);
+    }
+
+    /**
+     * @return the decoded table or null if no table has the key
+     */
+    public Pair<TableDefinition, Map3d> getMap(TableKey key) {
+        Integer index = keys.get(key);
+
+        return index == null ? null : getMap(index);
+    }
+
+    /**
+     * @return the tables with any byte in the range, in registry order
+     */
+    public List<TableDefinition> getOverlappingTables(List<AddressRange> ranges) {
+        BitSet overlapping = overlapping(ranges);
+        List<TableDefinition> tables = new ArrayList<>(overlapping.cardinality());
+
+        for (int i = overlapping.nextSetBit(0); i >= 0; i = overlapping.nextSetBit(i + 1)) {
+            tables.add(tableDefinitions.get(i));
+        }
+
+        return tables;
+    }
+
+    /**
+     * Drops the cached decode of every table that overlaps the given ranges so it is decoded from the image again on
+     * the next access.
+     *
+     * @return the tables that overlap the ranges
+     */
+    public List<TableDefinition> invalidate(List<AddressRange> dirtyRanges) {
+        List<TableDefinition> changed = getOverlappingTables(dirtyRanges);
+
+        for (TableDefinition tableDefinition : changed) {
+            int index = indices.get(tableDefinition);
+            generations.incrementAndGet(index);
+            // Only frees the stale table, a decode still in flight is discarded by its generation
+            decodedTables.set(index, null);
+        }
+
+        return changed;
+    }
+
+    private BitSet overlapping(List<AddressRange> ranges) {
+        BitSet overlapping = new BitSet(tableDefinitions.size());
+
+        for (AddressRange range : ranges) {
+            addressIndex.query(range, overlapping::set);
+        }
+
+        return overlapping;
+    }
+
+    private record DecodedTable(long generation, Pair<TableDefinition, Map3d> map) {}
+
+    /**
+     * @return a view of every table that decodes each one on first access
+     */
+    public List<Pair<TableDefinition, Map3d>> getMapList() {
+        return mapList;
+    }
+}
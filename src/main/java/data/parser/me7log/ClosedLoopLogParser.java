@@ -1,6 +1,11 @@
 package data.parser.me7log;
 
-import data.contract.Me7LogFileContract;
+import data.parser.xdf.TableDefinition;
+import data.preferences.closedloopfueling.ClosedLoopFuelingLogPreferences;
+import data.preferences.mlhfm.MlhfmPreferences;
+import domain.math.map.Map3d;
+import domain.model.closedloopfueling.ClosedLoopFuelingCorrection;
+import domain.model.closedloopfueling.ClosedLoopFuelingCorrectionManager;
 import io.reactivex.Observer;
 import io.reactivex.Single;
 import io.reactivex.SingleObserver;
@@ -8,15 +13,15 @@ import io.reactivex.annotations.NonNull;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subjects.PublishSubject;
+import org.apache.commons.math3.util.Pair;
 
 import javax.swing.*;
 import java.io.File;
-import java.util.List;
-import java.util.Map;
 
 public class ClosedLoopLogParser {
 
-    private final PublishSubject<Map<Me7LogFileContract.Header, List<Double>>> publishSubject;
+    private final PublishSubject<ClosedLoopFuelingCorrection> publishSubject;
+    private final PublishSubject<Me7LogParser.ParseReport> parseReportSubject;
 
     private static ClosedLoopLogParser instance;
 
@@ -34,23 +39,48 @@ public class ClosedLoopLogParser {
 
     private ClosedLoopLogParser() {
         publishSubject = PublishSubject.create();
+        parseReportSubject = PublishSubject.create();
     }
 
-    public void registerClosedLoopLogOnChangeObserver(Observer<Map<Me7LogFileContract.Header, List<Double>>> observer){
+    /**
+     * @param observer notified on the event dispatch thread with the correction made from each load
+     */
+    public void registerClosedLoopCorrectionObserver(Observer<ClosedLoopFuelingCorrection> observer){
         SwingUtilities.invokeLater(() -> publishSubject.subscribe(observer));
     }
 
-    public void loadDirectory(File directory) {
-        if (directory.isDirectory()) {
+    /**
+     * @param observer notified on the event dispatch thread with the logs each load could not read and the rows it left out
+     */
+    public void registerParseReportObserver(Observer<Me7LogParser.ParseReport> observer) {
+        SwingUtilities.invokeLater(() -> parseReportSubject.subscribe(observer));
+    }
+
+    /**
+     * Streams the logs of the directory through a correction of the selected MLHFM, the logs are not kept in memory.
+     * Nothing is loaded if no MLHFM is selected.
+     */
+    public void loadDirectory(File directory, Me7LogParser.ProgressCallback progressCallback) {
+        Pair<TableDefinition, Map3d> mlhfmDefinition = MlhfmPreferences.getInstance().getSelectedMap();
+
+        if (directory.isDirectory() && mlhfmDefinition != null && mlhfmDefinition.getSecond() != null) {
+            Map3d mlhfm = mlhfmDefinition.getSecond();
             Me7LogParser me7LogParser = new Me7LogParser();
-            Single.fromCallable(() -> me7LogParser.parseLogDirectory(Me7LogParser.LogType.CLOSED_LOOP, directory, (value, max) -> {
-            })).subscribeOn(Schedulers.io()).subscribe(new SingleObserver<Map<Me7LogFileContract.Header, List<Double>>>() {
+            Single.fromCallable(() -> {
+                ClosedLoopFuelingCorrectionManager closedLoopFuelingCorrectionManager = new ClosedLoopFuelingCorrectionManager(ClosedLoopFuelingLogPreferences.getMinThrottleAnglePreference(), ClosedLoopFuelingLogPreferences.getMinRpmPreference(), ClosedLoopFuelingLogPreferences.getMaxVoltageDtPreference());
+                me7LogParser.streamLogDirectory(Me7LogParser.LogType.CLOSED_LOOP, directory, closedLoopFuelingCorrectionManager.stream(mlhfm), progressCallback);
+                return closedLoopFuelingCorrectionManager.getClosedLoopMlhfmCorrection();
+            }).subscribeOn(Schedulers.io()).subscribe(new SingleObserver<ClosedLoopFuelingCorrection>() {
                 @Override
                 public void onSubscribe(@NonNull Disposable disposable) {}
 
                 @Override
-                public void onSuccess(@NonNull Map<Me7LogFileContract.Header, List<Double>> logMap) {
-                    SwingUtilities.invokeLater(() -> publishSubject.onNext(logMap));
+                public void onSuccess(@NonNull ClosedLoopFuelingCorrection closedLoopFuelingCorrection) {
+                    Me7LogParser.ParseReport parseReport = me7LogParser.getReport();
+                    SwingUtilities.invokeLater(() -> {
+                        publishSubject.onNext(closedLoopFuelingCorrection);
+                        parseReportSubject.onNext(parseReport);
+                    });
                 }
 
                 @Override
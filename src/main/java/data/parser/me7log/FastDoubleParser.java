@@ -0,0 +1,151 @@
+package data.parser.me7log;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses decimal numbers straight from bytes without creating a String. Numbers with at most 15 significant digits and
+ * a small exponent, which is every number ME7Logger writes, are converted with one exact multiplication or division
+ * (Clinger's fast path) and so give the same double as {@link Double#parseDouble(String)}. Anything else falls back to
+ * {@link Double#parseDouble(String)}.
+ */
+public class FastDoubleParser {
+
+    // Every power of ten up to 10^22 is exact in a double
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Integers up to 2^53 are exact in a double, 15 digits always are
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    /**
+     * Parses the bytes in [start, end) like {@link Double#parseDouble(String)}, including leading and trailing
+     * whitespace.
+     *
+     * @throws NumberFormatException if the bytes are not a number
+     */
+    public static double parse(ByteBuffer buffer, int start, int end) throws NumberFormatException {
+        int i = start;
+        int last = end;
+
+        while (i < last && (buffer.get(i) & 0xFF) <= ' ') {
+            i++;
+        }
+        while (last > i && (buffer.get(last - 1) & 0xFF) <= ' ') {
+            last--;
+        }
+
+        if (i == last) {
+            throw new NumberFormatException("empty String");
+        }
+
+        int numberStart = i;
+        boolean negative = false;
+        byte b = buffer.get(i);
+
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigits = false;
+
+        for (; i < last; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            anyDigits = true;
+            if (mantissa != 0 || digit != 0) {
+                if (digits == MAX_EXACT_DIGITS) {
+                    return fallback(buffer, numberStart, last);
+                }
+                mantissa = mantissa * 10 + digit;
+                digits++;
+            }
+        }
+
+        if (i < last && buffer.get(i) == '.') {
+            i++;
+            for (; i < last; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                anyDigits = true;
+                if (mantissa != 0 || digit != 0) {
+                    if (digits == MAX_EXACT_DIGITS) {
+                        return fallback(buffer, numberStart, last);
+                    }
+                    mantissa = mantissa * 10 + digit;
+                    digits++;
+                }
+                exponent--;
+            }
+        }
+
+        if (!anyDigits) {
+            // NaN, Infinity and hexadecimal numbers
+            return fallback(buffer, numberStart, last);
+        }
+
+        if (i < last && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+
+            if (i < last && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                negativeExponent = buffer.get(i) == '-';
+                i++;
+            }
+
+            int exponentStart = i;
+            int explicitExponent = 0;
+
+            for (; i < last; i++) {
+                int digit = buffer.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                if (explicitExponent > 1000) {
+                    return fallback(buffer, numberStart, last);
+                }
+                explicitExponent = explicitExponent * 10 + digit;
+            }
+
+            if (i == exponentStart) {
+                return fallback(buffer, numberStart, last);
+            }
+
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (i != last) {
+            // Type suffixes such as 1.0d and anything that is not a number
+            return fallback(buffer, numberStart, last);
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[exponent];
+        } else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return fallback(buffer, numberStart, last);
+        }
+
+        return negative ? -value : value;
+    }
+
+    private static double fallback(ByteBuffer buffer, int start, int end) throws NumberFormatException {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return Double.parseDouble(new String(bytes, StandardCharsets.ISO_8859_1));
+    }
+}
@@ -1,6 +1,6 @@
 package data.parser.me7log;
 
-import data.contract.Me7LogFileContract;
+import domain.model.kfvpdksd.Kfvpdksd;
 import io.reactivex.Observer;
 import io.reactivex.Single;
 import io.reactivex.SingleObserver;
@@ -9,13 +9,13 @@ import io.reactivex.disposables.Disposable;
 import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subjects.PublishSubject;
 
+import javax.swing.*;
 import java.io.File;
-import java.util.List;
-import java.util.Map;
 
 public class KfvpdksdLogParser {
 
-    private final PublishSubject<Map<Me7LogFileContract.Header, List<Double>>> publishSubject;
+    private final PublishSubject<Double[]> publishSubject;
+    private final PublishSubject<Me7LogParser.ParseReport> parseReportSubject;
 
     private static KfvpdksdLogParser instance;
 
@@ -33,22 +33,41 @@ public class KfvpdksdLogParser {
 
     private KfvpdksdLogParser() {
         publishSubject = PublishSubject.create();
+        parseReportSubject = PublishSubject.create();
     }
 
-    public void registerLogOnChangeObserver(Observer<Map<Me7LogFileContract.Header, List<Double>>> observer){
+    public void registerLogOnChangeObserver(Observer<Double[]> observer){
         publishSubject.subscribe(observer);
     }
 
-    public void loadDirectory(File directory, Me7LogParser.ProgressCallback progressCallback) {
+    /**
+     * @param observer notified on the event dispatch thread with the logs each load could not read and the rows it left out
+     */
+    public void registerParseReportObserver(Observer<Me7LogParser.ParseReport> observer) {
+        parseReportSubject.subscribe(observer);
+    }
+
+    /**
+     * Streams the logs of the directory to find the max pressure at each RPM of the axis, the logs are not kept in
+     * memory.
+     */
+    public void loadDirectory(File directory, Double[] rpmAxis, Me7LogParser.ProgressCallback progressCallback) {
         if (directory.isDirectory()) {
             Me7LogParser me7LogParser = new Me7LogParser();
-            Single.fromCallable(() -> me7LogParser.parseLogDirectory(Me7LogParser.LogType.KFVPDKSD, directory, progressCallback)).subscribeOn(Schedulers.io()).subscribe(new SingleObserver<>() {
+            Single.fromCallable(() -> {
+                Kfvpdksd.PressureAccumulator accumulator = new Kfvpdksd.PressureAccumulator(rpmAxis);
+                me7LogParser.streamLogDirectory(Me7LogParser.LogType.KFVPDKSD, directory, Kfvpdksd.wideOpenThrottle(accumulator), progressCallback);
+                return accumulator.getMaxPressure();
+            }).subscribeOn(Schedulers.io()).subscribe(new SingleObserver<>() {
                 @Override
                 public void onSubscribe(@NonNull Disposable disposable) {}
 
                 @Override
-                public void onSuccess(@NonNull Map<Me7LogFileContract.Header, List<Double>> logMap) {
-                    publishSubject.onNext(logMap);
+                public void onSuccess(@NonNull Double[] maxPressure) {
+                    publishSubject.onNext(maxPressure);
+
+                    Me7LogParser.ParseReport parseReport = me7LogParser.getReport();
+                    SwingUtilities.invokeLater(() -> parseReportSubject.onNext(parseReport));
                 }
 
                 @Override
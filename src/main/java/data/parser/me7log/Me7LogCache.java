@@ -0,0 +1,197 @@
+package data.parser.me7log;
+
+import data.cache.CacheDirectory;
+import data.contract.Me7LogFileContract;
+import domain.model.log.LogFrame;
+import io.reactivex.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * A binary cache of the columns read from an ME7Logger log. The cache records the size, modification time and content
+ * hash of the log and the header names the columns were found by, and is only loaded while all of them still match.
+ * <p>
+ * Each column is stored as one block of doubles, aligned to 8 bytes, so a cache is memory mapped and copied into the
+ * columns in bulk instead of being parsed.
+ */
+public class Me7LogCache {
+
+    private static final int MAGIC = 0x4D374C47; // M7LG
+    private static final int VERSION = 1;
+
+    private static final int BLOCK_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * @return the cached log or null if there is no cache of this version of the file read as the log type
+     */
+    @Nullable
+    public static Me7LogReader.Log load(File log, Me7LogParser.LogType logType) {
+        File cache = getCacheFile(log, logType);
+
+        if (!cache.isFile()) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(cache.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != log.length() || buffer.getLong() != log.lastModified() || !fingerprint(logType).equals(readString(buffer)) || buffer.getLong() != hash(log)) {
+                return null;
+            }
+
+            int rowCount = buffer.getInt();
+            int skippedRows = buffer.getInt();
+
+            int startTimeCount = buffer.getInt();
+            List<Double> startTimes = new ArrayList<>(startTimeCount);
+            for (int i = 0; i < startTimeCount; i++) {
+                startTimes.add(buffer.getDouble());
+            }
+
+            Me7LogFileContract.Header[] headers = Me7LogFileContract.Header.values();
+            LogFrame.Builder<Me7LogFileContract.Header> builder = LogFrame.builder(Me7LogFileContract.Header.class);
+
+            int columnCount = buffer.getInt();
+            for (int i = 0; i < columnCount; i++) {
+                Me7LogFileContract.Header header = headers[buffer.getInt()];
+                align(buffer);
+                builder.addColumn(header);
+
+                // Copied straight into the chunks of the frame
+                DoubleBuffer doubles = buffer.asDoubleBuffer();
+                for (int row = 0; row < rowCount; row += LogFrame.CHUNK_SIZE) {
+                    double[] chunk = new double[LogFrame.CHUNK_SIZE];
+                    int length = Math.min(chunk.length, rowCount - row);
+                    doubles.get(chunk, 0, length);
+                    builder.addChunk(header, chunk, length);
+                }
+                buffer.position(buffer.position() + rowCount * Double.BYTES);
+            }
+
+            return new Me7LogReader.Log(builder.build(), startTimes, rowCount, skippedRows);
+        } catch (IOException | RuntimeException e) {
+            // A truncated or corrupt cache is simply rebuilt from the log
+            return null;
+        }
+    }
+
+    public static void save(File log, Me7LogParser.LogType logType, Me7LogReader.Log parsed) {
+        File cache = getCacheFile(log, logType);
+        File temp;
+
+        try {
+            // Unique so two parses of the same log can't interleave their writes
+            temp = File.createTempFile(cache.getName(), ".tmp", cache.getParentFile());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(log.length());
+            out.writeLong(log.lastModified());
+            writeString(out, fingerprint(logType));
+            out.writeLong(hash(log));
+            out.writeInt(parsed.rowCount);
+            out.writeInt(parsed.skippedRows);
+
+            out.writeInt(parsed.startTimes.size());
+            for (double startTime : parsed.startTimes) {
+                out.writeDouble(startTime);
+            }
+
+            out.writeInt(parsed.frame.getColumns().size());
+
+            ByteBuffer block = ByteBuffer.allocate(BLOCK_BUFFER_SIZE);
+            double[] values = new double[BLOCK_BUFFER_SIZE / Double.BYTES];
+            for (Me7LogFileContract.Header header : parsed.frame.getColumns()) {
+                out.writeInt(header.ordinal());
+
+                while (out.size() % Double.BYTES != 0) {
+                    out.writeByte(0);
+                }
+
+                LogFrame.Column column = parsed.frame.column(header);
+                DoubleBuffer doubles = block.asDoubleBuffer();
+                for (int i = 0; i < column.size(); i += values.length) {
+                    int length = Math.min(values.length, column.size() - i);
+                    column.copyTo(i, values, 0, length);
+                    doubles.clear();
+                    doubles.put(values, 0, length);
+                    out.write(block.array(), 0, length * Double.BYTES);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            temp.delete();
+            return;
+        }
+
+        try {
+            CacheDirectory.replace(temp, cache);
+        } catch (IOException e) {
+            e.printStackTrace();
+            temp.delete();
+        }
+    }
+
+    private static File getCacheFile(File log, Me7LogParser.LogType logType) {
+        String key = log.getAbsolutePath() + '\u0000' + logType;
+        return new File(CacheDirectory.get("me7log"), UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)) + ".columns");
+    }
+
+    /**
+     * The header names can be changed in the preferences, a log read with other names may have other columns.
+     */
+    private static String fingerprint(Me7LogParser.LogType logType) {
+        StringBuilder fingerprint = new StringBuilder(logType.name());
+
+        for (Me7LogFileContract.Header header : Me7LogReader.getColumns(logType)) {
+            fingerprint.append('\u0000').append(header.name()).append('=').append(header.getHeader());
+        }
+
+        return fingerprint.toString();
+    }
+
+    private static long hash(File log) throws IOException {
+        CRC32C crc = new CRC32C();
+
+        try (FileChannel channel = FileChannel.open(log.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Integer.MAX_VALUE, size - position)));
+            }
+        }
+
+        return crc.getValue();
+    }
+
+    private static void align(ByteBuffer buffer) {
+        buffer.position((buffer.position() + Double.BYTES - 1) & -Double.BYTES);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,18 +1,24 @@
 package data.parser.me7log;
 
 import data.contract.Me7LogFileContract;
+import domain.model.log.LogFrame;
+import domain.model.log.LogSink;
 import io.reactivex.annotations.NonNull;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVRecord;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Me7LogParser {
 
@@ -23,280 +29,290 @@ public class Me7LogParser {
         KFVPDKSD
     }
 
-    private int timeColumnIndex = -1;
-    private int rpmColumnIndex = -1;
-    private int stftColumnIndex = -1;
-    private int ltftColumnIndex = -1;
-    private int mafVoltageIndex = -1;
-    private int mafGramsPerSecondIndex = -1;
-    private int throttlePlateAngleIndex = -1;
-    private int lambdaControlActiveIndex = -1;
-    private int requestedLambdaIndex = -1;
-    private int fuelInjectorOnTimeIndex = -1;
-    private int engineLoadIndex = -1;
-    private int wastegateDutyCycleIndex = -1;
-    private int barometricPressureIndex = -1;
-    private int absoluteBoostPressureActualIndex = -1;
-    private int selectedGearIndex = -1;
-    private int wideBandO2Index = -1;
+    // Directory progress is reported in KiB so large directories fit in an int
+    private static final int BYTES_PER_PROGRESS = 1024;
+
+    private final List<QuarantinedFile> quarantinedFiles = new ArrayList<>();
+    private final Map<File, Integer> skippedRows = new LinkedHashMap<>();
 
     public interface ProgressCallback {
         void onProgress(int value, int max);
     }
 
-    public Map<Me7LogFileContract.Header, List<Double>> parseLogDirectory(LogType logType, File directory, ProgressCallback callback) {
-        Map<Me7LogFileContract.Header, List<Double>> map = generateMap(logType);
-        File[] files = directory.listFiles();
-        int numFiles = files.length;
-        int count = 0;
+    /**
+     * A log of a directory that could not be read and was left out.
+     */
+    public record QuarantinedFile(File file, Exception exception) {}
 
-        for (File file : files) {
-            parse(file, logType, map);
-            callback.onProgress(count++, numFiles);
-        }
+    /**
+     * What a parse left out: the logs that could not be read, and the number of rows that could not be parsed in each
+     * log that was read, in the order the logs were read.
+     */
+    public record ParseReport(List<QuarantinedFile> quarantinedFiles, Map<File, Integer> skippedRows) {
 
-        return map;
+        public boolean isEmpty() {
+            return quarantinedFiles.isEmpty() && skippedRows.isEmpty();
+        }
     }
 
-    @NonNull
-    public Map<Me7LogFileContract.Header, List<Double>> parseLogFile(LogType logType, File file) {
-        Map<Me7LogFileContract.Header, List<Double>> map = generateMap(logType);
+    /**
+     * Parses the files of the directory in parallel. The logs are appended in order of their file name, not in the
+     * order they finish, so the result is the same on every run. Logs that have not changed since they were last
+     * parsed are read from {@link Me7LogCache}.
+     * Progress is reported in KiB of the files read. A file that cannot be read, or has no header row for the log
+     * type, is left out and listed in {@link #getQuarantinedFiles()}.
+     */
+    public LogFrame<Me7LogFileContract.Header> parseLogDirectory(LogType logType, File directory, ProgressCallback callback) {
+        List<Me7LogReader.Log> logs = new ArrayList<>();
+        List<File> files = listLogFiles(directory);
+        quarantinedFiles.clear();
+        skippedRows.clear();
+
+        if (files.isEmpty()) {
+            return toFrame(logType, logs);
+        }
 
-        parse(file, logType, map);
+        long totalBytes = 0;
+        for (File file : files) {
+            totalBytes += file.length();
+        }
 
-        return map;
-    }
+        int max = (int) Math.max(1, totalBytes / BYTES_PER_PROGRESS);
+        AtomicLong bytesRead = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(files.size(), Runtime.getRuntime().availableProcessors()));
 
-    private void parse(File file, LogType logType, Map<Me7LogFileContract.Header, List<Double>> map) {
-        resetIndices();
         try {
-            boolean headersFound = false;
-            Reader in = new FileReader(file);
-            Iterable<CSVRecord> records = CSVFormat.RFC4180.parse(in);
-            for (CSVRecord record : records) {
-                if (record.size() > 0) {
-                    String string = record.get(0);
-                    if (string.contains("Log started at:")) {
-                        String[] split = string.split(" ");
-                        String timestamp = split[5];
-                        split = timestamp.split(":");
-                        double minuteSeconds = Double.parseDouble(split[1]) * 60;
-                        double secondsSeconds = Double.parseDouble(split[2]);
-
-                        double startTime = (minuteSeconds + secondsSeconds);
-
-                        map.get(Me7LogFileContract.Header.START_TIME_HEADER).add(startTime);
-                    }
-                }
+            List<Future<Me7LogReader.Log>> futures = new ArrayList<>();
 
-                for (int i = 0; i < record.size(); i++) {
-                    if (Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER.getHeader().equals(record.get(i).trim())) {
-                        timeColumnIndex = i;
-                    } else if (Me7LogFileContract.Header.RPM_COLUMN_HEADER.getHeader().equals(record.get(i).trim())) {
-                        rpmColumnIndex = i;
-                    } else if (Me7LogFileContract.Header.STFT_COLUMN_HEADER.getHeader().equals(record.get(i).trim())) {
-                        stftColumnIndex = i;
-                    } else if (Me7LogFileContract.Header.LTFT_COLUMN_HEADER.getHeader().equals(record.get(i).trim())) {
-                        ltftColumnIndex = i;
-                    } else if (Me7LogFileContract.Header.MAF_VOLTAGE_HEADER.getHeader().equals(record.get(i).trim())) {
-                        mafVoltageIndex = i;
-                    } else if (Me7LogFileContract.Header.MAF_GRAMS_PER_SECOND_HEADER.getHeader().equals(record.get(i).trim())) {
-                        mafGramsPerSecondIndex = i;
-                    } else if (Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER.getHeader().equals(record.get(i).trim())) {
-                        throttlePlateAngleIndex = i;
-                    } else if (Me7LogFileContract.Header.LAMBDA_CONTROL_ACTIVE_HEADER.getHeader().equals(record.get(i).trim())) {
-                        lambdaControlActiveIndex = i;
-                    } else if (Me7LogFileContract.Header.REQUESTED_LAMBDA_HEADER.getHeader().equals(record.get(i).trim())) {
-                        requestedLambdaIndex = i;
-                    } else if (Me7LogFileContract.Header.FUEL_INJECTOR_ON_TIME_HEADER.getHeader().equals(record.get(i).trim())) {
-                        fuelInjectorOnTimeIndex = i;
-                    } else if (Me7LogFileContract.Header.ENGINE_LOAD_HEADER.getHeader().equals(record.get(i).trim())) {
-                        engineLoadIndex = i;
-                    } else if (Me7LogFileContract.Header.ABSOLUTE_BOOST_PRESSURE_ACTUAL_HEADER.getHeader().equals(record.get(i).trim())) {
-                        absoluteBoostPressureActualIndex = i;
-                    } else if (Me7LogFileContract.Header.BAROMETRIC_PRESSURE_HEADER.getHeader().equals(record.get(i).trim())) {
-                        barometricPressureIndex = i;
-                    } else if (Me7LogFileContract.Header.WASTEGATE_DUTY_CYCLE_HEADER.getHeader().equals(record.get(i).trim())) {
-                        wastegateDutyCycleIndex = i;
-                    } else if (Me7LogFileContract.Header.SELECTED_GEAR_HEADER.getHeader().equals(record.get(i).trim())) {
-                        selectedGearIndex = i;
-                    } else if (Me7LogFileContract.Header.WIDE_BAND_O2_HEADER.getHeader().equals(record.get(i).trim())) {
-                        wideBandO2Index = i;
+            for (File file : files) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return read(file, logType);
+                    } finally {
+                        long read = bytesRead.addAndGet(file.length());
+                        // Keep the progress in order when files finish at the same time
+                        synchronized (bytesRead) {
+                            callback.onProgress((int) Math.min(max, read / BYTES_PER_PROGRESS), max);
+                        }
                     }
+                }));
+            }
+
+            for (int i = 0; i < files.size(); i++) {
+                File file = files.get(i);
 
-                    headersFound = headersFound(logType);
+                try {
+                    Me7LogReader.Log log = futures.get(i).get();
 
-                    if (headersFound) {
-                        break;
+                    if (log.frame.getColumns().isEmpty()) {
+                        throw new IOException("No " + logType + " header row in " + file.getName());
                     }
-                }
 
-                if (headersFound) {
-                    break;
+                    logSkippedRows(file, log);
+                    logs.add(log);
+                } catch (ExecutionException e) {
+                    quarantine(file, e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                } catch (IOException e) {
+                    quarantine(file, e);
                 }
             }
 
-            if (headersFound) {
-                for (CSVRecord record : records) {
-                    try {
-                        if (logType == LogType.CLOSED_LOOP || logType == LogType.OPEN_LOOP) {
-                            double time = Double.parseDouble(record.get(timeColumnIndex));
-                            double rpm = Double.parseDouble(record.get(rpmColumnIndex));
-                            double stft = Double.parseDouble(record.get(stftColumnIndex));
-                            double ltft = Double.parseDouble(record.get(ltftColumnIndex));
-                            double mafVoltage = Double.parseDouble(record.get(mafVoltageIndex));
-                            double throttlePlateAngle = Double.parseDouble(record.get(throttlePlateAngleIndex));
-                            double lambdaControlActive = Double.parseDouble(record.get(lambdaControlActiveIndex));
-                            double engineLoad = Double.parseDouble(record.get(engineLoadIndex));
-
-                            if (logType == LogType.OPEN_LOOP) {
-                                double mafGsec = Double.parseDouble(record.get(mafGramsPerSecondIndex));
-                                double requestedLambda = Double.parseDouble(record.get(requestedLambdaIndex));
-                                double fuelInjectorOnTime = Double.parseDouble(record.get(fuelInjectorOnTimeIndex));
-
-                                map.get(Me7LogFileContract.Header.MAF_GRAMS_PER_SECOND_HEADER).add(mafGsec);
-                                map.get(Me7LogFileContract.Header.REQUESTED_LAMBDA_HEADER).add(requestedLambda);
-                                map.get(Me7LogFileContract.Header.FUEL_INJECTOR_ON_TIME_HEADER).add(fuelInjectorOnTime);
-
-                                // We might have a wide band O2 on ME7.5+
-                                if(wideBandO2Index != -1) {
-                                    double wideBandO2 = Double.parseDouble(record.get(wideBandO2Index));
-                                    map.get(Me7LogFileContract.Header.WIDE_BAND_O2_HEADER).add(wideBandO2);
-                                }
-                            }
-
-                            map.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER).add(time);
-                            map.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER).add(rpm);
-                            map.get(Me7LogFileContract.Header.STFT_COLUMN_HEADER).add(stft);
-                            map.get(Me7LogFileContract.Header.LTFT_COLUMN_HEADER).add(ltft);
-                            map.get(Me7LogFileContract.Header.MAF_VOLTAGE_HEADER).add(mafVoltage);
-                            map.get(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER).add(throttlePlateAngle);
-                            map.get(Me7LogFileContract.Header.LAMBDA_CONTROL_ACTIVE_HEADER).add(lambdaControlActive);
-                            map.get(Me7LogFileContract.Header.ENGINE_LOAD_HEADER).add(engineLoad);
-                        } else if (logType == LogType.LDRPID) {
-                            double time = Double.parseDouble(record.get(timeColumnIndex));
-                            double rpm = Double.parseDouble(record.get(rpmColumnIndex));
-                            double throttlePlateAngle = Double.parseDouble(record.get(throttlePlateAngleIndex));
-                            double barometricPressure = Double.parseDouble(record.get(barometricPressureIndex));
-                            double wastegateDutyCycle = Double.parseDouble(record.get(wastegateDutyCycleIndex));
-                            double absoluteBoostPressure = Double.parseDouble(record.get(absoluteBoostPressureActualIndex));
-                            double selectedGear = Double.parseDouble(record.get(selectedGearIndex));
-
-                            map.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER).add(time);
-                            map.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER).add(rpm);
-                            map.get(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER).add(throttlePlateAngle);
-                            map.get(Me7LogFileContract.Header.BAROMETRIC_PRESSURE_HEADER).add(barometricPressure);
-                            map.get(Me7LogFileContract.Header.WASTEGATE_DUTY_CYCLE_HEADER).add(wastegateDutyCycle);
-                            map.get(Me7LogFileContract.Header.ABSOLUTE_BOOST_PRESSURE_ACTUAL_HEADER).add(absoluteBoostPressure);
-                            map.get(Me7LogFileContract.Header.SELECTED_GEAR_HEADER).add(selectedGear);
-                        } else if (logType == LogType.KFVPDKSD) {
-                            double time = Double.parseDouble(record.get(timeColumnIndex));
-                            double rpm = Double.parseDouble(record.get(rpmColumnIndex));
-                            double throttlePlateAngle = Double.parseDouble(record.get(throttlePlateAngleIndex));
-                            double barometricPressure = Double.parseDouble(record.get(barometricPressureIndex));
-                            double absoluteBoostPressure = Double.parseDouble(record.get(absoluteBoostPressureActualIndex));
-
-                            map.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER).add(time);
-                            map.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER).add(rpm);
-                            map.get(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER).add(throttlePlateAngle);
-                            map.get(Me7LogFileContract.Header.BAROMETRIC_PRESSURE_HEADER).add(barometricPressure);
-                            map.get(Me7LogFileContract.Header.ABSOLUTE_BOOST_PRESSURE_ACTUAL_HEADER).add(absoluteBoostPressure);
-                        }
-                    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
-                        e.printStackTrace();
-                    }
-                }
-            }
-        } catch (IOException | ArrayIndexOutOfBoundsException e) {
+            callback.onProgress(max, max);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             e.printStackTrace();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return toFrame(logType, logs);
+    }
+
+    /**
+     * Streams the files of the directory to the sink one batch of rows at a time, in order of their file name, instead
+     * of building the whole log in memory. The memory used depends on the batch size, not on how many logs there are.
+     * Progress is reported in KiB of the files read. A file that cannot be read, or has no header row for the log type,
+     * is left out and listed in {@link #getQuarantinedFiles()}.
+     * <p>
+     * The files are read one after the other so the sink gets the rows in order. The columns of a batch are the columns
+     * of its file, the wide band O2 is not padded for the files that do not have it.
+     * <p>
+     * A file is quarantined if it fails to read, and the sink is completed either way. The header row and start times
+     * are read before the first batch, so a file without them never reaches the sink, but a file that fails after its
+     * first batch keeps the rows the sink already got. They are not taken back.
+     */
+    public void streamLogDirectory(LogType logType, File directory, LogSink<Me7LogFileContract.Header> sink, ProgressCallback callback) {
+        List<File> files = listLogFiles(directory);
+        quarantinedFiles.clear();
+        skippedRows.clear();
+
+        long totalBytes = 0;
+        for (File file : files) {
+            totalBytes += file.length();
         }
 
-        int size = -1;
-        for (Me7LogFileContract.Header key : map.keySet()) {
-            if (!key.equals(Me7LogFileContract.Header.START_TIME_HEADER) && size == -1) {
-                size = map.get(key).size();
+        int max = (int) Math.max(1, totalBytes / BYTES_PER_PROGRESS);
+        long bytesRead = 0;
+
+        for (File file : files) {
+            try {
+                Me7LogReader.Log log = Me7LogReader.stream(file, logType, sink);
+
+                if (log.frame.getColumns().isEmpty()) {
+                    throw new IOException("No " + logType + " header row in " + file.getName());
+                }
+
+                logSkippedRows(file, log);
+            } catch (IOException | RuntimeException e) {
+                // Such as a start time that is not a number, one bad file must not stop the stream
+                quarantine(file, e);
             }
 
-            if (!key.equals(Me7LogFileContract.Header.START_TIME_HEADER) && map.get(key).size() != size) {
-                // Wideband is optional
-                if(!key.equals(Me7LogFileContract.Header.WIDE_BAND_O2_HEADER)) {
-                    throw new RuntimeException("Data is not square! Got: " + map.get(key).size() + " Expected: " + size);
+            bytesRead += file.length();
+            callback.onProgress((int) Math.min(max, bytesRead / BYTES_PER_PROGRESS), max);
+        }
+
+        callback.onProgress(max, max);
+        sink.onComplete();
+    }
+
+    /**
+     * Names are unique within a directory, so a start time would never break a tie, and the order is known before any
+     * file is opened. The "Log started at:" time is not used as the key either, the start time kept from it is only
+     * the seconds into the hour and would misorder logs from different hours.
+     *
+     * @return the files of the directory sorted by name, sub-directories are not searched
+     */
+    private static List<File> listLogFiles(File directory) {
+        File[] listed = directory.listFiles();
+        List<File> files = new ArrayList<>();
+
+        if (listed != null) {
+            for (File file : listed) {
+                if (file.isFile()) {
+                    files.add(file);
                 }
             }
         }
+
+        files.sort(Comparator.comparing(File::getName));
+
+        return files;
+    }
+
+    /**
+     * @return the files the last call to {@link #parseLogDirectory(LogType, File, ProgressCallback)},
+     * {@link #streamLogDirectory(LogType, File, LogSink, ProgressCallback)} or {@link #parseLogFile(LogType, File)}
+     * left out
+     */
+    public List<QuarantinedFile> getQuarantinedFiles() {
+        return Collections.unmodifiableList(quarantinedFiles);
+    }
+
+    /**
+     * @return the number of data rows that could not be parsed and were left out of each file the last parse read, in
+     * the order the files were read. Files without skipped rows are not listed.
+     */
+    public Map<File, Integer> getSkippedRows() {
+        return Collections.unmodifiableMap(skippedRows);
+    }
+
+    /**
+     * @return a copy of {@link #getQuarantinedFiles()} and {@link #getSkippedRows()} that later parses do not change
+     */
+    public ParseReport getReport() {
+        return new ParseReport(List.copyOf(quarantinedFiles), Collections.unmodifiableMap(new LinkedHashMap<>(skippedRows)));
     }
 
-    private void resetIndices() {
-        timeColumnIndex = -1;
-        rpmColumnIndex = -1;
-        stftColumnIndex = -1;
-        ltftColumnIndex = -1;
-        mafVoltageIndex = -1;
-        mafGramsPerSecondIndex = -1;
-        throttlePlateAngleIndex = -1;
-        lambdaControlActiveIndex = -1;
-        requestedLambdaIndex = -1;
-        fuelInjectorOnTimeIndex = -1;
-        engineLoadIndex = -1;
-        wastegateDutyCycleIndex = -1;
-        barometricPressureIndex = -1;
-        absoluteBoostPressureActualIndex = -1;
-        selectedGearIndex = -1;
-        wideBandO2Index = -1;
+    private void quarantine(File file, Exception exception) {
+        exception.printStackTrace();
+        quarantinedFiles.add(new QuarantinedFile(file, exception));
+    }
+
+    @NonNull
+    public LogFrame<Me7LogFileContract.Header> parseLogFile(LogType logType, File file) {
+        List<Me7LogReader.Log> logs = new ArrayList<>();
+        quarantinedFiles.clear();
+        skippedRows.clear();
+
+        try {
+            Me7LogReader.Log log = read(file, logType);
+
+            if (log.frame.getColumns().isEmpty()) {
+                throw new IOException("No " + logType + " header row in " + file.getName());
+            }
+
+            logSkippedRows(file, log);
+            logs.add(log);
+        } catch (IOException | RuntimeException e) {
+            quarantine(file, e);
+        }
+
+        return toFrame(logType, logs);
     }
 
-    private boolean headersFound(LogType logType) {
-        if (logType == LogType.OPEN_LOOP) {
-            return timeColumnIndex != -1 && rpmColumnIndex != -1 && stftColumnIndex != -1 && ltftColumnIndex != -1 && mafVoltageIndex != -1 && mafGramsPerSecondIndex != -1 && throttlePlateAngleIndex != -1 && lambdaControlActiveIndex != -1 && requestedLambdaIndex != -1 && fuelInjectorOnTimeIndex != -1;
-        } else if (logType == LogType.CLOSED_LOOP) {
-            // nmot, fr_w, fra_2, uhfm_w, wdkba, B_lr, rl_w
-            return timeColumnIndex != -1 && rpmColumnIndex != -1 && stftColumnIndex != -1 && ltftColumnIndex != -1 && mafVoltageIndex != -1 && throttlePlateAngleIndex != -1 && lambdaControlActiveIndex != -1 && engineLoadIndex != -1;
-        } else if (logType == LogType.LDRPID) {
-            return timeColumnIndex != -1 && rpmColumnIndex != -1 && throttlePlateAngleIndex != -1 && wastegateDutyCycleIndex != -1 && barometricPressureIndex != -1 && absoluteBoostPressureActualIndex != -1 && selectedGearIndex != -1;
-        } else if (logType == LogType.KFVPDKSD) {
-            return timeColumnIndex != -1 && rpmColumnIndex != -1 && throttlePlateAngleIndex != -1 && barometricPressureIndex != -1 && absoluteBoostPressureActualIndex != -1;
+    /**
+     * Reads the log from its cache, or parses it and caches it if the log changed since it was cached.
+     */
+    private static Me7LogReader.Log read(File file, LogType logType) throws IOException {
+        Me7LogReader.Log log = Me7LogCache.load(file, logType);
+
+        if (log == null) {
+            log = Me7LogReader.read(file, logType);
+
+            // A log without a header row is left out, there is nothing to cache
+            if (!log.frame.getColumns().isEmpty()) {
+                Me7LogCache.save(file, logType, log);
+            }
         }
 
-        return false;
+        return log;
     }
 
-    private Map<Me7LogFileContract.Header, List<Double>> generateMap(LogType logType) {
-        Map<Me7LogFileContract.Header, List<Double>> map = new HashMap<>();
-
-        map.put(Me7LogFileContract.Header.START_TIME_HEADER, new ArrayList<>());
-
-        if (logType == LogType.CLOSED_LOOP || logType == LogType.OPEN_LOOP) {
-            map.put(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.RPM_COLUMN_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.STFT_COLUMN_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.LTFT_COLUMN_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.MAF_VOLTAGE_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.LAMBDA_CONTROL_ACTIVE_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.ENGINE_LOAD_HEADER, new ArrayList<>());
-
-            if (logType == LogType.OPEN_LOOP) {
-                map.put(Me7LogFileContract.Header.MAF_GRAMS_PER_SECOND_HEADER, new ArrayList<>());
-                map.put(Me7LogFileContract.Header.REQUESTED_LAMBDA_HEADER, new ArrayList<>());
-                map.put(Me7LogFileContract.Header.FUEL_INJECTOR_ON_TIME_HEADER, new ArrayList<>());
-                map.put(Me7LogFileContract.Header.WIDE_BAND_O2_HEADER, new ArrayList<>());
+    private void logSkippedRows(File file, Me7LogReader.Log log) {
+        if (log.skippedRows > 0) {
+            skippedRows.put(file, log.skippedRows);
+        }
+    }
+
+    /**
+     * Appends the logs in order. The frame has every column of the log type, except the wide band O2 which is only
+     * there if one of the logs has it, and is NaN for the rows of the logs that do not. The chunks of the first log, and
+     * of any log that starts on a chunk boundary, are shared rather than copied.
+     */
+    private static LogFrame<Me7LogFileContract.Header> toFrame(LogType logType, List<Me7LogReader.Log> logs) {
+        List<Me7LogFileContract.Header> headers = new ArrayList<>(Me7LogReader.getColumns(logType));
+
+        boolean wideBand = false;
+        for (Me7LogReader.Log log : logs) {
+            wideBand |= log.frame.hasColumn(Me7LogFileContract.Header.WIDE_BAND_O2_HEADER);
+        }
+
+        if (!wideBand) {
+            headers.remove(Me7LogFileContract.Header.WIDE_BAND_O2_HEADER);
+        }
+
+        LogFrame.Builder<Me7LogFileContract.Header> builder = LogFrame.builder(Me7LogFileContract.Header.class);
+        for (Me7LogFileContract.Header header : headers) {
+            builder.addColumn(header);
+        }
+
+        for (Me7LogReader.Log log : logs) {
+            for (Double startTime : log.startTimes) {
+                builder.addStartTime(startTime);
+            }
+
+            for (Me7LogFileContract.Header header : headers) {
+                if (log.frame.hasColumn(header)) {
+                    builder.addAll(header, log.frame.column(header));
+                } else {
+                    double[] values = new double[log.frame.size()];
+                    Arrays.fill(values, Double.NaN);
+                    builder.addAll(header, values);
+                }
             }
-        } else if (logType == LogType.LDRPID) {
-            map.put(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.RPM_COLUMN_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.BAROMETRIC_PRESSURE_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.WASTEGATE_DUTY_CYCLE_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.ABSOLUTE_BOOST_PRESSURE_ACTUAL_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.SELECTED_GEAR_HEADER, new ArrayList<>());
-        } else if (logType == LogType.KFVPDKSD) {
-            map.put(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.RPM_COLUMN_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.BAROMETRIC_PRESSURE_HEADER, new ArrayList<>());
-            map.put(Me7LogFileContract.Header.ABSOLUTE_BOOST_PRESSURE_ACTUAL_HEADER, new ArrayList<>());
         }
 
-        return map;
+        return builder.build();
     }
 }
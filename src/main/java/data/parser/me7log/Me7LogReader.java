@@ -0,0 +1,396 @@
+package data.parser.me7log;
+
+import data.contract.Me7LogFileContract;
+import domain.model.log.LogFrame;
+import domain.model.log.LogSink;
+import io.reactivex.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads an ME7Logger CSV file into primitive columns. The file is memory mapped and scanned byte by byte for
+ * delimiters, only the columns the log type needs are parsed and numbers are parsed in place with
+ * {@link FastDoubleParser}, so a data row allocates nothing.
+ * <p>
+ * Rows before the header row are only checked for the "Log started at:" line. A data row that is missing a column or
+ * has a value that is not a number is skipped.
+ */
+public class Me7LogReader {
+
+    private static final String LOG_STARTED_AT = "Log started at:";
+
+    private static final byte DELIMITER = ',';
+    private static final byte QUOTE = '"';
+    private static final byte NEW_LINE = '\n';
+
+    // Rows passed to a sink at a time when a log is streamed, a chunk of a frame so a full batch is never copied
+    public static final int BATCH_SIZE = LogFrame.CHUNK_SIZE;
+
+    public static class Log {
+        // The columns found, without the start times. A streamed log has the columns but none of the rows
+        public final LogFrame<Me7LogFileContract.Header> frame;
+        public final List<Double> startTimes;
+        public final int rowCount;
+        // Data rows that could not be parsed
+        public final int skippedRows;
+
+        Log(LogFrame<Me7LogFileContract.Header> frame, List<Double> startTimes, int rowCount, int skippedRows) {
+            this.frame = frame;
+            this.startTimes = startTimes;
+            this.rowCount = rowCount;
+            this.skippedRows = skippedRows;
+        }
+    }
+
+    /**
+     * @return the columns the log type reads, the wide band O2 of an open loop log is optional
+     */
+    public static List<Me7LogFileContract.Header> getColumns(Me7LogParser.LogType logType) {
+        return switch (logType) {
+            case OPEN_LOOP -> List.of(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER, Me7LogFileContract.Header.RPM_COLUMN_HEADER, Me7LogFileContract.Header.STFT_COLUMN_HEADER, Me7LogFileContract.Header.LTFT_COLUMN_HEADER, Me7LogFileContract.Header.MAF_VOLTAGE_HEADER, Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER, Me7LogFileContract.Header.LAMBDA_CONTROL_ACTIVE_HEADER, Me7LogFileContract.Header.ENGINE_LOAD_HEADER, Me7LogFileContract.Header.MAF_GRAMS_PER_SECOND_HEADER, Me7LogFileContract.Header.REQUESTED_LAMBDA_HEADER, Me7LogFileContract.Header.FUEL_INJECTOR_ON_TIME_HEADER, Me7LogFileContract.Header.WIDE_BAND_O2_HEADER);
+            case CLOSED_LOOP -> List.of(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER, Me7LogFileContract.Header.RPM_COLUMN_HEADER, Me7LogFileContract.Header.STFT_COLUMN_HEADER, Me7LogFileContract.Header.LTFT_COLUMN_HEADER, Me7LogFileContract.Header.MAF_VOLTAGE_HEADER, Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER, Me7LogFileContract.Header.LAMBDA_CONTROL_ACTIVE_HEADER, Me7LogFileContract.Header.ENGINE_LOAD_HEADER);
+            case LDRPID -> List.of(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER, Me7LogFileContract.Header.RPM_COLUMN_HEADER, Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER, Me7LogFileContract.Header.BAROMETRIC_PRESSURE_HEADER, Me7LogFileContract.Header.WASTEGATE_DUTY_CYCLE_HEADER, Me7LogFileContract.Header.ABSOLUTE_BOOST_PRESSURE_ACTUAL_HEADER, Me7LogFileContract.Header.SELECTED_GEAR_HEADER);
+            case KFVPDKSD -> List.of(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER, Me7LogFileContract.Header.RPM_COLUMN_HEADER, Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER, Me7LogFileContract.Header.BAROMETRIC_PRESSURE_HEADER, Me7LogFileContract.Header.ABSOLUTE_BOOST_PRESSURE_ACTUAL_HEADER);
+        };
+    }
+
+    /**
+     * @return the columns that identify the header row of the log type
+     */
+    private static List<Me7LogFileContract.Header> getRequiredHeaders(Me7LogParser.LogType logType) {
+        return switch (logType) {
+            case OPEN_LOOP -> List.of(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER, Me7LogFileContract.Header.RPM_COLUMN_HEADER, Me7LogFileContract.Header.STFT_COLUMN_HEADER, Me7LogFileContract.Header.LTFT_COLUMN_HEADER, Me7LogFileContract.Header.MAF_VOLTAGE_HEADER, Me7LogFileContract.Header.MAF_GRAMS_PER_SECOND_HEADER, Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER, Me7LogFileContract.Header.LAMBDA_CONTROL_ACTIVE_HEADER, Me7LogFileContract.Header.REQUESTED_LAMBDA_HEADER, Me7LogFileContract.Header.FUEL_INJECTOR_ON_TIME_HEADER);
+            // nmot, fr_w, fra_2, uhfm_w, wdkba, B_lr, rl_w
+            case CLOSED_LOOP -> getColumns(logType);
+            case LDRPID -> getColumns(logType);
+            case KFVPDKSD -> getColumns(logType);
+        };
+    }
+
+    public static Log read(File file, Me7LogParser.LogType logType) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Log is too large to map: " + file);
+            }
+
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), logType);
+        }
+    }
+
+    public static Log read(ByteBuffer buffer, Me7LogParser.LogType logType) {
+        return read(buffer, logType, null);
+    }
+
+    /**
+     * Reads the file in batches of at most {@link #BATCH_SIZE} rows and passes each batch to the sink as it is read. The
+     * start times of the file come with its first batch.
+     *
+     * @return the log without its rows, the frame has the columns found but no rows and the row count is the number of
+     * rows passed to the sink
+     */
+    public static Log stream(File file, Me7LogParser.LogType logType, LogSink<Me7LogFileContract.Header> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Log is too large to map: " + file);
+            }
+
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), logType, sink);
+        }
+    }
+
+    private static Log read(ByteBuffer buffer, Me7LogParser.LogType logType, @Nullable LogSink<Me7LogFileContract.Header> sink) {
+        List<Me7LogFileContract.Header> headers = getColumns(logType);
+        List<Me7LogFileContract.Header> requiredHeaders = getRequiredHeaders(logType);
+        List<Double> startTimes = new ArrayList<>();
+
+        Map<Me7LogFileContract.Header, Integer> columnIndices = new EnumMap<>(Me7LogFileContract.Header.class);
+        int limit = buffer.limit();
+        int position = 0;
+        boolean headersFound = false;
+
+        // Find the header row
+        List<String> fields = new ArrayList<>();
+        while (position < limit && !headersFound) {
+            position = readFields(buffer, position, fields);
+
+            if (!fields.isEmpty() && fields.get(0).contains(LOG_STARTED_AT)) {
+                startTimes.add(parseStartTime(fields.get(0)));
+            }
+
+            // The whole header row is read so columns after the last required one, such as the wide band O2, are found
+            for (int i = 0; i < fields.size(); i++) {
+                String field = fields.get(i).trim();
+
+                for (Me7LogFileContract.Header header : headers) {
+                    if (header.getHeader().equals(field)) {
+                        columnIndices.put(header, i);
+                        break;
+                    }
+                }
+            }
+
+            headersFound = columnIndices.keySet().containsAll(requiredHeaders);
+        }
+
+        // Without a column every row would be missing a value
+        if (!headersFound || !columnIndices.keySet().containsAll(getNeededHeaders(logType))) {
+            return new Log(LogFrame.builder(Me7LogFileContract.Header.class).build(), startTimes, 0, 0);
+        }
+
+        // The slot of each column of the file that is read, -1 for the columns that are not
+        int lastColumn = columnIndices.values().stream().mapToInt(Integer::intValue).max().orElse(-1);
+        int[] slots = new int[lastColumn + 1];
+        Arrays.fill(slots, -1);
+
+        List<Me7LogFileContract.Header> readHeaders = new ArrayList<>(columnIndices.keySet());
+        for (int i = 0; i < readHeaders.size(); i++) {
+            slots[columnIndices.get(readHeaders.get(i))] = i;
+        }
+
+        // Rows are parsed into one chunk of each column, a full chunk is handed on as it is and a new one started
+        LogFrame.Builder<Me7LogFileContract.Header> builder = newBuilder(readHeaders);
+        double[][] columns = new double[readHeaders.size()][BATCH_SIZE];
+        double[] row = new double[readHeaders.size()];
+        int rowCount = 0;
+        int skippedRows = 0;
+        int totalRows = 0;
+
+        while (position < limit) {
+            int end = lineEnd(buffer, position, limit);
+
+            if (!isBlank(buffer, position, end)) {
+                if (parseRow(buffer, position, end, slots, row)) {
+                    if (rowCount == BATCH_SIZE) {
+                        addChunk(builder, readHeaders, columns, rowCount);
+
+                        if (sink != null) {
+                            sink.onBatch(withStartTimes(builder, totalRows == 0 ? startTimes : List.of()).build());
+                            builder = newBuilder(readHeaders);
+                        }
+
+                        totalRows += rowCount;
+                        rowCount = 0;
+                        columns = new double[readHeaders.size()][BATCH_SIZE];
+                    }
+
+                    for (int i = 0; i < row.length; i++) {
+                        columns[i][rowCount] = row[i];
+                    }
+                    rowCount++;
+                } else {
+                    skippedRows++;
+                }
+            }
+
+            position = end + 1;
+        }
+
+        if (sink == null) {
+            addChunk(builder, readHeaders, columns, rowCount);
+        } else if (rowCount > 0) {
+            addChunk(builder, readHeaders, columns, rowCount);
+            sink.onBatch(withStartTimes(builder, totalRows == 0 ? startTimes : List.of()).build());
+            builder = newBuilder(readHeaders);
+        }
+
+        return new Log(builder.build(), startTimes, totalRows + rowCount, skippedRows);
+    }
+
+    private static LogFrame.Builder<Me7LogFileContract.Header> newBuilder(List<Me7LogFileContract.Header> headers) {
+        LogFrame.Builder<Me7LogFileContract.Header> builder = LogFrame.builder(Me7LogFileContract.Header.class);
+
+        for (Me7LogFileContract.Header header : headers) {
+            builder.addColumn(header);
+        }
+
+        return builder;
+    }
+
+    private static void addChunk(LogFrame.Builder<Me7LogFileContract.Header> builder, List<Me7LogFileContract.Header> headers, double[][] columns, int rowCount) {
+        for (int i = 0; i < headers.size(); i++) {
+            builder.addChunk(headers.get(i), columns[i], rowCount);
+        }
+    }
+
+    private static LogFrame.Builder<Me7LogFileContract.Header> withStartTimes(LogFrame.Builder<Me7LogFileContract.Header> builder, List<Double> startTimes) {
+        for (double startTime : startTimes) {
+            builder.addStartTime(startTime);
+        }
+
+        return builder;
+    }
+
+    /**
+     * @return the columns that must be present for a row to be read, every column but the wide band O2
+     */
+    private static List<Me7LogFileContract.Header> getNeededHeaders(Me7LogParser.LogType logType) {
+        List<Me7LogFileContract.Header> needed = new ArrayList<>(getColumns(logType));
+        needed.remove(Me7LogFileContract.Header.WIDE_BAND_O2_HEADER);
+
+        return needed;
+    }
+
+    /**
+     * "Log started at: dd.MM.yyyy HH:mm:ss.SSS", the start time is the seconds into the hour.
+     */
+    private static double parseStartTime(String field) {
+        String[] split = field.split(" ");
+        String timestamp = split[5];
+        split = timestamp.split(":");
+        double minuteSeconds = Double.parseDouble(split[1]) * 60;
+        double secondsSeconds = Double.parseDouble(split[2]);
+
+        return minuteSeconds + secondsSeconds;
+    }
+
+    /**
+     * Parses the columns with a slot into the row.
+     *
+     * @return false if a column is missing or is not a number
+     */
+    private static boolean parseRow(ByteBuffer buffer, int start, int end, int[] slots, double[] row) {
+        int column = 0;
+        int fieldStart = start;
+        int parsed = 0;
+
+        for (int i = start; i <= end && column < slots.length; i++) {
+            byte b = i < end ? buffer.get(i) : DELIMITER;
+
+            if (b == QUOTE) {
+                return parseQuotedRow(buffer, start, end, slots, row);
+            }
+
+            if (b == DELIMITER) {
+                int slot = slots[column];
+
+                if (slot >= 0) {
+                    try {
+                        row[slot] = FastDoubleParser.parse(buffer, fieldStart, i);
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                    parsed++;
+                }
+
+                column++;
+                fieldStart = i + 1;
+            }
+        }
+
+        return parsed == row.length;
+    }
+
+    /**
+     * The slow path for a row with quoted fields, which ME7Logger does not write.
+     */
+    private static boolean parseQuotedRow(ByteBuffer buffer, int start, int end, int[] slots, double[] row) {
+        List<String> fields = new ArrayList<>();
+        readFields(buffer.slice(start, end - start), 0, fields);
+
+        int parsed = 0;
+        for (int column = 0; column < Math.min(fields.size(), slots.length); column++) {
+            int slot = slots[column];
+
+            if (slot >= 0) {
+                try {
+                    row[slot] = Double.parseDouble(fields.get(column));
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+                parsed++;
+            }
+        }
+
+        return parsed == row.length;
+    }
+
+    /**
+     * Reads the fields of the CSV record at the position, which may span lines inside of quotes.
+     *
+     * @return the position of the next record
+     */
+    private static int readFields(ByteBuffer buffer, int position, List<String> fields) {
+        fields.clear();
+
+        int limit = buffer.limit();
+        ByteArrayOutputStream quoted = null;
+        int fieldStart = position;
+        boolean inQuotes = false;
+        int i = position;
+
+        for (; i < limit; i++) {
+            byte b = buffer.get(i);
+
+            if (inQuotes) {
+                if (b == QUOTE) {
+                    if (i + 1 < limit && buffer.get(i + 1) == QUOTE) {
+                        quoted.write(QUOTE);
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    quoted.write(b);
+                }
+            } else if (b == QUOTE && i == fieldStart) {
+                inQuotes = true;
+                quoted = new ByteArrayOutputStream();
+            } else if (b == DELIMITER || b == NEW_LINE) {
+                fields.add(quoted != null ? quoted.toString(StandardCharsets.UTF_8) : decode(buffer, fieldStart, stripCarriageReturn(buffer, fieldStart, i)));
+                quoted = null;
+                fieldStart = i + 1;
+
+                if (b == NEW_LINE) {
+                    return i + 1;
+                }
+            }
+        }
+
+        if (fieldStart < limit || !fields.isEmpty()) {
+            fields.add(quoted != null ? quoted.toString(StandardCharsets.UTF_8) : decode(buffer, fieldStart, limit));
+        }
+
+        return limit;
+    }
+
+    private static int stripCarriageReturn(ByteBuffer buffer, int start, int end) {
+        return end > start && buffer.get(end - 1) == '\r' ? end - 1 : end;
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int lineEnd(ByteBuffer buffer, int position, int limit) {
+        for (int i = position; i < limit; i++) {
+            if (buffer.get(i) == NEW_LINE) {
+                return i;
+            }
+        }
+
+        return limit;
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if ((buffer.get(i) & 0xFF) > ' ') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -1,6 +1,7 @@
 package data.parser.me7log;
 
 import data.contract.Me7LogFileContract;
+import domain.model.log.LogFrame;
 import io.reactivex.Observer;
 import io.reactivex.Single;
 import io.reactivex.SingleObserver;
@@ -11,12 +12,11 @@ import io.reactivex.subjects.PublishSubject;
 
 import javax.swing.*;
 import java.io.File;
-import java.util.List;
-import java.util.Map;
 
 public class OpenLoopLogParser {
 
-    private final PublishSubject<Map<Me7LogFileContract.Header, List<Double>>> publishSubject;
+    private final PublishSubject<LogFrame<Me7LogFileContract.Header>> publishSubject;
+    private final PublishSubject<Me7LogParser.ParseReport> parseReportSubject;
 
     private static OpenLoopLogParser instance;
 
@@ -34,22 +34,34 @@ public class OpenLoopLogParser {
 
     private OpenLoopLogParser() {
         publishSubject = PublishSubject.create();
+        parseReportSubject = PublishSubject.create();
     }
 
-    public void register(Observer<Map<Me7LogFileContract.Header, List<Double>>> observer) {
+    public void register(Observer<LogFrame<Me7LogFileContract.Header>> observer) {
         SwingUtilities.invokeLater(() -> publishSubject.subscribe(observer));
     }
 
+    /**
+     * @param observer notified on the event dispatch thread with the log if it could not be read, or the rows left out of it
+     */
+    public void registerParseReportObserver(Observer<Me7LogParser.ParseReport> observer) {
+        SwingUtilities.invokeLater(() -> parseReportSubject.subscribe(observer));
+    }
+
     public void loadFile(File file) {
         Me7LogParser me7LogParser = new Me7LogParser();
-        Single.fromCallable(() -> me7LogParser.parseLogFile(Me7LogParser.LogType.OPEN_LOOP, file)).subscribeOn(Schedulers.io()).subscribe(new SingleObserver<Map<Me7LogFileContract.Header, List<Double>>>() {
+        Single.fromCallable(() -> me7LogParser.parseLogFile(Me7LogParser.LogType.OPEN_LOOP, file)).subscribeOn(Schedulers.io()).subscribe(new SingleObserver<LogFrame<Me7LogFileContract.Header>>() {
             @Override
             public void onSubscribe(@NonNull Disposable disposable) {
             }
 
             @Override
-            public void onSuccess(@NonNull Map<Me7LogFileContract.Header, List<Double>> logMap) {
-                SwingUtilities.invokeLater(() -> publishSubject.onNext(logMap));
+            public void onSuccess(@NonNull LogFrame<Me7LogFileContract.Header> logMap) {
+                Me7LogParser.ParseReport parseReport = me7LogParser.getReport();
+                SwingUtilities.invokeLater(() -> {
+                    publishSubject.onNext(logMap);
+                    parseReportSubject.onNext(parseReport);
+                });
             }
 
             @Override
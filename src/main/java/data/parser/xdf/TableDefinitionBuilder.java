@@ -0,0 +1,152 @@
+package data.parser.xdf;
+
+import org.apache.commons.math3.util.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds definitions from captured XDF elements. Builders share no state so tables can be built on any thread.
+ */
+class TableDefinitionBuilder {
+
+    static final String XDF_CONSTANT_TAG = "XDFCONSTANT";
+    static final String XDF_TABLE_TAG = "XDFTABLE";
+    private static final String XDF_AXIS_TAG = "XDFAXIS";
+    private static final String XDF_LABEL_TAG = "LABEL";
+    private static final String XDF_EMBEDDED_TAG = "EMBEDDEDDATA";
+    private static final String XDF_MATH_TAG = "MATH";
+    private static final String XDF_VAR_TAG = "VAR";
+
+    private static final String XDF_TABLE_TITLE_TAG = "title";
+    private static final String XDF_TABLE_DESCRIPTION_TAG = "description";
+    private static final String XDF_ID_TAG = "id";
+    private static final String XDF_INDEX_TAG = "index";
+    private static final String XDF_VALUE_TAG = "value";
+    private static final String XDF_INDEX_COUNT_TAG = "indexcount";
+    private static final String XDF_UNITS_TAG = "units";
+
+    private static final String XDF_TYPE_FLAG = "mmedtypeflags";
+    private static final String XDF_ADDRESS_TAG = "mmedaddress";
+    private static final String XDF_SIZE_BITS_TAG = "mmedelementsizebits";
+    private static final String XDF_ROW_COUNT_TAG = "mmedrowcount";
+    private static final String XDF_COLUMN_COUNT_TAG = "mmedcolcount";
+    private static final String XDF_EQUATION_TAG = "equation";
+
+    static TableDefinition build(XdfElement element) {
+        return element.name().equals(XDF_TABLE_TAG) ? buildTable(element) : buildConstant(element);
+    }
+
+    private static TableDefinition buildTable(XdfElement element) {
+        String tableName = "";
+        String tableDescription = "";
+
+        Axis x = new Axis();
+        Axis y = new Axis();
+        Axis z = new Axis();
+
+        for (XdfElement tableChild : element.children()) {
+            switch (tableChild.name()) {
+                case XDF_TABLE_TITLE_TAG -> tableName = tableChild.text();
+                case XDF_TABLE_DESCRIPTION_TAG -> tableDescription = tableChild.text();
+                case XDF_AXIS_TAG -> {
+                    Axis axis = switch (tableChild.getAttribute(XDF_ID_TAG)) {
+                        case "x" -> x;
+                        case "y" -> y;
+                        case "z" -> z;
+                        default -> new Axis();
+                    };
+
+                    for (XdfElement axisChild : tableChild.children()) {
+                        switch (axisChild.name()) {
+                            case XDF_INDEX_COUNT_TAG -> axis.indexCount = Integer.parseInt(axisChild.text());
+                            case XDF_UNITS_TAG -> axis.units = axisChild.text();
+                            case XDF_EMBEDDED_TAG -> axis.readEmbeddedData(axisChild);
+                            case XDF_MATH_TAG -> axis.readMath(axisChild);
+                            case XDF_LABEL_TAG -> {
+                                int index = axisChild.getIntAttribute(XDF_INDEX_TAG);
+
+                                float value = 0;
+
+                                try {
+                                    value = Float.parseFloat(axisChild.getAttribute(XDF_VALUE_TAG).trim());
+                                } catch (NumberFormatException | NullPointerException e) {}
+
+                                axis.axisValues.add(new Pair<>(index, value));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return new TableDefinition(tableName, tableDescription, x.build("x"), y.build("y"), z.build("z"));
+    }
+
+    private static TableDefinition buildConstant(XdfElement element) {
+        String tableName = "";
+        String tableDescription = "";
+
+        Axis c = new Axis();
+
+        for (XdfElement tableChild : element.children()) {
+            switch (tableChild.name()) {
+                case XDF_TABLE_TITLE_TAG -> tableName = tableChild.text();
+                case XDF_TABLE_DESCRIPTION_TAG -> tableDescription = tableChild.text();
+                case XDF_UNITS_TAG -> c.units = tableChild.text();
+                case XDF_EMBEDDED_TAG -> c.readEmbeddedData(tableChild);
+                case XDF_MATH_TAG -> c.readMath(tableChild);
+            }
+        }
+
+        // Constants only carry the type, address and size of their embedded data
+        AxisDefinition zAxisDefinition = new AxisDefinition("z", c.type, c.address, 0, c.sizeBits, 0, 0, c.units, c.equation, c.varId, new ArrayList<>());
+
+        return new TableDefinition(tableName, tableDescription, null, null, zAxisDefinition);
+    }
+
+    private static class Axis {
+        // 0x00 = unsigned, LSB last
+        // 0x01 = signed, LSB last
+        // 0x02 = unsigned, LSB first
+        // 0x03 = signed, LSB first
+        private int type;
+        private int address;
+        private int sizeBits;
+        private int rowCount;
+        private int columnCount;
+        private int indexCount;
+        private String equation = "";
+        private String varId = "";
+        private String units = "-";
+        private final List<Pair<Integer, Float>> axisValues = new ArrayList<>();
+
+        private void readEmbeddedData(XdfElement embeddedData) {
+            sizeBits = embeddedData.getIntAttribute(XDF_SIZE_BITS_TAG);
+
+            String typeAttribute = embeddedData.getAttribute(XDF_TYPE_FLAG);
+            type = typeAttribute == null ? 0 : Integer.decode(typeAttribute);
+
+            String addressAttribute = embeddedData.getAttribute(XDF_ADDRESS_TAG);
+            address = addressAttribute == null ? 0 : Integer.decode(addressAttribute);
+
+            rowCount = embeddedData.getAttribute(XDF_ROW_COUNT_TAG) == null ? 0 : embeddedData.getIntAttribute(XDF_ROW_COUNT_TAG);
+            columnCount = embeddedData.getAttribute(XDF_COLUMN_COUNT_TAG) == null ? 0 : embeddedData.getIntAttribute(XDF_COLUMN_COUNT_TAG);
+        }
+
+        private void readMath(XdfElement math) {
+            equation = math.getAttribute(XDF_EQUATION_TAG);
+            varId = "";
+
+            for (XdfElement equationChild : math.children()) {
+                if (equationChild.name().equals(XDF_VAR_TAG)) {
+                    varId = equationChild.getAttribute(XDF_ID_TAG);
+                }
+            }
+        }
+
+        private AxisDefinition build(String id) {
+            return new AxisDefinition(id, type, address, indexCount, sizeBits, rowCount, columnCount, units, equation, varId, axisValues);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package data.parser.xdf;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The captured subtree of a single XDFTABLE or XDFCONSTANT element.
+ */
+record XdfElement(String name, Map<String, String> attributes, String text, List<XdfElement> children) {
+
+    String getAttribute(String attribute) {
+        return attributes.get(attribute);
+    }
+
+    int getIntAttribute(String attribute) {
+        return Integer.parseInt(attributes.get(attribute).trim());
+    }
+}
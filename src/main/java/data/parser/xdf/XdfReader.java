@@ -0,0 +1,104 @@
+package data.parser.xdf;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Streams an XDF with StAX. Only the XDFTABLE or XDFCONSTANT element being read is held in memory, every other element
+ * is skipped as it streams past. Each captured element is handed to the common fork join pool to be built while the
+ * rest of the file is read.
+ */
+public class XdfReader {
+
+    private static final XMLInputFactory factory = XMLInputFactory.newFactory();
+
+    static {
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    /**
+     * @return the table definitions in document order
+     */
+    public static List<TableDefinition> read(InputStream inputStream) throws XMLStreamException {
+        XMLStreamReader reader = factory.createXMLStreamReader(inputStream);
+        List<CompletableFuture<TableDefinition>> futures = new ArrayList<>();
+
+        try {
+            int depth = 0;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+
+                    // Tables are children of the root element
+                    if (depth == 1 && (name.equals(TableDefinitionBuilder.XDF_TABLE_TAG) || name.equals(TableDefinitionBuilder.XDF_CONSTANT_TAG))) {
+                        XdfElement element = readElement(reader);
+                        futures.add(CompletableFuture.supplyAsync(() -> TableDefinitionBuilder.build(element)));
+                    } else {
+                        depth++;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        List<TableDefinition> tableDefinitions = new ArrayList<>(futures.size());
+
+        try {
+            for (CompletableFuture<TableDefinition> future : futures) {
+                tableDefinitions.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            throw e;
+        }
+
+        return tableDefinitions;
+    }
+
+    /**
+     * Captures the element the reader is positioned on, leaving the reader on its end tag.
+     */
+    private static XdfElement readElement(XMLStreamReader reader) throws XMLStreamException {
+        String name = reader.getLocalName();
+
+        Map<String, String> attributes = new HashMap<>(reader.getAttributeCount() * 2);
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+
+        StringBuilder text = new StringBuilder();
+        List<XdfElement> children = new ArrayList<>();
+
+        while (true) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> children.add(readElement(reader));
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                    // Only leaf text is ever read
+                    if (children.isEmpty()) {
+                        text.append(reader.getText());
+                    }
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    return new XdfElement(name, attributes, children.isEmpty() ? text.toString() : "", children);
+                }
+            }
+        }
+    }
+}
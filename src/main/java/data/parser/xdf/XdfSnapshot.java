@@ -0,0 +1,184 @@
+package data.parser.xdf;
+
+import data.cache.CacheDirectory;
+import io.reactivex.annotations.Nullable;
+import org.apache.commons.math3.util.Pair;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * A binary snapshot of the definitions parsed from an XDF. The snapshot records the size, modification time and content
+ * hash of the XDF it was taken from and is only loaded while all three still match.
+ */
+public class XdfSnapshot {
+
+    private static final int MAGIC = 0x4D375844; // M7XD
+    private static final int VERSION = 1;
+
+    /**
+     * @return the snapshotted definitions in their original order or null if there is no snapshot of this version of
+     * the file
+     */
+    @Nullable
+    public static List<TableDefinition> load(File xdf) {
+        File snapshot = getSnapshotFile(xdf);
+
+        if (!snapshot.isFile()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != xdf.length() || in.readLong() != xdf.lastModified() || in.readLong() != hash(xdf)) {
+                return null;
+            }
+
+            int count = in.readInt();
+            List<TableDefinition> tableDefinitions = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++) {
+                String tableName = readString(in);
+                String tableDescription = readString(in);
+                AxisDefinition xAxis = readAxis(in);
+                AxisDefinition yAxis = readAxis(in);
+                AxisDefinition zAxis = readAxis(in);
+
+                tableDefinitions.add(new TableDefinition(tableName, tableDescription, xAxis, yAxis, zAxis));
+            }
+
+            return tableDefinitions;
+        } catch (IOException | RuntimeException e) {
+            // A truncated or corrupt snapshot is simply rebuilt from the XDF
+            return null;
+        }
+    }
+
+    public static void save(File xdf, List<TableDefinition> tableDefinitions) {
+        File snapshot = getSnapshotFile(xdf);
+        File temp = new File(snapshot.getPath() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(xdf.length());
+            out.writeLong(xdf.lastModified());
+            out.writeLong(hash(xdf));
+            out.writeInt(tableDefinitions.size());
+
+            for (TableDefinition tableDefinition : tableDefinitions) {
+                writeString(out, tableDefinition.getTableName());
+                writeString(out, tableDefinition.getTableDescription());
+                writeAxis(out, tableDefinition.getXAxis());
+                writeAxis(out, tableDefinition.getYAxis());
+                writeAxis(out, tableDefinition.getZAxis());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        try {
+            CacheDirectory.replace(temp, snapshot);
+        } catch (IOException e) {
+            e.printStackTrace();
+            temp.delete();
+        }
+    }
+
+    private static File getSnapshotFile(File xdf) {
+        String path = xdf.getAbsolutePath();
+        return new File(CacheDirectory.get("xdf"), UUID.nameUUIDFromBytes(path.getBytes(StandardCharsets.UTF_8)) + ".snapshot");
+    }
+
+    private static long hash(File xdf) throws IOException {
+        CRC32C crc = new CRC32C();
+        byte[] buffer = new byte[64 * 1024];
+
+        try (InputStream in = new FileInputStream(xdf)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+            }
+        }
+
+        return crc.getValue();
+    }
+
+    private static void writeAxis(DataOutputStream out, AxisDefinition axisDefinition) throws IOException {
+        out.writeBoolean(axisDefinition != null);
+
+        if (axisDefinition == null) {
+            return;
+        }
+
+        writeString(out, axisDefinition.getId());
+        out.writeInt(axisDefinition.getType());
+        out.writeInt(axisDefinition.getAddress());
+        out.writeInt(axisDefinition.getIndexCount());
+        out.writeInt(axisDefinition.getSizeBits());
+        out.writeInt(axisDefinition.getRowCount());
+        out.writeInt(axisDefinition.getColumnCount());
+        writeString(out, axisDefinition.getUnit());
+        writeString(out, axisDefinition.getEquation());
+        writeString(out, axisDefinition.getVarId());
+
+        out.writeInt(axisDefinition.getAxisValues().size());
+        for (Pair<Integer, Float> axisValue : axisDefinition.getAxisValues()) {
+            out.writeInt(axisValue.getFirst());
+            out.writeFloat(axisValue.getSecond());
+        }
+    }
+
+    private static AxisDefinition readAxis(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+
+        String id = readString(in);
+        int type = in.readInt();
+        int address = in.readInt();
+        int indexCount = in.readInt();
+        int sizeBits = in.readInt();
+        int rowCount = in.readInt();
+        int columnCount = in.readInt();
+        String unit = readString(in);
+        String equation = readString(in);
+        String varId = readString(in);
+
+        int valueCount = in.readInt();
+        List<Pair<Integer, Float>> axisValues = new ArrayList<>(valueCount);
+        for (int i = 0; i < valueCount; i++) {
+            axisValues.add(new Pair<>(in.readInt(), in.readFloat()));
+        }
+
+        return new AxisDefinition(id, type, address, indexCount, sizeBits, rowCount, columnCount, unit, equation, varId, axisValues);
+    }
+
+    // Not writeUTF, descriptions are not guaranteed to fit in 64 KiB
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,11 +1,14 @@
 package data.preferences;
 
 import io.reactivex.Observer;
+import io.reactivex.annotations.NonNull;
 import io.reactivex.annotations.Nullable;
+import io.reactivex.disposables.Disposable;
 import io.reactivex.subjects.PublishSubject;
 import domain.math.map.Map3d;
 import org.apache.commons.math3.util.Pair;
 import data.parser.bin.BinParser;
+import data.parser.bin.TableKey;
 import data.parser.xdf.TableDefinition;
 
 import java.util.List;
@@ -20,11 +23,39 @@ public class MapPreference {
     private final Preferences prefs = Preferences.userNodeForPackage(MapPreference.class);
     private final PublishSubject<Optional<Pair<TableDefinition, Map3d>>> publishSubject = PublishSubject.create();
 
+    // The stored selection, kept in memory so lookups don't go through the preferences backing store
+    private volatile TableKey selection;
+
     public MapPreference(String tableTitlePreference, String tableDescriptionPreference, String tableUnitPreference) {
         this.tableTitlePreference = tableTitlePreference;
         this.tableDescriptionPreference = tableDescriptionPreference;
         this.tableUnitPreference = tableUnitPreference;
+        this.selection = new TableKey(getTableTitlePreference(), getTableDescriptionPreference(), getTableUnitPreference());
         MapPreferenceManager.add(this);
+
+        BinParser.getInstance().registerTableChangeObserver(new Observer<>() {
+            @Override
+            public void onSubscribe(@NonNull Disposable disposable) {
+            }
+
+            @Override
+            public void onNext(@NonNull List<TableDefinition> tableDefinitions) {
+                for (TableDefinition tableDefinition : tableDefinitions) {
+                    if (TableKey.of(tableDefinition).equals(selection)) {
+                        publishSubject.onNext(Optional.ofNullable(getSelectedMap()));
+                        return;
+                    }
+                }
+            }
+
+            @Override
+            public void onError(@NonNull Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
     }
 
     public void registerOnMapChanged(Observer<Optional<Pair<TableDefinition, Map3d>>> observer) {
@@ -34,6 +65,7 @@ public class MapPreference {
     public void clear() {
         try {
             prefs.clear();
+            selection = new TableKey("", "", "");
             publishSubject.onNext(Optional.empty());
         } catch (BackingStoreException e) {
             e.printStackTrace();
@@ -42,23 +74,14 @@ public class MapPreference {
 
     @Nullable
     public Pair<TableDefinition, Map3d> getSelectedMap() {
-        List<Pair<TableDefinition, Map3d>> mapList = BinParser.getInstance().getMapList();
+        TableKey selection = this.selection;
 
-        String mapTitle = getTableTitlePreference();
-        String mapDescription = getTableDescriptionPreference();
-        String mapUnit = getTableUnitPreference();
-
-        if (mapTitle.isEmpty() && mapDescription.isEmpty()) {
+        if (selection.title().isEmpty() && selection.description().isEmpty()) {
             return null;
-        } else {
-            for (Pair<TableDefinition, Map3d> map : mapList) {
-                if (mapTitle.equals(map.getFirst().getTableName()) && mapDescription.equals(map.getFirst().getTableDescription()) && mapUnit.equals(map.getFirst().getZAxis().getUnit())) {
-                    return map;
-                }
-            }
         }
 
-        return null;
+        // Only the selected table is decoded
+        return BinParser.getInstance().getMap(selection);
     }
 
     public void setSelectedMap(@Nullable TableDefinition tableDefinition) {
@@ -72,6 +95,8 @@ public class MapPreference {
             setTableUnitPreference("");
         }
 
+        selection = new TableKey(getTableTitlePreference(), getTableDescriptionPreference(), getTableUnitPreference());
+
         publishSubject.onNext(Optional.ofNullable(getSelectedMap()));
     }
 
@@ -0,0 +1,136 @@
+package data.writer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Undo journal for {@link BinWriter} transactions. Before a transaction touches the bin the bytes it is about to
+ * overwrite are written to a journal next to the bin and forced to disk. The journal is deleted once the bin itself
+ * has been forced, so a journal that still exists when the bin is opened belongs to an interrupted write.
+ */
+public class BinJournal {
+
+    private static final int MAGIC = 0x4D37424A; // M7BJ
+    private static final String JOURNAL_EXTENSION = ".journal";
+
+    public static File getJournalFile(File bin) {
+        return new File(bin.getPath() + JOURNAL_EXTENSION);
+    }
+
+    static void begin(File bin, FileChannel channel, List<BinWriter.StagedWrite> stagedWrites) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(MAGIC);
+        out.writeInt(stagedWrites.size());
+
+        for (BinWriter.StagedWrite stagedWrite : stagedWrites) {
+            int length = (int) Math.max(0, Math.min(stagedWrite.bytes().length, channel.size() - stagedWrite.address()));
+            ByteBuffer original = ByteBuffer.allocate(length);
+
+            while (original.hasRemaining()) {
+                if (channel.read(original, stagedWrite.address() + original.position()) < 0) {
+                    break;
+                }
+            }
+
+            out.writeInt(stagedWrite.address());
+            out.writeInt(original.position());
+            out.write(original.array(), 0, original.position());
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        out.flush();
+
+        try (FileChannel journal = FileChannel.open(getJournalFile(bin).toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+
+            journal.force(true);
+        }
+    }
+
+    static void end(File bin) throws IOException {
+        Files.deleteIfExists(getJournalFile(bin).toPath());
+    }
+
+    /**
+     * Restores the bytes recorded by an interrupted transaction. A journal that was itself only partially written is
+     * discarded since the bin is never touched before its journal is complete.
+     *
+     * @return true if the bin was rolled back
+     */
+    public static boolean rollback(File bin) throws IOException {
+        File journalFile = getJournalFile(bin);
+
+        if (!journalFile.isFile()) {
+            return false;
+        }
+
+        byte[] journal = Files.readAllBytes(journalFile.toPath());
+        List<BinWriter.StagedWrite> originals = read(journal);
+
+        if (originals != null) {
+            try (FileChannel channel = FileChannel.open(bin.toPath(), StandardOpenOption.WRITE)) {
+                // Undo in reverse so overlapping writes restore the oldest bytes last
+                for (int i = originals.size() - 1; i >= 0; i--) {
+                    ByteBuffer buffer = ByteBuffer.wrap(originals.get(i).bytes());
+                    long position = originals.get(i).address();
+
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                }
+
+                channel.force(false);
+            }
+        }
+
+        end(bin);
+
+        return originals != null;
+    }
+
+    private static List<BinWriter.StagedWrite> read(byte[] journal) {
+        if (journal.length < Integer.BYTES * 2 + Long.BYTES) {
+            return null;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(journal, 0, journal.length - Long.BYTES);
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(journal))) {
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+
+            int count = in.readInt();
+            List<BinWriter.StagedWrite> originals = new ArrayList<>();
+
+            for (int i = 0; i < count; i++) {
+                int address = in.readInt();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                originals.add(new BinWriter.StagedWrite(address, bytes));
+            }
+
+            if (in.readLong() != crc.getValue()) {
+                return null;
+            }
+
+            return originals;
+        } catch (IOException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+}
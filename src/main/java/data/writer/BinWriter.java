@@ -1,31 +1,32 @@
 package data.writer;
 
+import data.equation.CellEncoder;
 import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.subjects.PublishSubject;
 import domain.math.map.Map3d;
+import data.parser.bin.AddressRange;
 import data.parser.bin.BinParser;
+import data.parser.bin.CellType;
+import data.parser.xdf.AxisDefinition;
 import data.parser.xdf.TableDefinition;
 
-import javax.script.*;
+import javax.script.ScriptException;
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class BinWriter {
     private static final int INVALID_ADDRESS = 0;
 
     private static BinWriter instance;
-    private final ScriptEngine engine = new ScriptEngineManager().getEngineByName("JavaScript");
-
 
     private final PublishSubject<TableDefinition> publishSubject = PublishSubject.create();
+    private final PublishSubject<List<AddressRange>> dirtyRangeSubject = PublishSubject.create();
 
     private BinWriter() {
     }
@@ -46,121 +47,175 @@ public class BinWriter {
         publishSubject.subscribe(observer);
     }
 
+    /**
+     * @param observer notified with the byte ranges of the bin touched by each write, before the write is published
+     *                 to {@link #register(Observer)} observers
+     */
+    public void registerDirtyRangeObserver(Observer<List<AddressRange>> observer) {
+        dirtyRangeSubject.subscribe(observer);
+    }
+
+    /**
+     * Writes a single table. Use {@link #beginTransaction(File)} to write several tables with one flush.
+     */
     public void write(@NonNull File file, @NonNull TableDefinition tableDefinition, @NonNull Map3d map) throws IOException {
-        RandomAccessFile raf = new RandomAccessFile(file, "rws");
+        beginTransaction(file).stage(tableDefinition, map).commit();
+    }
 
-        if (tableDefinition.getXAxis() != null && tableDefinition.getXAxis().getAddress() != INVALID_ADDRESS) {
-            double[] xAxis = new double[Math.max(tableDefinition.getXAxis().getRowCount(), 1) * Math.max(tableDefinition.getXAxis().getIndexCount(), 1)];
-            for (int i = 0; i < map.xAxis.length; i++) {
-                xAxis[i] = map.xAxis[i];
-            }
+    public Transaction beginTransaction(@NonNull File file) {
+        return new Transaction(file);
+    }
 
-            write(raf, tableDefinition.getXAxis().getAddress(), tableDefinition.getXAxis().getSizeBits(), tableDefinition.getXAxis().getEquation(), xAxis);
+    /**
+     * Stages table writes in memory. Nothing touches the bin until {@link #commit()}, which journals the bytes it is
+     * about to overwrite, applies every staged write and forces the bin to disk once. If a write fails the journal is
+     * rolled back before the failure is thrown, and if the process dies it is rolled back the next time the bin is
+     * opened.
+     */
+    public class Transaction {
+        private final File file;
+        private final List<TableDefinition> tableDefinitions = new ArrayList<>();
+        private final List<StagedWrite> stagedWrites = new ArrayList<>();
+        private boolean committed;
+
+        private Transaction(File file) {
+            this.file = file;
         }
 
-        if (tableDefinition.getYAxis() != null && tableDefinition.getYAxis().getAddress() != INVALID_ADDRESS) {
-            double[] yAxis = new double[Math.max(tableDefinition.getYAxis().getRowCount(), 1) * Math.max(tableDefinition.getYAxis().getIndexCount(), 1)];
+        /**
+         * @throws IOException if a value can not be encoded to within one LSB of the requested value or an equation can
+         * not be compiled, the transaction must then not be committed
+         */
+        public Transaction stage(@NonNull TableDefinition tableDefinition, @NonNull Map3d map) throws IOException {
+            if (committed) {
+                throw new IllegalStateException("Transaction has already been committed!");
+            }
 
-            for (int i = 0; i < map.yAxis.length; i++) {
-                yAxis[i] = map.yAxis[i];
+            if (tableDefinition.getXAxis() != null && tableDefinition.getXAxis().getAddress() != INVALID_ADDRESS) {
+                double[] xAxis = new double[Math.max(tableDefinition.getXAxis().getRowCount(), 1) * Math.max(tableDefinition.getXAxis().getIndexCount(), 1)];
+                for (int i = 0; i < map.xAxis.length; i++) {
+                    xAxis[i] = map.xAxis[i];
+                }
+
+                stage(tableDefinition.getXAxis(), xAxis);
             }
 
-            write(raf, tableDefinition.getYAxis().getAddress(), tableDefinition.getYAxis().getSizeBits(), tableDefinition.getYAxis().getEquation(), yAxis);
-        }
+            if (tableDefinition.getYAxis() != null && tableDefinition.getYAxis().getAddress() != INVALID_ADDRESS) {
+                double[] yAxis = new double[Math.max(tableDefinition.getYAxis().getRowCount(), 1) * Math.max(tableDefinition.getYAxis().getIndexCount(), 1)];
 
-        if (tableDefinition.getZAxis() != null && tableDefinition.getZAxis().getAddress() != INVALID_ADDRESS) {
-            double[] zAxis = new double[Math.max(tableDefinition.getZAxis().getRowCount(), 1) * Math.max(tableDefinition.getZAxis().getColumnCount(), 1)];
+                for (int i = 0; i < map.yAxis.length; i++) {
+                    yAxis[i] = map.yAxis[i];
+                }
+
+                stage(tableDefinition.getYAxis(), yAxis);
+            }
 
-            int index = 0;
-            for (int i = 0; i < map.zAxis.length; i++) {
-                for (int j = 0; j < map.zAxis[i].length; j++) {
-                    zAxis[index++] = map.zAxis[i][j];
+            if (tableDefinition.getZAxis() != null && tableDefinition.getZAxis().getAddress() != INVALID_ADDRESS) {
+                double[] zAxis = new double[Math.max(tableDefinition.getZAxis().getRowCount(), 1) * Math.max(tableDefinition.getZAxis().getColumnCount(), 1)];
+
+                int index = 0;
+                for (int i = 0; i < map.zAxis.length; i++) {
+                    for (int j = 0; j < map.zAxis[i].length; j++) {
+                        zAxis[index++] = map.zAxis[i][j];
+                    }
                 }
+
+                stage(tableDefinition.getZAxis(), zAxis);
             }
 
-            write(raf, tableDefinition.getZAxis().getAddress(), tableDefinition.getZAxis().getSizeBits(), tableDefinition.getZAxis().getEquation(), zAxis);
-        }
+            tableDefinitions.add(tableDefinition);
 
-        publishSubject.onNext(tableDefinition);
+            return this;
+        }
 
-    }
+        private void stage(AxisDefinition axisDefinition, double[] values) throws IOException {
+            stagedWrites.add(new StagedWrite(axisDefinition.getAddress(), encode(axisDefinition, values)));
+        }
 
-    private void write(RandomAccessFile raf, int address, int size, String equation, double[] values) throws IOException {
-        try {
-            CompiledScript compiledScript = ((Compilable) engine)
-                    .compile("function func(X) { return " + BinWriter.inverse(equation) + "}");
-            compiledScript.eval(compiledScript.getEngine()
-                    .getBindings(ScriptContext.ENGINE_SCOPE));
+        public void commit() throws IOException {
+            if (committed) {
+                throw new IllegalStateException("Transaction has already been committed!");
+            }
 
-            Invocable funcEngine = (Invocable) compiledScript.getEngine();
+            committed = true;
 
-            raf.seek(address);
+            List<AddressRange> dirtyRanges = new ArrayList<>(stagedWrites.size());
+            for (StagedWrite stagedWrite : stagedWrites) {
+                dirtyRanges.add(AddressRange.of(stagedWrite.address(), stagedWrite.bytes().length));
+            }
 
-            ByteBuffer bb = ByteBuffer.allocate(values.length * (size/8)).order(ByteOrder.LITTLE_ENDIAN);
-            for (double value : values) {
-                if (size == 8) {
-                    bb.put(((Number) funcEngine.invokeFunction("func", value)).byteValue());
-                } else if (size == 16) {
-                    bb.putShort(((Number) funcEngine.invokeFunction("func", value)).shortValue());
-                }
+            try {
+                BinWriter.this.commit(file, stagedWrites);
+            } finally {
+                // A failed write may have touched the bin before it was rolled back, or the rollback may have failed
+                dirtyRangeSubject.onNext(dirtyRanges);
             }
 
-            raf.write(bb.array());
-        } catch (ScriptException | NoSuchMethodException e) {
-            e.printStackTrace();
+            for (TableDefinition tableDefinition : tableDefinitions) {
+                publishSubject.onNext(tableDefinition);
+            }
         }
     }
 
-    private static String inverse(String equation) {
-        List<String> operators = extractOperators(equation);
-        List<Double> operands = extractOperands(equation);
+    record StagedWrite(int address, byte[] bytes) {}
 
-        if (operators.isEmpty() && operands.isEmpty()) {
-            return equation;
+    private synchronized void commit(File file, List<StagedWrite> stagedWrites) throws IOException {
+        if (stagedWrites.isEmpty()) {
+            return;
         }
 
-        String inverse = "";
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            BinJournal.begin(file, channel, stagedWrites);
 
-        if (operators.size() > 1) {
-            if (operators.get(1).equals("+")) {
-                inverse += "(X - " + operands.get(1) + ")";
-            }
-        }
+            for (StagedWrite stagedWrite : stagedWrites) {
+                ByteBuffer buffer = ByteBuffer.wrap(stagedWrite.bytes());
+                long position = stagedWrite.address();
 
-        if (operators.size() > 0) {
-            if (operators.get(0).equals("*")) {
-                if (operators.size() > 1) {
-                    inverse += " / " + operands.get(0);
-                } else {
-                    inverse += "X / " + operands.get(0);
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
                 }
             }
+
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            // Undo the writes that did happen now rather than the next time the bin is opened
+            try {
+                BinJournal.rollback(file);
+            } catch (IOException rollbackException) {
+                e.addSuppressed(rollbackException);
+            }
+
+            throw e;
         }
 
-        return inverse;
+        BinJournal.end(file);
     }
 
-    private static List<String> extractOperators(String equation) {
-        Pattern regex = Pattern.compile("[*+]");
-        Matcher matcher = regex.matcher(equation);
+    private static byte[] encode(AxisDefinition axisDefinition, double[] values) throws IOException {
+        CellType cellType = CellType.of(axisDefinition);
 
-        List<String> operators = new ArrayList<>();
-        while (matcher.find()) {
-            operators.add(matcher.group(0));
+        if (cellType == null) {
+            throw new IOException("Unsupported cell size: " + axisDefinition.getSizeBits() + " bits");
         }
 
-        return operators;
-    }
+        try {
+            CellEncoder encoder = CellEncoder.get(axisDefinition.getEquation(), axisDefinition.getVarId(), cellType);
 
-    private static List<Double> extractOperands(String equation) {
-        Pattern regex = Pattern.compile("(\\+|-)?([0-9]*(\\.[0-9]+))");
-        Matcher matcher = regex.matcher(equation);
+            ByteBuffer bb = ByteBuffer.allocate(values.length * cellType.getSizeBytes()).order(CellType.getByteOrder(axisDefinition));
+            for (double value : values) {
+                double raw = encoder.encode(value);
 
-        List<Double> operands = new ArrayList<>();
-        while (matcher.find()) {
-            operands.add(Double.parseDouble(matcher.group(0)));
-        }
+                if (!encoder.roundTrips(raw, value)) {
+                    throw new IOException("Unable to encode " + value + " with " + axisDefinition.getEquation() + ", closest is " + encoder.decode(raw));
+                }
+
+                cellType.write(bb, raw);
+            }
 
-        return operands;
+            return bb.array();
+        } catch (ScriptException e) {
+            // Thrown so the transaction writes none of its axes rather than all but this one
+            throw new IOException("Unable to compile " + axisDefinition.getEquation(), e);
+        }
     }
 }
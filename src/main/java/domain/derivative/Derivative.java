@@ -1,37 +1,39 @@
 package domain.derivative;
 
 import data.contract.Me7LogFileContract;
-import domain.math.Index;
+import domain.math.AxisIndex;
 import domain.math.map.Map3d;
+import domain.model.log.LogFrame;
 
 import java.util.*;
 
 public class Derivative {
 
-    public static Map<Double, List<Double>> getMlfhm(Map<Me7LogFileContract.Header, List<Double>> me7Logs, Map3d mlhfm) {
+    public static Map<Double, List<Double>> getMlfhm(LogFrame<Me7LogFileContract.Header> me7Logs, Map3d mlhfm) {
         Map<Double, List<Double>> rawVoltageDt = new HashMap<>();
 
         for (Double voltage : mlhfm.yAxis) {
             rawVoltageDt.put(voltage, new ArrayList<>());
         }
 
-        List<Double> me7Voltages = me7Logs.get(Me7LogFileContract.Header.MAF_VOLTAGE_HEADER);
-        List<Double> me7Timestamps = me7Logs.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER);
-        List<Double> me7voltageDt = getDt(me7Voltages, me7Timestamps);
+        LogFrame.Column me7Voltages = me7Logs.column(Me7LogFileContract.Header.MAF_VOLTAGE_HEADER);
+        LogFrame.Column me7Timestamps = me7Logs.column(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER);
+        double[] me7voltageDt = getDt(me7Voltages, me7Timestamps);
+        AxisIndex voltageIndex = new AxisIndex(mlhfm.yAxis);
 
-        for (int i = 0; i < me7voltageDt.size(); i++) {
+        for (int i = 0; i < me7voltageDt.length; i++) {
             double me7Voltage = me7Voltages.get(i + 1);
-            int mlhfmVoltageIndex = Index.getInsertIndex(Arrays.asList(mlhfm.yAxis), me7Voltage);
+            int mlhfmVoltageIndex = voltageIndex.index(me7Voltage);
             double mlhfmVoltageKey = mlhfm.yAxis[mlhfmVoltageIndex];
-            rawVoltageDt.get(mlhfmVoltageKey).add(me7voltageDt.get(i));
+            rawVoltageDt.get(mlhfmVoltageKey).add(me7voltageDt[i]);
         }
 
         return rawVoltageDt;
     }
 
-    public static ArrayList<Double> getDt(List<Double> voltages, List<Double> timestamps) {
+    public static double[] getDt(LogFrame.Column voltages, LogFrame.Column timestamps) {
 
-        ArrayList<Double> result = new ArrayList<>();
+        double[] result = new double[Math.max(0, voltages.size() - 1)];
 
         for (int i = 0; i < voltages.size() - 1; i++) {
             double v1 = voltages.get(i);
@@ -41,7 +43,7 @@ public class Derivative {
 
             double dt = Math.abs((v2-v1)/(t2-t1));
 
-            result.add(dt);
+            result[i] = dt;
         }
 
         return result;
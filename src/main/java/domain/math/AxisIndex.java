@@ -0,0 +1,137 @@
+package domain.math;
+
+import domain.util.Util;
+
+import java.util.Arrays;
+
+/**
+ * Assigns values to the nearest breakpoint of an ascending axis, like {@link Index#getInsertIndex(java.util.List, double)}
+ * but prepared once per axis. Evenly spaced axes are binned in O(1), other axes with a binary search over the primitive
+ * axis. Values outside of the axis go to the first or last breakpoint and a value half way between two breakpoints goes
+ * to the upper one.
+ * <p>
+ * The axis is copied on construction, so an index is immutable and can be shared between threads.
+ */
+public class AxisIndex {
+
+    // Relative tolerance for treating an axis as evenly spaced
+    private static final double UNIFORM_TOLERANCE = 1e-9;
+
+    private final double[] axis;
+    private final double first;
+    private final double inverseStep;
+    private final boolean uniform;
+
+    /**
+     * @param axis sorted in ascending order
+     * @throws IllegalArgumentException if the axis is empty or not sorted
+     */
+    public AxisIndex(double[] axis) throws IllegalArgumentException {
+        if (axis.length == 0) {
+            throw new IllegalArgumentException("Axis must contain a value");
+        }
+
+        for (int i = 1; i < axis.length; i++) {
+            if (!(axis[i] >= axis[i - 1])) {
+                throw new IllegalArgumentException("Axis must be sorted " + axis[i] + " " + axis[i - 1]);
+            }
+        }
+
+        this.axis = Arrays.copyOf(axis, axis.length);
+        this.first = axis[0];
+
+        double step = axis.length > 1 ? (axis[axis.length - 1] - axis[0]) / (axis.length - 1) : 0;
+        boolean uniform = step > 0;
+        for (int i = 1; i < axis.length && uniform; i++) {
+            uniform = Math.abs(axis[i] - axis[i - 1] - step) <= step * UNIFORM_TOLERANCE;
+        }
+
+        this.uniform = uniform;
+        this.inverseStep = uniform ? 1 / step : 0;
+    }
+
+    public AxisIndex(Double[] axis) throws IllegalArgumentException {
+        this(Util.toDoubleArray(axis));
+    }
+
+    public int size() {
+        return axis.length;
+    }
+
+    /**
+     * @return the index of the breakpoint nearest to the value
+     */
+    public int index(double value) {
+        if (axis.length == 1) {
+            return 0;
+        }
+
+        int segment = uniform ? uniformSegment(value) : searchSegment(value);
+
+        // The same proportion as Index.getInsertIndex so both agree at the midpoint
+        double a = axis[segment];
+        double b = axis[segment + 1];
+
+        return (value - a) / (b - a) < 0.5 ? segment : segment + 1;
+    }
+
+    /**
+     * Bins every value into out, which must be at least as long as values.
+     */
+    public void assign(double[] values, int[] out) {
+        for (int i = 0; i < values.length; i++) {
+            out[i] = index(values[i]);
+        }
+    }
+
+    public int[] assign(double[] values) {
+        int[] out = new int[values.length];
+        assign(values, out);
+        return out;
+    }
+
+    /**
+     * @return the segment [i, i + 1] holding the value, in [0, size - 2]
+     */
+    private int uniformSegment(double value) {
+        int last = axis.length - 2;
+
+        double position = (value - first) * inverseStep;
+        // Also catches NaN, which goes to the last breakpoint like it does in Index.getInsertIndex
+        if (!(position < last)) {
+            return last;
+        }
+        if (position <= 0) {
+            return 0;
+        }
+
+        int segment = (int) position;
+
+        // Rounding in the position can land one segment off near a breakpoint
+        if (segment > 0 && value < axis[segment]) {
+            segment--;
+        } else if (segment < last && value >= axis[segment + 1]) {
+            segment++;
+        }
+
+        return segment;
+    }
+
+    /**
+     * @return the last segment whose lower breakpoint is at or below the value, in [0, size - 2]
+     */
+    private int searchSegment(double value) {
+        int low = 0;
+        int length = axis.length - 1;
+
+        // Halve the range without an early exit, the comparison only picks the lower bound
+        while (length > 1) {
+            int half = length >>> 1;
+            low = axis[low + half] <= value ? low + half : low;
+            length -= half;
+        }
+
+        // NaN compares false everywhere, send it to the last breakpoint like Index.getInsertIndex
+        return Double.isNaN(value) ? axis.length - 2 : low;
+    }
+}
@@ -0,0 +1,153 @@
+package domain.math;
+
+import java.util.Arrays;
+
+/**
+ * Piecewise linear interpolation over a curve that is prepared once and evaluated any number of times. The curve is
+ * copied on construction, so an interpolator is immutable and can be shared between threads. What happens outside of
+ * the curve is chosen separately for each end.
+ */
+public class Interpolator {
+
+    public enum Policy {
+        /** Outside of the curve evaluates to 0 */
+        ZERO,
+        /** Outside of the curve evaluates to the nearest end point */
+        CLAMP,
+        /** Outside of the curve continues the nearest segment */
+        EXTRAPOLATE
+    }
+
+    private final double[] x;
+    private final double[] y;
+    private final double[] slopes;
+    private final Policy below;
+    private final Policy above;
+
+    /**
+     * @param x sorted in ascending order, repeated values make a step
+     * @throws IllegalArgumentException if the curve is not sorted or has less than two points
+     */
+    public Interpolator(double[] x, double[] y, Policy below, Policy above) throws IllegalArgumentException {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("X and Y must be the same length");
+        }
+        if (x.length < 2) {
+            throw new IllegalArgumentException("X must contain more than one value");
+        }
+
+        this.x = Arrays.copyOf(x, x.length);
+        this.y = Arrays.copyOf(y, y.length);
+        this.slopes = new double[x.length - 1];
+        this.below = below;
+        this.above = above;
+
+        for (int i = 0; i < slopes.length; i++) {
+            double dx = x[i + 1] - x[i];
+            if (dx < 0) {
+                throw new IllegalArgumentException("X must be sorted " + x[i + 1] + " " + x[i]);
+            }
+
+            slopes[i] = dx == 0 ? 0 : (y[i + 1] - y[i]) / dx;
+        }
+    }
+
+    public double evaluate(double xi) {
+        if (xi < x[0] || xi >= x[x.length - 1]) {
+            return outside(xi);
+        }
+
+        return evaluate(segment(xi, 0, x.length - 1), xi);
+    }
+
+    public double[] evaluate(double[] xi) {
+        double[] yi = new double[xi.length];
+        evaluate(xi, yi);
+        return yi;
+    }
+
+    /**
+     * Evaluates every query point. Ascending query points are located by walking from the previous segment.
+     */
+    public void evaluate(double[] xi, double[] yi) {
+        Cursor cursor = cursor();
+        for (int i = 0; i < xi.length; i++) {
+            yi[i] = cursor.evaluate(xi[i]);
+        }
+    }
+
+    /**
+     * @return a cursor that remembers the last segment it evaluated. Cursors are not thread safe.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public class Cursor {
+        private int segment;
+
+        private Cursor() {
+        }
+
+        public double evaluate(double xi) {
+            if (xi < x[0] || xi >= x[x.length - 1]) {
+                return outside(xi);
+            }
+
+            if (xi < x[segment]) {
+                segment = segment(xi, 0, segment);
+            } else {
+                // Monotone queries rarely move more than a segment or two
+                while (xi >= x[segment + 1]) {
+                    segment++;
+                }
+            }
+
+            return Interpolator.this.evaluate(segment, xi);
+        }
+    }
+
+    private double evaluate(int segment, double xi) {
+        return y[segment] + (xi - x[segment]) * slopes[segment];
+    }
+
+    /**
+     * @return the last index in [low, high) with x[index] <= xi
+     */
+    private int segment(double xi, int low, int high) {
+        int index = Arrays.binarySearch(x, low, high, xi);
+
+        if (index < 0) {
+            return -index - 2;
+        }
+
+        // Step to the last of repeated values
+        while (index + 1 < high && x[index + 1] == xi) {
+            index++;
+        }
+
+        return index;
+    }
+
+    private double outside(double xi) {
+        if (xi < x[0]) {
+            return switch (below) {
+                case ZERO -> 0;
+                case CLAMP -> y[0];
+                case EXTRAPOLATE -> evaluate(0, xi);
+            };
+        }
+
+        int last = x.length - 1;
+
+        if (xi == x[last]) {
+            return y[last];
+        }
+
+        return switch (above) {
+            case ZERO -> 0;
+            case CLAMP -> y[last];
+            case EXTRAPOLATE -> evaluate(last - 1, xi);
+        };
+    }
+}
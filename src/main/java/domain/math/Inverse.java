@@ -1,20 +1,28 @@
 package domain.math;
 
+import domain.math.map.FlatMap3d;
 import domain.math.map.Map3d;
 
 public class Inverse {
 
     public static Map3d calculateInverse(Map3d input, Map3d output) {
+        return calculateInverse(FlatMap3d.of(input), FlatMap3d.of(output)).toMap3d();
+    }
+
+    public static FlatMap3d calculateInverse(FlatMap3d input, FlatMap3d output) {
+
+        FlatMap3d inverse = output.copy();
 
-        Map3d inverse = new Map3d(output);
+        double[] y = input.getXAxis();
+        double[] xAxis = output.getXAxis();
+        double[] row = new double[xAxis.length];
 
-        for(int i = 0; i < input.yAxis.length; i++) {
-            for(int j = 0; j < output.xAxis.length; j++) {
-                Double[] x = input.zAxis[i];
-                Double[] y = input.xAxis;
-                Double[] xi = new Double[]{output.xAxis[j]};
+        for(int i = 0; i < input.getYAxis().length; i++) {
+            Interpolator interpolator = new Interpolator(input.row(i).toArray(), y, Interpolator.Policy.ZERO, Interpolator.Policy.CLAMP);
+            interpolator.evaluate(xAxis, row);
 
-                inverse.zAxis[i][j] = LinearInterpolation.interpolate(x, y , xi)[0];
+            for(int j = 0; j < row.length; j++) {
+                inverse.set(i, j, row[j]);
             }
         }
 
@@ -1,56 +1,29 @@
 package domain.math;
 
-import java.util.Arrays;
-
 public class LinearInterpolation {
 
+    /**
+     * Values below the curve are 0 and values above it are clamped to the last point.
+     *
+     * @see Interpolator
+     */
     public static Double[] interpolate(Double[] x, Double[] y, Double[] xi) throws IllegalArgumentException {
+        double[] yi = new Interpolator(unbox(x), unbox(y), Interpolator.Policy.ZERO, Interpolator.Policy.CLAMP).evaluate(unbox(xi));
 
-        if (x.length != y.length) {
-            throw new IllegalArgumentException("X and Y must be the same length");
-        }
-        if (x.length == 1) {
-            throw new IllegalArgumentException("X must contain more than one value");
+        Double[] result = new Double[yi.length];
+        for (int i = 0; i < yi.length; i++) {
+            result[i] = yi[i];
         }
-        double[] dx = new double[x.length - 1];
-        double[] dy = new double[x.length - 1];
-        double[] slope = new double[x.length - 1];
-        double[] intercept = new double[x.length - 1];
-
-        // Calculate the line equation (i.e. slope and intercept) between each point
-        for (int i = 0; i < x.length - 1; i++) {
-            dx[i] = x[i + 1] - x[i];
-            if (dx[i] < 0) {
-                throw new IllegalArgumentException("X must be sorted " + x[i + 1] + " " + x[i]);
-            }
-
-            if (dx[i] == 0) {
-                x[i + 1] += x[i + 1] * 0.01;
-            }
 
-            dy[i] = y[i + 1] - y[i];
-            slope[i] = dy[i] / dx[i];
-            intercept[i] = y[i] - x[i] * slope[i];
-        }
-
-        // Perform the interpolation here
-        Double[] yi = new Double[xi.length];
-        for (int i = 0; i < xi.length; i++) {
-            if ((xi[i] < x[0])) {
-                yi[i] = 0d;
-            } else {
-                int loc = Arrays.binarySearch(x, xi[i]);
+        return result;
+    }
 
-                if (loc < -1) {
-                    loc = -loc - 2;
-                    yi[i] = Math.min(slope[Math.min(loc, slope.length -1)] * xi[i] + intercept[Math.min(loc, intercept.length -1)], y[y.length -1]);
-                }
-                else {
-                    yi[i] = y[loc];
-                }
-            }
+    private static double[] unbox(Double[] values) {
+        double[] unboxed = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            unboxed[i] = values[i];
         }
 
-        return yi;
+        return unboxed;
     }
 }
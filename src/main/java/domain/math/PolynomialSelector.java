@@ -0,0 +1,284 @@
+package domain.math;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Chooses the degree of a least squares polynomial by k-fold cross validation. Every fold factors the Vandermonde matrix
+ * of the highest degree once (Householder QR), the fit of any lower degree is the leading block of the same
+ * factorization, so every candidate degree is scored from one factorization per fold. Folds are evaluated in parallel.
+ * <p>
+ * x is scaled to [-1, 1] before fitting to keep the Vandermonde matrix well conditioned at high degrees.
+ */
+public class PolynomialSelector {
+
+    // Relative size of a diagonal element of R below which a degree is rank deficient
+    private static final double RANK_TOLERANCE = 1e-12;
+
+    public static class Result {
+        /** The chosen degree */
+        public final int degree;
+        /** The cross validated RMS error of each degree from minDegree, NaN if the degree could not be fit */
+        public final double[] errors;
+        /** The chosen polynomial fit to all points, evaluated at x */
+        public final double[] fit;
+        /** True if the fit never decreases over x */
+        public final boolean monotonic;
+
+        private Result(int degree, double[] errors, double[] fit, boolean monotonic) {
+            this.degree = degree;
+            this.errors = errors;
+            this.fit = fit;
+            this.monotonic = monotonic;
+        }
+    }
+
+    /**
+     * @param x sorted in ascending order
+     * @param folds the number of cross validation folds, reduced to the number of points if there are fewer
+     * @param increasing if true, prefer the best degree whose fit never decreases over x
+     * @throws IllegalArgumentException if the points are too few or too close together to fit minDegree
+     */
+    public static Result select(double[] x, double[] y, int minDegree, int maxDegree, int folds, boolean increasing) throws IllegalArgumentException {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("x and y must have equal length!");
+        }
+        if (minDegree < 0 || maxDegree < minDegree) {
+            throw new IllegalArgumentException("Invalid degree range " + minDegree + " " + maxDegree);
+        }
+
+        double low = Arrays.stream(x).min().orElse(0);
+        double high = Arrays.stream(x).max().orElse(0);
+        if (!(high > low)) {
+            throw new IllegalArgumentException("x must span a range");
+        }
+
+        double[] t = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            t[i] = (2 * x[i] - low - high) / (high - low);
+        }
+
+        int degrees = maxDegree - minDegree + 1;
+        int k = Math.min(folds, x.length);
+
+        // Points are dealt to the folds in turn so every fold covers the whole curve
+        double[][] foldErrors = IntStream.range(0, k).parallel()
+                .mapToObj(fold -> foldError(t, y, fold, k, minDegree, maxDegree))
+                .toArray(double[][]::new);
+
+        double[] errors = new double[degrees];
+        for (int d = 0; d < degrees; d++) {
+            double sum = 0;
+            for (double[] foldError : foldErrors) {
+                sum += foldError[d];
+            }
+            errors[d] = Math.sqrt(sum / x.length);
+        }
+
+        LeastSquares all = new LeastSquares(t, y, null, maxDegree);
+
+        int best = -1;
+        double[] bestFit = null;
+        boolean bestMonotonic = false;
+
+        for (int d = 0; d < degrees; d++) {
+            double[] coefficients = all.solve(minDegree + d);
+
+            if (coefficients == null || Double.isNaN(errors[d])) {
+                errors[d] = Double.NaN;
+                continue;
+            }
+
+            double[] fit = evaluate(coefficients, t);
+            boolean monotonic = isMonotonic(fit);
+
+            // A monotonic fit beats any fit that is not, otherwise the lower error wins
+            boolean better = best < 0
+                    || (increasing && monotonic && !bestMonotonic)
+                    || ((!increasing || monotonic == bestMonotonic) && errors[d] < errors[best]);
+
+            if (better) {
+                best = d;
+                bestFit = fit;
+                bestMonotonic = monotonic;
+            }
+        }
+
+        if (best < 0) {
+            throw new IllegalArgumentException("No degree from " + minDegree + " to " + maxDegree + " can be fit to " + x.length + " points");
+        }
+
+        return new Result(minDegree + best, errors, bestFit, bestMonotonic);
+    }
+
+    /**
+     * @return the held out sum of squared errors of each degree, NaN if a degree could not be fit
+     */
+    private static double[] foldError(double[] t, double[] y, int fold, int folds, int minDegree, int maxDegree) {
+        boolean[] training = new boolean[t.length];
+        for (int i = 0; i < t.length; i++) {
+            training[i] = i % folds != fold;
+        }
+
+        LeastSquares leastSquares = new LeastSquares(t, y, training, maxDegree);
+        double[] errors = new double[maxDegree - minDegree + 1];
+
+        for (int d = minDegree; d <= maxDegree; d++) {
+            double[] coefficients = leastSquares.solve(d);
+
+            if (coefficients == null) {
+                errors[d - minDegree] = Double.NaN;
+                continue;
+            }
+
+            double sum = 0;
+            for (int i = 0; i < t.length; i++) {
+                if (!training[i]) {
+                    double error = horner(coefficients, t[i]) - y[i];
+                    sum += error * error;
+                }
+            }
+            errors[d - minDegree] = sum;
+        }
+
+        return errors;
+    }
+
+    private static double[] evaluate(double[] coefficients, double[] t) {
+        double[] values = new double[t.length];
+        for (int i = 0; i < t.length; i++) {
+            values[i] = horner(coefficients, t[i]);
+        }
+
+        return values;
+    }
+
+    private static double horner(double[] coefficients, double t) {
+        double value = 0;
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            value = value * t + coefficients[i];
+        }
+
+        return value;
+    }
+
+    public static boolean isMonotonic(double[] values) {
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] < values[i - 1]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * The QR factorization of a Vandermonde matrix and Q^T y. Column j holds t^j, so the factorization of the first
+     * d + 1 columns is the leading block of the factorization of all of them.
+     */
+    private static class LeastSquares {
+        // Column major, R above the diagonal and the Householder vectors below it
+        private final double[][] columns;
+        private final double[] diagonal;
+        private final double[] qty;
+        private final double maxDiagonal;
+
+        private LeastSquares(double[] t, double[] y, boolean[] rows, int maxDegree) {
+            int m = 0;
+            for (int i = 0; i < t.length; i++) {
+                if (rows == null || rows[i]) {
+                    m++;
+                }
+            }
+
+            int n = Math.min(maxDegree + 1, m);
+            columns = new double[n][m];
+            qty = new double[m];
+            diagonal = new double[n];
+
+            for (int i = 0, row = 0; i < t.length; i++) {
+                if (rows == null || rows[i]) {
+                    double power = 1;
+                    for (int j = 0; j < n; j++) {
+                        columns[j][row] = power;
+                        power *= t[i];
+                    }
+                    qty[row++] = y[i];
+                }
+            }
+
+            double max = 0;
+
+            for (int j = 0; j < n; j++) {
+                double[] v = columns[j];
+
+                double norm = 0;
+                for (int i = j; i < m; i++) {
+                    norm = Math.hypot(norm, v[i]);
+                }
+
+                double alpha = v[j] > 0 ? -norm : norm;
+                diagonal[j] = alpha;
+                max = Math.max(max, Math.abs(alpha));
+
+                if (norm == 0) {
+                    continue;
+                }
+
+                // v = x - alpha * e1, stored in place of the column
+                v[j] -= alpha;
+                double vv = 0;
+                for (int i = j; i < m; i++) {
+                    vv += v[i] * v[i];
+                }
+
+                for (int c = j + 1; c < n; c++) {
+                    reflect(v, columns[c], j, m, vv);
+                }
+                reflect(v, qty, j, m, vv);
+            }
+
+            maxDiagonal = max;
+        }
+
+        private static void reflect(double[] v, double[] target, int from, int m, double vv) {
+            double dot = 0;
+            for (int i = from; i < m; i++) {
+                dot += v[i] * target[i];
+            }
+
+            double scale = 2 * dot / vv;
+            for (int i = from; i < m; i++) {
+                target[i] -= scale * v[i];
+            }
+        }
+
+        /**
+         * @return the coefficients of the least squares polynomial of the degree in t, lowest power first, or null if
+         * there are too few points for the degree
+         */
+        private double[] solve(int degree) {
+            int n = degree + 1;
+            if (n > diagonal.length) {
+                return null;
+            }
+
+            for (int j = 0; j < n; j++) {
+                if (Math.abs(diagonal[j]) <= maxDiagonal * RANK_TOLERANCE) {
+                    return null;
+                }
+            }
+
+            double[] coefficients = new double[n];
+            for (int j = n - 1; j >= 0; j--) {
+                double sum = qty[j];
+                for (int c = j + 1; c < n; c++) {
+                    sum -= columns[c][j] * coefficients[c];
+                }
+                coefficients[j] = sum / diagonal[j];
+            }
+
+            return coefficients;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package domain.math.map;
+
+import java.util.Arrays;
+
+/**
+ * A {@link Map3d} backed by primitive arrays. The z values are a single row-major double[] addressed through row and
+ * column strides, so row and column views and the transpose share the data instead of copying it. Rows follow the y
+ * axis and columns the x axis, like {@link Map3d#zAxis}.
+ * <p>
+ * Missing (null) values of a {@link Map3d} are represented as NaN.
+ */
+public class FlatMap3d {
+
+    private final double[] xAxis;
+    private final double[] yAxis;
+    private final double[] data;
+    private final int offset;
+    private final int rowCount;
+    private final int columnCount;
+    private final int rowStride;
+    private final int columnStride;
+
+    public FlatMap3d(double[] xAxis, double[] yAxis, int rowCount, int columnCount) {
+        this(xAxis, yAxis, new double[rowCount * columnCount], rowCount, columnCount);
+    }
+
+    /**
+     * Wraps the arrays without copying them.
+     *
+     * @param data the z values in row-major order
+     */
+    public FlatMap3d(double[] xAxis, double[] yAxis, double[] data, int rowCount, int columnCount) {
+        this(xAxis, yAxis, data, 0, rowCount, columnCount, columnCount, 1);
+
+        if (data.length < rowCount * columnCount) {
+            throw new IllegalArgumentException("Data is not " + rowCount + "x" + columnCount + "!");
+        }
+    }
+
+    private FlatMap3d(double[] xAxis, double[] yAxis, double[] data, int offset, int rowCount, int columnCount, int rowStride, int columnStride) {
+        this.xAxis = xAxis;
+        this.yAxis = yAxis;
+        this.data = data;
+        this.offset = offset;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.rowStride = rowStride;
+        this.columnStride = columnStride;
+    }
+
+    public static FlatMap3d of(Map3d map3d) {
+        int rowCount = map3d.zAxis.length;
+        int columnCount = rowCount == 0 ? 0 : map3d.zAxis[0].length;
+
+        double[] data = new double[rowCount * columnCount];
+        for (int i = 0; i < rowCount; i++) {
+            for (int j = 0; j < columnCount; j++) {
+                Double value = map3d.zAxis[i][j];
+                data[i * columnCount + j] = value == null ? Double.NaN : value;
+            }
+        }
+
+        return new FlatMap3d(unbox(map3d.xAxis), unbox(map3d.yAxis), data, rowCount, columnCount);
+    }
+
+    public Map3d toMap3d() {
+        Double[][] zAxis = new Double[rowCount][columnCount];
+        for (int i = 0; i < rowCount; i++) {
+            for (int j = 0; j < columnCount; j++) {
+                zAxis[i][j] = get(i, j);
+            }
+        }
+
+        Map3d map3d = new Map3d();
+        map3d.xAxis = box(xAxis);
+        map3d.yAxis = box(yAxis);
+        map3d.zAxis = zAxis;
+
+        return map3d;
+    }
+
+    /**
+     * @return the x axis, shared with this map
+     */
+    public double[] getXAxis() {
+        return xAxis;
+    }
+
+    /**
+     * @return the y axis, shared with this map
+     */
+    public double[] getYAxis() {
+        return yAxis;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public double get(int row, int column) {
+        return data[offset + row * rowStride + column * columnStride];
+    }
+
+    public void set(int row, int column, double value) {
+        data[offset + row * rowStride + column * columnStride] = value;
+    }
+
+    /**
+     * @return a view of the row, writes go through to this map
+     */
+    public Vector row(int row) {
+        return new Vector(data, offset + row * rowStride, columnStride, columnCount);
+    }
+
+    /**
+     * @return a view of the column, writes go through to this map
+     */
+    public Vector column(int column) {
+        return new Vector(data, offset + column * columnStride, rowStride, rowCount);
+    }
+
+    /**
+     * @return a view with the axes swapped, writes go through to this map
+     */
+    public FlatMap3d transpose() {
+        return new FlatMap3d(yAxis, xAxis, data, offset, columnCount, rowCount, columnStride, rowStride);
+    }
+
+    /**
+     * @return a compact row-major copy that shares nothing with this map
+     */
+    public FlatMap3d copy() {
+        double[] copy = new double[rowCount * columnCount];
+        for (int i = 0; i < rowCount; i++) {
+            for (int j = 0; j < columnCount; j++) {
+                copy[i * columnCount + j] = get(i, j);
+            }
+        }
+
+        return new FlatMap3d(Arrays.copyOf(xAxis, xAxis.length), Arrays.copyOf(yAxis, yAxis.length), copy, rowCount, columnCount);
+    }
+
+    public static double[] unbox(Double[] values) {
+        double[] unboxed = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            unboxed[i] = values[i] == null ? Double.NaN : values[i];
+        }
+
+        return unboxed;
+    }
+
+    public static Double[] box(double[] values) {
+        Double[] boxed = new Double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+
+        return boxed;
+    }
+
+    /**
+     * A strided view of a row or column.
+     */
+    public static class Vector {
+        private final double[] data;
+        private final int offset;
+        private final int stride;
+        private final int size;
+
+        private Vector(double[] data, int offset, int stride, int size) {
+            this.data = data;
+            this.offset = offset;
+            this.stride = stride;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public double get(int index) {
+            return data[offset + index * stride];
+        }
+
+        public void set(int index, double value) {
+            data[offset + index * stride] = value;
+        }
+
+        public double[] toArray() {
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = get(i);
+            }
+
+            return values;
+        }
+    }
+}
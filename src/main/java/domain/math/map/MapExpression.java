@@ -0,0 +1,385 @@
+package domain.math.map;
+
+import java.util.Arrays;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A map derived from other maps that is not computed until it is evaluated. Each operation wraps the expression it is
+ * called on instead of computing a new map, so a chain such as {@code of(map).multiply(2).add(other).clamp(0, 100)}
+ * is evaluated cell by cell in one pass into a single output buffer, with no intermediate maps.
+ * <p>
+ * Expressions hold on to the maps they were built from, changes to those maps show up in the next evaluation. The
+ * exception is a stencil ({@link #smooth} or {@link #resample}) built on an expression that already has one: each of its
+ * cells reads several cells of the source, so stacked stencils would recompute the cells below them once per tap and
+ * grow exponentially. Such a source is evaluated into a {@link FlatMap3d} once, when the stencil is built.
+ * <p>
+ * Operations that combine maps require them to have the same number of rows and columns and take their axes from the
+ * expression they are called on.
+ */
+public abstract class MapExpression {
+
+    private final double[] xAxis;
+    private final double[] yAxis;
+    private final int rowCount;
+    private final int columnCount;
+    // True if a cell of this expression, or of any it was built from, reads more than one cell of its source
+    private final boolean stencil;
+
+    protected MapExpression(double[] xAxis, double[] yAxis, int rowCount, int columnCount) {
+        this(xAxis, yAxis, rowCount, columnCount, false);
+    }
+
+    private MapExpression(double[] xAxis, double[] yAxis, int rowCount, int columnCount, boolean stencil) {
+        this.xAxis = xAxis;
+        this.yAxis = yAxis;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.stencil = stencil;
+    }
+
+    /**
+     * @return the value of the cell, computed from the expressions this one was built from
+     */
+    public abstract double get(int row, int column);
+
+    public static MapExpression of(FlatMap3d map) {
+        return new MapExpression(map.getXAxis(), map.getYAxis(), map.getRowCount(), map.getColumnCount()) {
+            @Override
+            public double get(int row, int column) {
+                return map.get(row, column);
+            }
+        };
+    }
+
+    /**
+     * Missing (null) values are NaN.
+     */
+    public static MapExpression of(Map3d map) {
+        return of(FlatMap3d.of(map));
+    }
+
+    public double[] getXAxis() {
+        return xAxis;
+    }
+
+    public double[] getYAxis() {
+        return yAxis;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public MapExpression map(DoubleUnaryOperator operator) {
+        MapExpression source = this;
+        return new MapExpression(xAxis, yAxis, rowCount, columnCount, stencil) {
+            @Override
+            public double get(int row, int column) {
+                return operator.applyAsDouble(source.get(row, column));
+            }
+        };
+    }
+
+    /**
+     * @throws IllegalArgumentException if the maps are not the same size
+     */
+    public MapExpression combine(MapExpression other, DoubleBinaryOperator operator) throws IllegalArgumentException {
+        if (other.rowCount != rowCount || other.columnCount != columnCount) {
+            throw new IllegalArgumentException("Maps must be the same size " + rowCount + "x" + columnCount + " " + other.rowCount + "x" + other.columnCount);
+        }
+
+        MapExpression source = this;
+        return new MapExpression(xAxis, yAxis, rowCount, columnCount, stencil || other.stencil) {
+            @Override
+            public double get(int row, int column) {
+                return operator.applyAsDouble(source.get(row, column), other.get(row, column));
+            }
+        };
+    }
+
+    public MapExpression add(MapExpression other) {
+        return combine(other, Double::sum);
+    }
+
+    public MapExpression add(double value) {
+        return map(v -> v + value);
+    }
+
+    public MapExpression subtract(MapExpression other) {
+        return combine(other, (a, b) -> a - b);
+    }
+
+    public MapExpression subtract(double value) {
+        return map(v -> v - value);
+    }
+
+    public MapExpression multiply(MapExpression other) {
+        return combine(other, (a, b) -> a * b);
+    }
+
+    public MapExpression multiply(double value) {
+        return map(v -> v * value);
+    }
+
+    public MapExpression divide(MapExpression other) {
+        return combine(other, (a, b) -> a / b);
+    }
+
+    public MapExpression divide(double value) {
+        return map(v -> v / value);
+    }
+
+    /**
+     * @return the relative difference of this map to the other, this / other - 1
+     */
+    public MapExpression ratio(MapExpression other) {
+        return combine(other, (a, b) -> a / b - 1);
+    }
+
+    /**
+     * @return the cell multiplied by the scale of its column
+     */
+    public MapExpression scaleColumns(double[] scales) {
+        if (scales.length != columnCount) {
+            throw new IllegalArgumentException("Expected " + columnCount + " column scales but got " + scales.length);
+        }
+
+        return scale(scales, false);
+    }
+
+    /**
+     * @return the cell multiplied by the scale of its row
+     */
+    public MapExpression scaleRows(double[] scales) {
+        if (scales.length != rowCount) {
+            throw new IllegalArgumentException("Expected " + rowCount + " row scales but got " + scales.length);
+        }
+
+        return scale(scales, true);
+    }
+
+    private MapExpression scale(double[] scales, boolean rows) {
+        MapExpression source = this;
+        return new MapExpression(xAxis, yAxis, rowCount, columnCount, stencil) {
+            @Override
+            public double get(int row, int column) {
+                return source.get(row, column) * scales[rows ? row : column];
+            }
+        };
+    }
+
+    /**
+     * NaN stays NaN.
+     */
+    public MapExpression clamp(double min, double max) {
+        return map(v -> v < min ? min : v > max ? max : v);
+    }
+
+    /**
+     * @return the same values over different axes
+     */
+    public MapExpression withAxes(double[] xAxis, double[] yAxis) {
+        MapExpression source = this;
+        return new MapExpression(xAxis, yAxis, rowCount, columnCount, stencil) {
+            @Override
+            public double get(int row, int column) {
+                return source.get(row, column);
+            }
+        };
+    }
+
+    /**
+     * Convolves the map with a kernel centered on each cell. At the edges the kernel is cut off and the weights that
+     * remain are normalized, so smoothing does not pull the edges towards 0. NaN cells are skipped the same way.
+     *
+     * @param kernel weights with an odd number of rows and columns
+     */
+    public MapExpression smooth(double[][] kernel) {
+        int kernelRows = kernel.length;
+        int kernelColumns = kernelRows == 0 ? 0 : kernel[0].length;
+
+        if (kernelRows % 2 == 0 || kernelColumns % 2 == 0) {
+            throw new IllegalArgumentException("Kernel must have an odd size " + kernelRows + "x" + kernelColumns);
+        }
+
+        int rowRadius = kernelRows / 2;
+        int columnRadius = kernelColumns / 2;
+
+        MapExpression source = stencilSource();
+        return new MapExpression(xAxis, yAxis, rowCount, columnCount, true) {
+            @Override
+            public double get(int row, int column) {
+                double sum = 0;
+                double weights = 0;
+
+                for (int i = Math.max(0, row - rowRadius); i <= Math.min(rowCount - 1, row + rowRadius); i++) {
+                    for (int j = Math.max(0, column - columnRadius); j <= Math.min(columnCount - 1, column + columnRadius); j++) {
+                        double value = source.get(i, j);
+
+                        if (!Double.isNaN(value)) {
+                            double weight = kernel[i - row + rowRadius][j - column + columnRadius];
+                            sum += weight * value;
+                            weights += weight;
+                        }
+                    }
+                }
+
+                return weights == 0 ? Double.NaN : sum / weights;
+            }
+        };
+    }
+
+    /**
+     * Smooths with the mean of the cells within the radius.
+     */
+    public MapExpression smooth(int radius) {
+        double[][] kernel = new double[radius * 2 + 1][radius * 2 + 1];
+        for (double[] row : kernel) {
+            Arrays.fill(row, 1);
+        }
+
+        return smooth(kernel);
+    }
+
+    /**
+     * Interpolates the map onto new axes the way {@link MapLookup} does, bilinear and clamped at the edges. The
+     * positions of the new breakpoints on the old axes are found once, not per cell.
+     *
+     * @throws IllegalArgumentException if an axis of this map is not ascending
+     */
+    public MapExpression resample(double[] xAxis, double[] yAxis) throws IllegalArgumentException {
+        Position columns = Position.of(this.xAxis, columnCount, xAxis);
+        Position rows = Position.of(this.yAxis, rowCount, yAxis);
+
+        MapExpression source = stencilSource();
+        return new MapExpression(xAxis, yAxis, yAxis.length, xAxis.length, true) {
+            @Override
+            public double get(int row, int column) {
+                int i0 = rows.index[row];
+                int j0 = columns.index[column];
+                int i1 = Math.min(i0 + 1, source.rowCount - 1);
+                int j1 = Math.min(j0 + 1, source.columnCount - 1);
+                double tx = columns.fraction[column];
+                double ty = rows.fraction[row];
+
+                double z00 = source.get(i0, j0);
+                double z01 = tx == 0 ? z00 : source.get(i0, j1);
+                double z10 = ty == 0 ? z00 : source.get(i1, j0);
+                double z11 = tx == 0 ? z10 : ty == 0 ? z01 : source.get(i1, j1);
+
+                double z0 = z00 + (z01 - z00) * tx;
+                double z1 = z10 + (z11 - z10) * tx;
+
+                return ty == 0 ? z0 : z0 + (z1 - z0) * ty;
+            }
+        };
+    }
+
+    /**
+     * @return this expression, or its cells evaluated once if it already has a stencil
+     */
+    private MapExpression stencilSource() {
+        return stencil ? of(evaluate()) : this;
+    }
+
+    /**
+     * @return the largest value, ignoring NaN, or NaN if every value is NaN
+     */
+    public double max() {
+        double max = Double.NaN;
+        for (int i = 0; i < rowCount; i++) {
+            for (int j = 0; j < columnCount; j++) {
+                double value = get(i, j);
+                if (!(value <= max)) {
+                    max = Double.isNaN(value) ? max : value;
+                }
+            }
+        }
+
+        return max;
+    }
+
+    /**
+     * @return the smallest value, ignoring NaN, or NaN if every value is NaN
+     */
+    public double min() {
+        return -map(v -> -v).max();
+    }
+
+    /**
+     * Computes every cell in one pass.
+     */
+    public FlatMap3d evaluate() {
+        FlatMap3d result = new FlatMap3d(xAxis.clone(), yAxis.clone(), rowCount, columnCount);
+        evaluate(result);
+        return result;
+    }
+
+    /**
+     * Computes every cell into an existing map of the same size, which may be a map this expression reads from only if
+     * no cell depends on another cell (smoothing and resampling do).
+     */
+    public void evaluate(FlatMap3d into) {
+        if (into.getRowCount() != rowCount || into.getColumnCount() != columnCount) {
+            throw new IllegalArgumentException("Map must be " + rowCount + "x" + columnCount);
+        }
+
+        for (int i = 0; i < rowCount; i++) {
+            for (int j = 0; j < columnCount; j++) {
+                into.set(i, j, get(i, j));
+            }
+        }
+    }
+
+    public Map3d toMap3d() {
+        return evaluate().toMap3d();
+    }
+
+    /**
+     * The segment of an old axis and the fraction of the way through it of every breakpoint of a new axis.
+     */
+    private static class Position {
+        private final int[] index;
+        private final double[] fraction;
+
+        private Position(int[] index, double[] fraction) {
+            this.index = index;
+            this.fraction = fraction;
+        }
+
+        private static Position of(double[] axis, int size, double[] values) {
+            int[] index = new int[values.length];
+            double[] fraction = new double[values.length];
+
+            // A single row or column map may have no axis for it
+            if (size <= 1) {
+                return new Position(index, fraction);
+            }
+
+            for (int i = 1; i < size; i++) {
+                if (axis[i] < axis[i - 1]) {
+                    throw new IllegalArgumentException("Axis must be ascending " + axis[i] + " " + axis[i - 1]);
+                }
+            }
+
+            for (int i = 0; i < values.length; i++) {
+                double value = values[i];
+                int segment = 0;
+                while (segment < size - 2 && value >= axis[segment + 1]) {
+                    segment++;
+                }
+
+                double width = axis[segment + 1] - axis[segment];
+                index[i] = segment;
+                fraction[i] = width <= 0 || value <= axis[segment] ? 0 : value >= axis[segment + 1] ? 1 : (value - axis[segment]) / width;
+            }
+
+            return new Position(index, fraction);
+        }
+    }
+}
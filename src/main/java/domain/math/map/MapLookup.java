@@ -0,0 +1,192 @@
+package domain.math.map;
+
+import java.util.Arrays;
+
+/**
+ * Evaluates a map at any (x, y) the way ME7 does: bilinear interpolation between the four surrounding cells, with
+ * inputs outside of an axis clamped to its first or last breakpoint. The map is copied on construction so a lookup can
+ * be shared between threads.
+ * <p>
+ * {@link #cursor()} keeps the axis position of the previous lookup and steps from it, which makes slowly changing
+ * inputs such as a replayed log close to O(1) per sample.
+ */
+public class MapLookup {
+
+    private final double[] xAxis;
+    private final double[] yAxis;
+    private final double[] data;
+    private final int columnCount;
+
+    private MapLookup(double[] xAxis, double[] yAxis, double[] data, int columnCount) {
+        this.xAxis = xAxis;
+        this.yAxis = yAxis;
+        this.data = data;
+        this.columnCount = columnCount;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the axes do not match the size of the map or are not ascending
+     */
+    public static MapLookup of(FlatMap3d map) {
+        FlatMap3d copy = map.copy();
+
+        int rowCount = copy.getRowCount();
+        int columnCount = copy.getColumnCount();
+
+        double[] xAxis = axis(copy.getXAxis(), columnCount);
+        double[] yAxis = axis(copy.getYAxis(), rowCount);
+
+        double[] data = new double[rowCount * columnCount];
+        for (int i = 0; i < rowCount; i++) {
+            for (int j = 0; j < columnCount; j++) {
+                data[i * columnCount + j] = copy.get(i, j);
+            }
+        }
+
+        return new MapLookup(xAxis, yAxis, data, columnCount);
+    }
+
+    public static MapLookup of(Map3d map) {
+        return of(FlatMap3d.of(map));
+    }
+
+    /**
+     * A single row or column table has no axis for that dimension, it is treated as a single breakpoint.
+     */
+    private static double[] axis(double[] axis, int size) {
+        if (size == 0) {
+            throw new IllegalArgumentException("Map has no data!");
+        }
+
+        if (axis.length == 0 && size == 1) {
+            return new double[]{0};
+        }
+
+        if (axis.length != size) {
+            throw new IllegalArgumentException("Axis has " + axis.length + " breakpoints but the map has " + size + "!");
+        }
+
+        for (int i = 1; i < axis.length; i++) {
+            if (axis[i] < axis[i - 1]) {
+                throw new IllegalArgumentException("Axis must be ascending " + axis[i] + " " + axis[i - 1]);
+            }
+        }
+
+        return Arrays.copyOf(axis, axis.length);
+    }
+
+    public double lookup(double x, double y) {
+        int column = segment(xAxis, x, 0);
+        int row = segment(yAxis, y, 0);
+
+        return interpolate(row, column, x, y);
+    }
+
+    /**
+     * Evaluates every (x[i], y[i]) into result[i].
+     */
+    public void lookup(double[] x, double[] y, double[] result) {
+        Cursor cursor = cursor();
+        for (int i = 0; i < result.length; i++) {
+            result[i] = cursor.lookup(x[i], y[i]);
+        }
+    }
+
+    /**
+     * @return a cursor that remembers the axis position of its last lookup. Cursors are not thread safe.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public class Cursor {
+        private int column;
+        private int row;
+
+        private Cursor() {
+        }
+
+        public double lookup(double x, double y) {
+            column = segment(xAxis, x, column);
+            row = segment(yAxis, y, row);
+
+            return interpolate(row, column, x, y);
+        }
+    }
+
+    private double interpolate(int row, int column, double x, double y) {
+        double tx = fraction(xAxis, column, x);
+        double ty = fraction(yAxis, row, y);
+
+        int nextColumn = Math.min(column + 1, xAxis.length - 1);
+        int nextRow = Math.min(row + 1, yAxis.length - 1);
+
+        double z00 = data[row * columnCount + column];
+        double z01 = data[row * columnCount + nextColumn];
+        double z10 = data[nextRow * columnCount + column];
+        double z11 = data[nextRow * columnCount + nextColumn];
+
+        double z0 = z00 + (z01 - z00) * tx;
+        double z1 = z10 + (z11 - z10) * tx;
+
+        return z0 + (z1 - z0) * ty;
+    }
+
+    /**
+     * @return the fraction of the way from breakpoint index to index + 1, clamped to [0, 1]
+     */
+    private static double fraction(double[] axis, int index, double value) {
+        if (index + 1 >= axis.length) {
+            return 0;
+        }
+
+        double width = axis[index + 1] - axis[index];
+
+        if (width <= 0 || value <= axis[index]) {
+            return 0;
+        }
+
+        return value >= axis[index + 1] ? 1 : (value - axis[index]) / width;
+    }
+
+    /**
+     * @return the last breakpoint index at or below the value, or 0 below the axis and the second to last index above
+     * it, starting from the hint
+     */
+    private static int segment(double[] axis, double value, int hint) {
+        int last = Math.max(axis.length - 2, 0);
+
+        if (value <= axis[0]) {
+            return 0;
+        }
+
+        if (value >= axis[last]) {
+            return last;
+        }
+
+        // Step from the hint while the value is near it, otherwise search
+        int index = hint;
+        for (int steps = 0; steps < 4; steps++) {
+            if (value < axis[index]) {
+                index--;
+            } else if (value >= axis[index + 1]) {
+                index++;
+            } else {
+                return index;
+            }
+        }
+
+        index = Arrays.binarySearch(axis, 0, last + 1, value);
+
+        if (index < 0) {
+            return -index - 2;
+        }
+
+        // Step to the last of repeated breakpoints
+        while (index < last && axis[index + 1] == value) {
+            index++;
+        }
+
+        return index;
+    }
+}
@@ -0,0 +1,108 @@
+package domain.math.stat;
+
+/**
+ * The statistics of the values falling into one bin, such as the corrections at one MLHFM voltage, in constant memory:
+ * running mean and variance, a histogram for the mode and P² estimators for the median and any other quantiles.
+ * Statistics of the same layout can be merged.
+ */
+public class BinStatistics {
+
+    private final RunningStatistics statistics = new RunningStatistics();
+    private final Histogram histogram;
+    private final P2Quantile median = new P2Quantile(0.5);
+    private final P2Quantile[] quantiles;
+
+    /**
+     * @param min the lower end of the histogram range
+     * @param max the upper end of the histogram range
+     * @param resolution the width of a histogram bin
+     * @param probabilities any quantiles to estimate in addition to the median
+     */
+    public BinStatistics(double min, double max, double resolution, double... probabilities) {
+        this.histogram = new Histogram(min, max, resolution);
+        this.quantiles = new P2Quantile[probabilities.length];
+
+        for (int i = 0; i < probabilities.length; i++) {
+            quantiles[i] = new P2Quantile(probabilities[i]);
+        }
+    }
+
+    public void add(double value) {
+        statistics.add(value);
+        histogram.add(value);
+        median.add(value);
+
+        for (P2Quantile quantile : quantiles) {
+            quantile.add(value);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the statistics do not have the same histogram bins and quantiles
+     */
+    public void merge(BinStatistics other) throws IllegalArgumentException {
+        if (other.quantiles.length != quantiles.length) {
+            throw new IllegalArgumentException("Statistics must have the same quantiles to be merged");
+        }
+
+        histogram.merge(other.histogram);
+        statistics.merge(other.statistics);
+        median.merge(other.median);
+
+        for (int i = 0; i < quantiles.length; i++) {
+            quantiles[i].merge(other.quantiles[i]);
+        }
+    }
+
+    public long getCount() {
+        return statistics.getCount();
+    }
+
+    public double getMean() {
+        return statistics.getMean();
+    }
+
+    public double getVariance() {
+        return statistics.getVariance();
+    }
+
+    public double getStandardDeviation() {
+        return statistics.getStandardDeviation();
+    }
+
+    public double getMin() {
+        return statistics.getMin();
+    }
+
+    public double getMax() {
+        return statistics.getMax();
+    }
+
+    /**
+     * @see Histogram#getMode()
+     */
+    public double[] getMode() {
+        return histogram.getMode();
+    }
+
+    public double getMedian() {
+        return median.getQuantile();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the quantile was not requested on construction
+     */
+    public double getQuantile(double probability) throws IllegalArgumentException {
+        if (probability == 0.5) {
+            return getMedian();
+        }
+
+        for (P2Quantile quantile : quantiles) {
+            if (quantile.getProbability() == probability) {
+                return quantile.getQuantile();
+            }
+        }
+
+        throw new IllegalArgumentException("Quantile " + probability + " is not estimated");
+    }
+}
@@ -0,0 +1,105 @@
+package domain.math.stat;
+
+import java.util.Arrays;
+
+/**
+ * Counts values into fixed width bins over a fixed range, so the mode of a stream can be found in constant memory. The
+ * mode is only as precise as the bin width, unlike an exact mode over doubles it does not depend on values repeating
+ * exactly. Values outside of the range are counted but have no bin.
+ */
+public class Histogram {
+
+    private final double min;
+    private final double width;
+    private final long[] counts;
+    private long below;
+    private long above;
+
+    /**
+     * @param width the width of a bin, the resolution of the mode
+     * @throws IllegalArgumentException if the range or the width is empty
+     */
+    public Histogram(double min, double max, double width) throws IllegalArgumentException {
+        if (!(max > min) || !(width > 0)) {
+            throw new IllegalArgumentException("Histogram range and width must be positive " + min + " " + max + " " + width);
+        }
+
+        this.min = min;
+        this.width = width;
+        this.counts = new long[(int) Math.ceil((max - min) / width)];
+    }
+
+    /**
+     * NaN is ignored.
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+
+        double bin = Math.floor((value - min) / width);
+
+        if (bin < 0) {
+            below++;
+        } else if (bin >= counts.length) {
+            above++;
+        } else {
+            counts[(int) bin]++;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the histograms do not have the same bins
+     */
+    public void merge(Histogram other) throws IllegalArgumentException {
+        if (other.min != min || other.width != width || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Histograms must have the same bins to be merged");
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+
+        below += other.below;
+        above += other.above;
+    }
+
+    /**
+     * @return the centers of the most populated bins, more than one if they are tied, or an empty array if no value was
+     * in range
+     */
+    public double[] getMode() {
+        long maxCount = 0;
+        int modes = 0;
+
+        for (long count : counts) {
+            if (count > maxCount) {
+                maxCount = count;
+                modes = 1;
+            } else if (count == maxCount && count > 0) {
+                modes++;
+            }
+        }
+
+        double[] mode = new double[modes];
+        for (int i = 0, j = 0; i < counts.length && j < modes; i++) {
+            if (counts[i] == maxCount) {
+                mode[j++] = min + (i + 0.5) * width;
+            }
+        }
+
+        return mode;
+    }
+
+    public long getCount() {
+        return Arrays.stream(counts).sum() + below + above;
+    }
+
+    public long getCountBelow() {
+        return below;
+    }
+
+    public long getCountAbove() {
+        return above;
+    }
+}
@@ -0,0 +1,246 @@
+package domain.math.stat;
+
+import java.util.Arrays;
+
+/**
+ * Estimates a quantile of a stream in constant memory with the P² algorithm (Jain and Chlamtac). Five markers track the
+ * minimum, the quantile, the maximum and two points half way between, and are moved along a parabola through their
+ * neighbours as values arrive. The first five values are kept and the quantile is exact until then.
+ * <p>
+ * Merging is approximate: the markers of both estimators describe piecewise linear distributions, which are added and
+ * sampled at the new marker positions.
+ */
+public class P2Quantile {
+
+    private static final int MARKERS = 5;
+
+    private final double probability;
+    // Marker heights
+    private final double[] q = new double[MARKERS];
+    // Marker positions as 0 based ranks
+    private final double[] n = new double[MARKERS];
+    // Desired marker positions and their increment per value
+    private final double[] desired = new double[MARKERS];
+    private final double[] increment;
+    private long count;
+
+    /**
+     * @param probability the quantile to estimate, 0.5 for the median
+     * @throws IllegalArgumentException if the probability is not in [0, 1]
+     */
+    public P2Quantile(double probability) throws IllegalArgumentException {
+        if (!(probability >= 0 && probability <= 1)) {
+            throw new IllegalArgumentException("Probability must be in [0, 1] " + probability);
+        }
+
+        this.probability = probability;
+        this.increment = new double[]{0, probability / 2, probability, (1 + probability) / 2, 1};
+    }
+
+    public double getProbability() {
+        return probability;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * NaN is ignored.
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+
+        if (count < MARKERS) {
+            q[(int) count++] = value;
+
+            if (count == MARKERS) {
+                Arrays.sort(q);
+                for (int i = 0; i < MARKERS; i++) {
+                    n[i] = i;
+                    desired[i] = increment[i] * (MARKERS - 1);
+                }
+            }
+            return;
+        }
+
+        count++;
+
+        int k;
+        if (value < q[0]) {
+            q[0] = value;
+            k = 0;
+        } else if (value >= q[4]) {
+            q[4] = value;
+            k = 3;
+        } else {
+            k = 0;
+            while (value >= q[k + 1]) {
+                k++;
+            }
+        }
+
+        for (int i = k + 1; i < MARKERS; i++) {
+            n[i]++;
+        }
+        for (int i = 0; i < MARKERS; i++) {
+            desired[i] += increment[i];
+        }
+
+        adjust();
+    }
+
+    /**
+     * @return the estimated quantile or NaN if there are no values
+     */
+    public double getQuantile() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+
+        if (count < MARKERS) {
+            double[] sorted = Arrays.copyOf(q, (int) count);
+            Arrays.sort(sorted);
+
+            double position = probability * (count - 1);
+            int index = (int) position;
+
+            return index + 1 < count ? sorted[index] + (position - index) * (sorted[index + 1] - sorted[index]) : sorted[index];
+        }
+
+        return q[2];
+    }
+
+    /**
+     * @throws IllegalArgumentException if the estimators are for different quantiles
+     */
+    public void merge(P2Quantile other) throws IllegalArgumentException {
+        if (other.probability != probability) {
+            throw new IllegalArgumentException("Quantiles must be the same to be merged " + probability + " " + other.probability);
+        }
+
+        if (other.count < MARKERS) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.q[i]);
+            }
+            return;
+        }
+
+        if (count < MARKERS) {
+            double[] buffered = Arrays.copyOf(q, (int) count);
+
+            System.arraycopy(other.q, 0, q, 0, MARKERS);
+            System.arraycopy(other.n, 0, n, 0, MARKERS);
+            System.arraycopy(other.desired, 0, desired, 0, MARKERS);
+            count = other.count;
+
+            for (double value : buffered) {
+                add(value);
+            }
+            return;
+        }
+
+        long total = count + other.count;
+        double[] merged = new double[MARKERS];
+
+        merged[0] = Math.min(q[0], other.q[0]);
+        merged[4] = Math.max(q[4], other.q[4]);
+        for (int i = 1; i < MARKERS - 1; i++) {
+            merged[i] = inverseRank(other, increment[i] * (total - 1) + 1);
+        }
+
+        for (int i = 0; i < MARKERS; i++) {
+            q[i] = merged[i];
+            desired[i] = increment[i] * (total - 1);
+            n[i] = Math.round(desired[i]);
+        }
+
+        // Markers must stay at distinct ranks for the parabola
+        for (int i = 1; i < MARKERS; i++) {
+            n[i] = Math.max(n[i], n[i - 1] + 1);
+        }
+        for (int i = MARKERS - 2; i >= 0; i--) {
+            n[i] = Math.min(n[i], n[i + 1] - 1);
+        }
+
+        count = total;
+    }
+
+    private void adjust() {
+        for (int i = 1; i < MARKERS - 1; i++) {
+            double d = desired[i] - n[i];
+
+            if ((d >= 1 && n[i + 1] - n[i] > 1) || (d <= -1 && n[i - 1] - n[i] < -1)) {
+                int sign = d > 0 ? 1 : -1;
+
+                double parabolic = parabolic(i, sign);
+                q[i] = q[i - 1] < parabolic && parabolic < q[i + 1] ? parabolic : linear(i, sign);
+                n[i] += sign;
+            }
+        }
+    }
+
+    private double parabolic(int i, int d) {
+        return q[i] + d / (n[i + 1] - n[i - 1]) * ((n[i] - n[i - 1] + d) * (q[i + 1] - q[i]) / (n[i + 1] - n[i])
+                + (n[i + 1] - n[i] - d) * (q[i] - q[i - 1]) / (n[i] - n[i - 1]));
+    }
+
+    private double linear(int i, int d) {
+        return q[i] + d * (q[i + d] - q[i]) / (n[i + d] - n[i]);
+    }
+
+    /**
+     * @return the value below which both estimators together hold the given number of values
+     */
+    private double inverseRank(P2Quantile other, double rank) {
+        double[] breakpoints = new double[MARKERS * 2];
+        System.arraycopy(q, 0, breakpoints, 0, MARKERS);
+        System.arraycopy(other.q, 0, breakpoints, MARKERS, MARKERS);
+        Arrays.sort(breakpoints);
+
+        double previous = breakpoints[0];
+        double previousRank = rank(breakpoints[0]) + other.rank(breakpoints[0]);
+
+        for (int i = 1; i < breakpoints.length; i++) {
+            double current = breakpoints[i];
+            double currentRank = rank(current) + other.rank(current);
+
+            if (currentRank >= rank) {
+                if (currentRank == previousRank) {
+                    return current;
+                }
+
+                return previous + (rank - previousRank) / (currentRank - previousRank) * (current - previous);
+            }
+
+            previous = current;
+            previousRank = currentRank;
+        }
+
+        return breakpoints[breakpoints.length - 1];
+    }
+
+    /**
+     * @return the estimated number of values at or below the value, linear between the markers
+     */
+    private double rank(double value) {
+        if (value < q[0]) {
+            return 0;
+        }
+        if (value >= q[MARKERS - 1]) {
+            return count;
+        }
+
+        int i = 0;
+        while (value >= q[i + 1]) {
+            i++;
+        }
+
+        double width = q[i + 1] - q[i];
+        double fraction = width == 0 ? 0 : (value - q[i]) / width;
+
+        return n[i] + 1 + fraction * (n[i + 1] - n[i]);
+    }
+}
@@ -0,0 +1,83 @@
+package domain.math.stat;
+
+/**
+ * Count, mean, variance, minimum and maximum of a stream of values in constant memory (Welford's algorithm). Two
+ * accumulators can be merged, so a data set can be split, accumulated separately and combined.
+ * <p>
+ * A NaN value makes the mean and variance NaN, like {@link org.apache.commons.math3.stat.descriptive.moment.Mean}.
+ */
+public class RunningStatistics {
+
+    private long count;
+    private double mean;
+    // Sum of squared differences from the mean
+    private double m2;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public void add(double value) {
+        count++;
+
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+
+        min = count == 1 ? value : Math.min(min, value);
+        max = count == 1 ? value : Math.max(max, value);
+    }
+
+    public void merge(RunningStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            return;
+        }
+
+        long total = count + other.count;
+        double delta = other.mean - mean;
+
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the mean or NaN if there are no values
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return the sample variance or NaN if there are less than two values
+     */
+    public double getVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+}
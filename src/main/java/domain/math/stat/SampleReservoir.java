@@ -0,0 +1,59 @@
+package domain.math.stat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A uniform random sample of at most a fixed number of the values of a stream (reservoir sampling), so the values of a
+ * bin can be charted in constant memory however many there are. Every value has the same chance of being in the sample.
+ * The random numbers are seeded, so the same values give the same sample on every run.
+ */
+public class SampleReservoir {
+
+    private static final long SEED = 0x5EED;
+
+    private final double[] samples;
+    private final Random random = new Random(SEED);
+    private long count;
+
+    public SampleReservoir(int capacity) {
+        this.samples = new double[capacity];
+    }
+
+    public void add(double value) {
+        if (count < samples.length) {
+            samples[(int) count] = value;
+        } else {
+            // The value replaces a sample with probability capacity / (count + 1)
+            long index = random.nextLong(count + 1);
+
+            if (index < samples.length) {
+                samples[(int) index] = value;
+            }
+        }
+
+        count++;
+    }
+
+    /**
+     * @return the number of values added, not the number kept
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the values kept, all of them if no more than the capacity were added
+     */
+    public List<Double> getSamples() {
+        int size = (int) Math.min(count, samples.length);
+        List<Double> values = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            values.add(samples[i]);
+        }
+
+        return values;
+    }
+}
@@ -5,10 +5,10 @@ import data.contract.Me7LogFileContract;
 import domain.model.openloopfueling.util.AfrLogUtil;
 import domain.model.openloopfueling.util.Me7LogUtil;
 import domain.math.Index;
+import domain.model.log.LogFrame;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 public class AirflowEstimationManager {
 
@@ -46,30 +46,30 @@ public class AirflowEstimationManager {
         return airflowEstimation;
     }
 
-    public void estimate(Map<Me7LogFileContract.Header, List<Double>> me7LogMap, Map<String, List<Double>> afrLogMap) {
-        List<Map<Me7LogFileContract.Header, List<Double>>> me7LogList = Me7LogUtil.findMe7Logs(me7LogMap, minThrottleAngle, LAMBDA_CONTROL_ENABLED, minRpm, minPointsMe7);
-        List<Map<String, List<Double>>> afrLogList = AfrLogUtil.findAfrLogs(afrLogMap, minThrottleAngle, minRpm, maxAfr, minPointsAfr);
+    public void estimate(LogFrame<Me7LogFileContract.Header> me7LogMap, LogFrame<String> afrLogMap) {
+        List<LogFrame<Me7LogFileContract.Header>> me7LogList = Me7LogUtil.findMe7Logs(me7LogMap, minThrottleAngle, LAMBDA_CONTROL_ENABLED, minRpm, minPointsMe7);
+        List<LogFrame<String>> afrLogList = AfrLogUtil.findAfrLogs(afrLogMap, minThrottleAngle, minRpm, maxAfr, minPointsAfr);
 
         List<List<Double>> dutyCycleLogs = new ArrayList<>();
 
-        for(Map<Me7LogFileContract.Header, List<Double>> me7log:me7LogList) {
-            List<Double> rpm = me7log.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
-            List<Double> fuelInjectorOnTime = me7log.get(Me7LogFileContract.Header.FUEL_INJECTOR_ON_TIME_HEADER);
-            List<Double> gramsPerSecond = me7log.get(Me7LogFileContract.Header.MAF_GRAMS_PER_SECOND_HEADER);
+        for(LogFrame<Me7LogFileContract.Header> me7log:me7LogList) {
+            LogFrame.Column rpm = me7log.column(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
+            LogFrame.Column fuelInjectorOnTime = me7log.column(Me7LogFileContract.Header.FUEL_INJECTOR_ON_TIME_HEADER);
+            LogFrame.Column gramsPerSecond = me7log.column(Me7LogFileContract.Header.MAF_GRAMS_PER_SECOND_HEADER);
 
             dutyCycleLogs.add(getInjectorDutyCycle(rpm, fuelInjectorOnTime));
 
-            measuredAirflowGramsPerSecondLogs.add(gramsPerSecond);
-            measuredRpmLogs.add(rpm);
+            measuredAirflowGramsPerSecondLogs.add(gramsPerSecond.asList());
+            measuredRpmLogs.add(rpm.asList());
         }
 
         for(int i = 0; i < dutyCycleLogs.size(); i++) {
             estimatedAirflowGramsPerSecondLogs.add(new ArrayList<>());
 
             List<Double> dutyCycleLog = dutyCycleLogs.get(i);
-            List<Double> me7RpmLog = me7LogList.get(i).get(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
-            List<Double> afrRpmLog = afrLogList.get(i).get(AfrLogFileContract.RPM_HEADER);
-            List<Double> afrLog = afrLogList.get(i).get(AfrLogFileContract.AFR_HEADER);
+            LogFrame.Column me7RpmLog = me7LogList.get(i).column(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
+            List<Double> afrRpmLog = afrLogList.get(i).column(AfrLogFileContract.RPM_HEADER).asList();
+            LogFrame.Column afrLog = afrLogList.get(i).column(AfrLogFileContract.AFR_HEADER);
             for(int j = 0; j < dutyCycleLogs.get(i).size(); j++) {
                 double totalFuelGramsPerSecond = ((dutyCycleLog.get(j) * totalFuelFlowGramsPerMinute))/60;
                 int afrIndex = Index.getInsertIndex(afrRpmLog, me7RpmLog.get(j));
@@ -82,7 +82,7 @@ public class AirflowEstimationManager {
         airflowEstimation = new AirflowEstimation(estimatedAirflowGramsPerSecondLogs, measuredAirflowGramsPerSecondLogs, measuredRpmLogs);
     }
 
-    private List<Double> getInjectorDutyCycle(List<Double> rpm, List<Double> fuelInjectorOnTime) {
+    private List<Double> getInjectorDutyCycle(LogFrame.Column rpm, LogFrame.Column fuelInjectorOnTime) {
         List<Double> dutyCycle = new ArrayList<>();
 
         for(int i = 0; i < rpm.size(); i++) {
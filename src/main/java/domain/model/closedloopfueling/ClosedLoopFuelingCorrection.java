@@ -9,16 +9,20 @@ public class ClosedLoopFuelingCorrection {
     public final Map3d inputMlhfm;
     public final Map3d correctedMlhfm;
     public final Map3d fitMlhfm;
+    // A sample of the dt and corrections logged at each voltage for the charts, not all of them. The dt of every
+    // logged voltage, and of the voltages the correction is made from.
+    public final Map<Double, List<Double>> voltageDt;
     public final Map<Double, List<Double>> filteredVoltageDt;
     public final Map<Double, List<Double>> correctionsAfrMap;
     public final Map<Double, Double> meanAfrMap;
     public final Map<Double, double[]> modeAfrMap;
     public final Map<Double, Double> correctedAfrMap;
 
-    public ClosedLoopFuelingCorrection(Map3d inputMlhfm, Map3d correctedMlhfm, Map3d fitMlhfm, Map<Double, List<Double>> filteredVoltageDt, Map<Double, List<Double>> correctionsAfrMap, Map<Double, Double> meanAfrMap, Map<Double, double[]> modeAfrMap, Map<Double, Double> correctedAfrMap) {
+    public ClosedLoopFuelingCorrection(Map3d inputMlhfm, Map3d correctedMlhfm, Map3d fitMlhfm, Map<Double, List<Double>> voltageDt, Map<Double, List<Double>> filteredVoltageDt, Map<Double, List<Double>> correctionsAfrMap, Map<Double, Double> meanAfrMap, Map<Double, double[]> modeAfrMap, Map<Double, Double> correctedAfrMap) {
         this.inputMlhfm = inputMlhfm;
         this.correctedMlhfm = correctedMlhfm;
         this.fitMlhfm = fitMlhfm;
+        this.voltageDt = voltageDt;
         this.filteredVoltageDt = filteredVoltageDt;
         this.correctionsAfrMap = correctionsAfrMap;
         this.meanAfrMap = meanAfrMap;
@@ -1,11 +1,13 @@
 package domain.model.closedloopfueling;
 
 import data.contract.Me7LogFileContract;
-import domain.derivative.Derivative;
-import domain.math.Index;
+import domain.math.AxisIndex;
 import domain.math.map.Map3d;
+import domain.math.stat.BinStatistics;
+import domain.math.stat.SampleReservoir;
 import domain.util.Util;
-import org.apache.commons.math3.stat.StatUtils;
+import domain.model.log.LogFrame;
+import domain.model.log.LogSink;
 import org.apache.commons.math3.stat.descriptive.moment.Mean;
 
 import java.util.*;
@@ -15,13 +17,20 @@ public class ClosedLoopFuelingCorrectionManager {
     private static final int MIN_SAMPLES_THRESHOLD = 5;
     private static final int LAMBDA_CONTROL_ENABLED = 1;
 
+    // Corrections are binned to 0.1% for the mode
+    private static final double MIN_CORRECTION = -0.5;
+    private static final double MAX_CORRECTION = 0.5;
+    private static final double CORRECTION_RESOLUTION = 0.001;
+    // The most samples of each voltage kept for the charts
+    private static final int MAX_CHART_SAMPLES = 256;
+
     private final double minThrottleAngle;
     private final double minRpm;
     private final double maxDerivative;
 
     private final Map3d correctedMlhfm = new Map3d();
-    private final Map<Double, List<Double>> correctionsAfrMap = new HashMap<>();
-    private final Map<Double, List<Double>> filteredVoltageDt = new HashMap<>();
+    private final Map<Double, SampleReservoir> correctionsAfrMap = new HashMap<>();
+    private final Map<Double, SampleReservoir> filteredVoltageDt = new HashMap<>();
     private final Map<Double, Double> meanAfrMap = new HashMap<>();
     private final Map<Double, double[]> modeAfrMap = new HashMap<>();
     private final Map<Double, Double> correctedAfrMap = new HashMap<>();
@@ -38,82 +47,134 @@ public class ClosedLoopFuelingCorrectionManager {
         return closedLoopFuelingCorrection;
     }
 
-    public void correct(Map<Me7LogFileContract.Header, List<Double>> me7LogMap, Map3d mlhfm) {
-        Map<Double, List<Double>> correctionErrorMap = new HashMap<>();
+    public void correct(LogFrame<Me7LogFileContract.Header> me7LogMap, Map3d mlhfm) {
+        LogSink<Me7LogFileContract.Header> accumulator = stream(mlhfm);
 
-        for (Double voltage : mlhfm.yAxis) {
-            correctionErrorMap.put(voltage, new ArrayList<>());
-            filteredVoltageDt.put(voltage, new ArrayList<>());
-            correctionsAfrMap.put(voltage, new ArrayList<>());
-            meanAfrMap.put(voltage, 0d);
-            modeAfrMap.put(voltage, new double[0]);
-            correctedAfrMap.put(voltage, 0d);
+        accumulator.onBatch(me7LogMap);
+        accumulator.onComplete();
+    }
+
+    /**
+     * @return a sink to stream the logs through, the correction is made once the sink completes. Each voltage keeps
+     * its statistics and a bounded sample of its corrections and dt for the charts, so memory does not grow with the
+     * logs.
+     */
+    public LogSink<Me7LogFileContract.Header> stream(Map3d mlhfm) {
+        return new Accumulator(mlhfm);
+    }
+
+    private class Accumulator implements LogSink<Me7LogFileContract.Header> {
+        private final Map3d mlhfm;
+        private final Map<Double, BinStatistics> correctionErrorMap = new HashMap<>();
+        private final Map<Double, SampleReservoir> voltageDt = new HashMap<>();
+        private final AxisIndex voltageIndex;
+
+        // The dt of a row is taken from the row before it, which may be in the previous batch
+        private boolean hasPrevious;
+        private double previousVoltage;
+        private double previousTimestamp;
+
+        private Accumulator(Map3d mlhfm) {
+            this.mlhfm = mlhfm;
+            this.voltageIndex = new AxisIndex(mlhfm.yAxis);
+
+            for (Double voltage : mlhfm.yAxis) {
+                correctionErrorMap.put(voltage, new BinStatistics(MIN_CORRECTION, MAX_CORRECTION, CORRECTION_RESOLUTION));
+                voltageDt.put(voltage, new SampleReservoir(MAX_CHART_SAMPLES));
+                filteredVoltageDt.put(voltage, new SampleReservoir(MAX_CHART_SAMPLES));
+                correctionsAfrMap.put(voltage, new SampleReservoir(MAX_CHART_SAMPLES));
+                meanAfrMap.put(voltage, 0d);
+                modeAfrMap.put(voltage, new double[0]);
+                correctedAfrMap.put(voltage, 0d);
+            }
         }
 
-        calculateCorrections(correctionErrorMap, me7LogMap, mlhfm);
+        @Override
+        public void onBatch(LogFrame<Me7LogFileContract.Header> batch) {
+            LogFrame.Column me7Voltages = batch.column(Me7LogFileContract.Header.MAF_VOLTAGE_HEADER);
+            LogFrame.Column me7Timestamps = batch.column(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER);
+            LogFrame.Column stft = batch.column(Me7LogFileContract.Header.STFT_COLUMN_HEADER);
+            LogFrame.Column ltft = batch.column(Me7LogFileContract.Header.LTFT_COLUMN_HEADER);
+            LogFrame.Column lambdaControl = batch.column(Me7LogFileContract.Header.LAMBDA_CONTROL_ACTIVE_HEADER);
+            LogFrame.Column throttleAngle = batch.column(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER);
+            LogFrame.Column rpm = batch.column(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
 
-        List<Double> correctionErrorList = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                double me7Voltage = me7Voltages.get(i);
+                double me7Timestamp = me7Timestamps.get(i);
 
-        int maxCorrectionIndex = processCorrections(correctionErrorList, correctionErrorMap, mlhfm);
+                if (hasPrevious) {
+                    double me7voltageDt = Math.abs((me7Voltage - previousVoltage) / (me7Timestamp - previousTimestamp));
 
-        postProcessCorrections(correctionErrorList, maxCorrectionIndex);
+                    // Look up the corresponding voltage from MLHFM
+                    int mlhfmVoltageIndex = voltageIndex.index(me7Voltage);
 
-        smooth(correctionErrorList);
+                    double mlhfmVoltageKey = mlhfm.yAxis[mlhfmVoltageIndex];
 
-        applyCorrections(correctionErrorList, mlhfm);
+                    // Keep a sample of the dt of every logged voltage for the log chart
+                    voltageDt.get(mlhfmVoltageKey).add(me7voltageDt);
 
-        closedLoopFuelingCorrection = new ClosedLoopFuelingCorrection(mlhfm, correctedMlhfm, correctedMlhfm, filteredVoltageDt, correctionsAfrMap, meanAfrMap, modeAfrMap, correctedAfrMap);
-    }
+                    // Closed loop only and not idle
+                    if (lambdaControl.get(i) == LAMBDA_CONTROL_ENABLED && throttleAngle.get(i) > minThrottleAngle && rpm.get(i) > minRpm && me7voltageDt < maxDerivative) {
+                        double voltageScaler = me7Voltage / mlhfmVoltageKey;
+
+                        // Calculate the error based on LTFT and STFT
+                        double stftValue = (stft.get(i) - 1) * voltageScaler;
+                        double ltftValue = (ltft.get(i) - 1) * voltageScaler;
+                        double afrCorrectionError = stftValue + ltftValue;
+
+                        // Record the correction.
+                        correctionErrorMap.get(mlhfmVoltageKey).add(afrCorrectionError);
 
-    private void calculateCorrections(Map<Double, List<Double>> correctionError, Map<Me7LogFileContract.Header, List<Double>> me7LogMap, Map3d mlhfm) {
-        List<Double> me7Voltages = me7LogMap.get(Me7LogFileContract.Header.MAF_VOLTAGE_HEADER);
-        List<Double> me7Timestamps = me7LogMap.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER);
-        List<Double> me7voltageDt = Derivative.getDt(me7Voltages, me7Timestamps);
-        List<Double> stft = me7LogMap.get(Me7LogFileContract.Header.STFT_COLUMN_HEADER);
-        List<Double> ltft = me7LogMap.get(Me7LogFileContract.Header.LTFT_COLUMN_HEADER);
-        List<Double> lambdaControl = me7LogMap.get(Me7LogFileContract.Header.LAMBDA_CONTROL_ACTIVE_HEADER);
-        List<Double> throttleAngle = me7LogMap.get(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER);
-        List<Double> rpm = me7LogMap.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
-
-        for (int i = 0; i < me7voltageDt.size(); i++) {
-            // Closed loop only and not idle
-            if (lambdaControl.get(i + 1) == LAMBDA_CONTROL_ENABLED && throttleAngle.get(i + 1) > minThrottleAngle && rpm.get(i + 1) > minRpm && me7voltageDt.get(i) < maxDerivative) {
-                // Get every logged voltage
-                double me7Voltage = me7Voltages.get(i + 1);
-                // Look up the corresponding voltage from MLHFM
-                int mlhfmVoltageIndex = Index.getInsertIndex(Arrays.asList(mlhfm.yAxis), me7Voltage);
-
-                double mlhfmVoltageKey = mlhfm.yAxis[mlhfmVoltageIndex];
-
-                double voltageScaler = me7Voltage/mlhfmVoltageKey;
-
-                // Calculate the error based on LTFT and STFT
-                double stftValue = (stft.get(i + 1) - 1)*voltageScaler;
-                double ltftValue = (ltft.get(i + 1) - 1)*voltageScaler;
-                double afrCorrectionError = stftValue + ltftValue;
-
-                // Record the correction.
-                correctionError.get(mlhfmVoltageKey).add(afrCorrectionError);
-
-                // Keep track of the dt of the logged voltages relative to the MLHFM voltages
-                filteredVoltageDt.get(mlhfmVoltageKey).add(me7voltageDt.get(i));
-                correctionsAfrMap.get(mlhfmVoltageKey).add(afrCorrectionError);
+                        // Keep a sample of the dt of the logged voltages relative to the MLHFM voltages for the charts
+                        filteredVoltageDt.get(mlhfmVoltageKey).add(me7voltageDt);
+                        correctionsAfrMap.get(mlhfmVoltageKey).add(afrCorrectionError);
+                    }
+                }
+
+                hasPrevious = true;
+                previousVoltage = me7Voltage;
+                previousTimestamp = me7Timestamp;
             }
         }
+
+        @Override
+        public void onComplete() {
+            List<Double> correctionErrorList = new ArrayList<>();
+
+            int maxCorrectionIndex = processCorrections(correctionErrorList, correctionErrorMap, mlhfm);
+
+            postProcessCorrections(correctionErrorList, maxCorrectionIndex);
+
+            smooth(correctionErrorList);
+
+            applyCorrections(correctionErrorList, mlhfm);
+
+            closedLoopFuelingCorrection = new ClosedLoopFuelingCorrection(mlhfm, correctedMlhfm, correctedMlhfm, getSamples(voltageDt), getSamples(filteredVoltageDt), getSamples(correctionsAfrMap), meanAfrMap, modeAfrMap, correctedAfrMap);
+        }
     }
 
-    private int processCorrections(List<Double> correctionErrorList, Map<Double, List<Double>> correctionErrorMap, Map3d mlhfm) {
+    private static Map<Double, List<Double>> getSamples(Map<Double, SampleReservoir> reservoirs) {
+        Map<Double, List<Double>> samples = new HashMap<>();
+
+        for (Map.Entry<Double, SampleReservoir> entry : reservoirs.entrySet()) {
+            samples.put(entry.getKey(), entry.getValue().getSamples());
+        }
+
+        return samples;
+    }
+
+    private int processCorrections(List<Double> correctionErrorList, Map<Double, BinStatistics> correctionErrorMap, Map3d mlhfm) {
         int maxCorrectionIndex = 0;
         int index = 0;
-        Mean mean = new Mean();
         for (Double voltage : mlhfm.yAxis) {
-            List<Double> corrections = correctionErrorMap.get(voltage);
+            BinStatistics corrections = correctionErrorMap.get(voltage);
 
-            if (corrections.size() > MIN_SAMPLES_THRESHOLD) {
+            if (corrections.getCount() > MIN_SAMPLES_THRESHOLD) {
                 // Get the mean of the correction set
-                double meanValue = mean.evaluate(Util.toDoubleArray(corrections.toArray(new Double[0])), 0, corrections.size());
+                double meanValue = corrections.getMean();
                 // Get the mode of the correction set
-                double[] mode = StatUtils.mode(Util.toDoubleArray(corrections.toArray(new Double[0])));
+                double[] mode = corrections.getMode();
 
                 meanAfrMap.put(voltage, meanValue);
                 modeAfrMap.put(voltage, mode);
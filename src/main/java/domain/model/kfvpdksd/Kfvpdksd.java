@@ -1,6 +1,9 @@
 package domain.model.kfvpdksd;
 
 import data.contract.Me7LogFileContract;
+import domain.model.log.LogFilter;
+import domain.model.log.LogFrame;
+import domain.model.log.LogSink;
 
 import java.util.*;
 
@@ -10,20 +13,19 @@ public record Kfvpdksd(Double[][] kfvpdksd) {
         return kfvpdksd;
     }
 
-    public static Double[] parsePressure(Map<Me7LogFileContract.Header, List<Double>> log, Double[] rpmAxis) {
+    public static Double[] parsePressure(LogFrame<Me7LogFileContract.Header> log, Double[] rpmAxis) {
         List<List<Double>> boostValues = new ArrayList<>();
 
         for (int i = 0; i < rpmAxis.length; i++) {
             boostValues.add(new ArrayList<>());
         }
 
-        List<Double> timestamps = log.get(Me7LogFileContract.Header.TIME_STAMP_COLUMN_HEADER);
-        List<Double> throttleAngle = log.get(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER);
-        List<Double> rpm = log.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
-        List<Double> barometricPressure = log.get(Me7LogFileContract.Header.BAROMETRIC_PRESSURE_HEADER);
-        List<Double> absolutePressure = log.get(Me7LogFileContract.Header.ABSOLUTE_BOOST_PRESSURE_ACTUAL_HEADER);
+        LogFrame.Column throttleAngle = log.column(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER);
+        LogFrame.Column rpm = log.column(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
+        LogFrame.Column barometricPressure = log.column(Me7LogFileContract.Header.BAROMETRIC_PRESSURE_HEADER);
+        LogFrame.Column absolutePressure = log.column(Me7LogFileContract.Header.ABSOLUTE_BOOST_PRESSURE_ACTUAL_HEADER);
 
-        for (int i = 0; i < timestamps.size(); i++) {
+        for (int i = 0; i < log.size(); i++) {
             if (throttleAngle.get(i) > 80) {
 
                 int index = Arrays.binarySearch(rpmAxis, rpm.get(i));
@@ -61,6 +63,95 @@ public record Kfvpdksd(Double[][] kfvpdksd) {
         return maxPressure;
     }
 
+    /**
+     * @return a filter passing the rows at wide open throttle on to the accumulator
+     */
+    public static LogSink<Me7LogFileContract.Header> wideOpenThrottle(PressureAccumulator accumulator) {
+        return new LogFilter<>(Me7LogFileContract.Header.class, (log, row) -> log.get(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER, row) > 80, accumulator);
+    }
+
+    /**
+     * Finds the max boost at each RPM, the mean of the highest 5% of the boost logged at the RPM. The boost is counted
+     * into 1 mbar bins that keep the sum of their values, so a log can be streamed through in constant memory. The mean
+     * is exact but for the bin the 5% ends in, which contributes its mean. {@link #parsePressure} sorts the boost of a
+     * log in memory and is exact.
+     */
+    public static class PressureAccumulator implements LogSink<Me7LogFileContract.Header> {
+        private static final double MIN_PRESSURE = -1000;
+        private static final double MAX_PRESSURE = 4000;
+        private static final double PRESSURE_RESOLUTION = 1;
+        private static final double TOP_FRACTION = 0.05;
+
+        private final Double[] rpmAxis;
+        private final long[][] counts;
+        private final double[][] sums;
+
+        public PressureAccumulator(Double[] rpmAxis) {
+            int bins = (int) Math.ceil((MAX_PRESSURE - MIN_PRESSURE) / PRESSURE_RESOLUTION);
+
+            this.rpmAxis = rpmAxis;
+            this.counts = new long[rpmAxis.length][bins];
+            this.sums = new double[rpmAxis.length][bins];
+        }
+
+        @Override
+        public void onBatch(LogFrame<Me7LogFileContract.Header> batch) {
+            LogFrame.Column rpm = batch.column(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
+            LogFrame.Column barometricPressure = batch.column(Me7LogFileContract.Header.BAROMETRIC_PRESSURE_HEADER);
+            LogFrame.Column absolutePressure = batch.column(Me7LogFileContract.Header.ABSOLUTE_BOOST_PRESSURE_ACTUAL_HEADER);
+
+            for (int i = 0; i < batch.size(); i++) {
+                int index = Arrays.binarySearch(rpmAxis, rpm.get(i));
+
+                if (index < 0) {
+                    index = Math.abs(index + 1);
+                }
+
+                index = Math.min(index, rpmAxis.length - 1);
+
+                double pressure = absolutePressure.get(i) - barometricPressure.get(i);
+                // Boost outside of the range is kept in the first or last bin, its sum is still exact
+                int bin = (int) Math.max(0, Math.min(counts[index].length - 1, Math.floor((pressure - MIN_PRESSURE) / PRESSURE_RESOLUTION)));
+
+                counts[index][bin]++;
+                sums[index][bin] += pressure;
+            }
+        }
+
+        public Double[] getMaxPressure() {
+            Double[] maxPressure = new Double[rpmAxis.length];
+
+            for (int i = 0; i < rpmAxis.length; i++) {
+                long count = 0;
+                for (long binCount : counts[i]) {
+                    count += binCount;
+                }
+
+                long numElements = count > 0 ? (long) Math.max(1, count * TOP_FRACTION) : 0;
+
+                double sum = 0;
+                long remaining = numElements;
+                for (int bin = counts[i].length - 1; bin >= 0 && remaining > 0; bin--) {
+                    if (counts[i][bin] <= remaining) {
+                        sum += sums[i][bin];
+                        remaining -= counts[i][bin];
+                    } else {
+                        sum += sums[i][bin] / counts[i][bin] * remaining;
+                        remaining = 0;
+                    }
+                }
+
+                if (numElements > 0) {
+                    maxPressure[i] = sum / numElements;
+                } else {
+                    maxPressure[i] = 0.0;
+                }
+            }
+
+            return maxPressure;
+        }
+    }
+
     public static Kfvpdksd generate(Double[] maxPressure, Double[] rpmAxis, Double[] pressureRatioAxis) {
         Double[] pressureRatio = new Double[maxPressure.length];
 
@@ -1,9 +1,8 @@
 package domain.model.kfzw;
 
-import domain.math.Index;
+import domain.math.AxisIndex;
 import domain.math.LinearExtrapolation;
-
-import java.util.Arrays;
+import domain.util.Util;
 
 public class Kfzw {
 
@@ -11,10 +10,13 @@ public class Kfzw {
 
         Double[][] kwzwNew = new Double[kfzwOld.length][kfzwOld[0].length];
 
+        // The new axis is binned against the old one once and reused for every row
+        int[] indexKeys = new AxisIndex(xAxisOld).assign(Util.toDoubleArray(xAxisNew));
+
         for (int i = 0; i < kfzwOld.length; i++) {
             for (int j = 0; j < kfzwOld[i].length; j++) {
 
-                int indexKey = Index.getInsertIndex(Arrays.asList(xAxisOld), xAxisNew[j]);
+                int indexKey = indexKeys[j];
 
                 double x0;
                 double x1;
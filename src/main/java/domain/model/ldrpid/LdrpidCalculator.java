@@ -1,9 +1,13 @@
 package domain.model.ldrpid;
 
 import data.contract.Me7LogFileContract;
-import domain.math.Index;
 import domain.math.map.Map3d;
-import domain.math.LinearInterpolation;
+import domain.math.AxisIndex;
+import domain.math.Interpolator;
+import domain.math.map.FlatMap3d;
+import domain.model.log.LogFilter;
+import domain.model.log.LogFrame;
+import domain.model.log.LogSink;
 
 import java.util.*;
 
@@ -23,74 +27,102 @@ public class LdrpidCalculator {
         }
     }
 
-    public static Map3d calculateNonLinearTable(Map<Me7LogFileContract.Header, List<Double>> values, Map3d kfldrlMap) {
-        List<Double> throttlePlateAngles = values.get(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER);
-        List<Double> rpms = values.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
-        List<Double> dutyCycles = values.get(Me7LogFileContract.Header.WASTEGATE_DUTY_CYCLE_HEADER);
-        List<Double> barometricPressures = values.get(Me7LogFileContract.Header.BAROMETRIC_PRESSURE_HEADER);
-        List<Double> absoluteBoostPressures = values.get(Me7LogFileContract.Header.ABSOLUTE_BOOST_PRESSURE_ACTUAL_HEADER);
+    public static Map3d calculateNonLinearTable(LogFrame<Me7LogFileContract.Header> values, Map3d kfldrlMap) {
+        NonLinearTableAccumulator accumulator = new NonLinearTableAccumulator(kfldrlMap);
+        LogSink<Me7LogFileContract.Header> sink = wideOpenThrottle(accumulator);
 
-        Double[][] nonLinearTable = new Double[kfldrlMap.yAxis.length][kfldrlMap.xAxis.length];
+        sink.onBatch(values);
+        sink.onComplete();
 
-        for(Double[] array:nonLinearTable) {
-            Arrays.fill(array, 0.0);
+        return accumulator.getNonLinearTable();
+    }
+
+    /**
+     * @return a filter passing the rows at wide open throttle on to the accumulator
+     */
+    public static LogSink<Me7LogFileContract.Header> wideOpenThrottle(NonLinearTableAccumulator accumulator) {
+        return new LogFilter<>(Me7LogFileContract.Header.class, (log, row) -> log.get(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER, row) >= 80, accumulator);
+    }
+
+    /**
+     * Sums the boost of every row it is given into the KFLDRL cell of its RPM and duty cycle, so a log can be streamed
+     * through it. Only the sums and counts of the cells are kept.
+     */
+    public static class NonLinearTableAccumulator implements LogSink<Me7LogFileContract.Header> {
+        private final Map3d kfldrlMap;
+        private final double[][] pressure;
+        private final double[][] count;
+        private final AxisIndex rpmAxis;
+        private final AxisIndex dutyCycleAxis;
+
+        public NonLinearTableAccumulator(Map3d kfldrlMap) {
+            this.kfldrlMap = kfldrlMap;
+            this.pressure = new double[kfldrlMap.yAxis.length][kfldrlMap.xAxis.length];
+            this.count = new double[kfldrlMap.yAxis.length][kfldrlMap.xAxis.length];
+            this.rpmAxis = new AxisIndex(kfldrlMap.yAxis);
+            this.dutyCycleAxis = new AxisIndex(kfldrlMap.xAxis);
         }
 
-        double[][] pressure = new double[kfldrlMap.yAxis.length][kfldrlMap.xAxis.length];
-        double[][] count = new double[kfldrlMap.yAxis.length][kfldrlMap.xAxis.length];
+        @Override
+        public void onBatch(LogFrame<Me7LogFileContract.Header> batch) {
+            LogFrame.Column rpms = batch.column(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
+            LogFrame.Column dutyCycles = batch.column(Me7LogFileContract.Header.WASTEGATE_DUTY_CYCLE_HEADER);
+            LogFrame.Column barometricPressures = batch.column(Me7LogFileContract.Header.BAROMETRIC_PRESSURE_HEADER);
+            LogFrame.Column absoluteBoostPressures = batch.column(Me7LogFileContract.Header.ABSOLUTE_BOOST_PRESSURE_ACTUAL_HEADER);
 
-        for(int i = 0; i < throttlePlateAngles.size(); i++) {
-            double throttlePlateAngle = throttlePlateAngles.get(i);
-            if(throttlePlateAngle >= 80) {
-                double rpm = rpms.get(i);
-                double dutyCycle = dutyCycles.get(i);
-                double barometricPressure = barometricPressures.get(i);
-                double absoluteBoostPressure = absoluteBoostPressures.get(i);
-                double relativeBoostPressure = absoluteBoostPressure - barometricPressure;
+            for (int i = 0; i < batch.size(); i++) {
+                double relativeBoostPressure = absoluteBoostPressures.get(i) - barometricPressures.get(i);
 
-                int rpmIndex = Index.getInsertIndex(Arrays.asList(kfldrlMap.yAxis), rpm);
-                int dutyCycleIndex = Index.getInsertIndex(Arrays.asList(kfldrlMap.xAxis), dutyCycle);
+                int rpmIndex = rpmAxis.index(rpms.get(i));
+                int dutyCycleIndex = dutyCycleAxis.index(dutyCycles.get(i));
 
-                if(relativeBoostPressure > 0) {
+                if (relativeBoostPressure > 0) {
                     pressure[rpmIndex][dutyCycleIndex] += relativeBoostPressure;
                     count[rpmIndex][dutyCycleIndex] += 1;
                 }
-
-                for(int j = 0; j < nonLinearTable.length; j++) {
-                    for(int k = 0; k < nonLinearTable[j].length; k++) {
-                        if(count[j][k] != 0) {
-                            nonLinearTable[j][k] = (pressure[j][k] / count[j][k]) * 0.0145038;
-                        } else {
-                            nonLinearTable[j][k] = pressure[j][k] * 0.0145038;
-                        }
-                    }
-                }
             }
         }
 
-        for(Double[] array: nonLinearTable) {
-            Arrays.sort(array);
-            for(int i = 0; i < array.length - 1; i++) {
-                if(array[i] == 0) {
-                    array[i] = 0.1;
-                }
+        /**
+         * @return the mean boost of each cell in psi, each row sorted and made strictly increasing
+         */
+        public Map3d getNonLinearTable() {
+            Double[][] nonLinearTable = new Double[kfldrlMap.yAxis.length][kfldrlMap.xAxis.length];
 
-                if(array[i] >= array[i + 1]) {
-                    if(i > 0) {
-                        double theta = array[i]/array[i-1];
-                        array[i + 1] = array[i]*(1+(theta-1)/2);
+            for (int j = 0; j < nonLinearTable.length; j++) {
+                for (int k = 0; k < nonLinearTable[j].length; k++) {
+                    if (count[j][k] != 0) {
+                        nonLinearTable[j][k] = (pressure[j][k] / count[j][k]) * 0.0145038;
                     } else {
-                        array[i + 1] = array[i]*1.1;
+                        nonLinearTable[j][k] = pressure[j][k] * 0.0145038;
+                    }
+                }
+            }
+
+            for (Double[] array : nonLinearTable) {
+                Arrays.sort(array);
+                for (int i = 0; i < array.length - 1; i++) {
+                    if (array[i] == 0) {
+                        array[i] = 0.1;
                     }
 
-                    if(Double.isNaN(array[i + 1]) || array[i + 1] == 0) {
-                        array[i + 1] = array[i] + 0.1;
+                    if (array[i] >= array[i + 1]) {
+                        if (i > 0) {
+                            double theta = array[i] / array[i - 1];
+                            array[i + 1] = array[i] * (1 + (theta - 1) / 2);
+                        } else {
+                            array[i + 1] = array[i] * 1.1;
+                        }
+
+                        if (Double.isNaN(array[i + 1]) || array[i + 1] == 0) {
+                            array[i + 1] = array[i] + 0.1;
+                        }
                     }
                 }
             }
-        }
 
-        return new Map3d(kfldrlMap.xAxis, kfldrlMap.yAxis, nonLinearTable);
+            return new Map3d(kfldrlMap.xAxis, kfldrlMap.yAxis, nonLinearTable);
+        }
     }
 
     public static Map3d calculateLinearTable(Double[][] nonLinearTable, Map3d kfldrlMap) {
@@ -113,17 +145,14 @@ public class LdrpidCalculator {
     public static Map3d calculateKfldrl(Double[][] nonLinearTable, Double[][] linearTable, Map3d kfldrlMap) {
         Double[][] kfldrl = new Double[nonLinearTable.length][nonLinearTable[0].length];
 
-        for(int i = 0; i < nonLinearTable.length; i++) {
-            for(int j = 0; j < nonLinearTable[i].length; j++) {
-                Double[] x = nonLinearTable[i];
-                Double[] y = kfldrlMap.xAxis;
-                Double[] xi = new Double[]{linearTable[i][j]};
+        double[] y = FlatMap3d.unbox(kfldrlMap.xAxis);
 
-                kfldrl[i][j] = LinearInterpolation.interpolate(x, y, xi)[0];
+        for(int i = 0; i < nonLinearTable.length; i++) {
+            Interpolator interpolator = new Interpolator(FlatMap3d.unbox(nonLinearTable[i]), y, Interpolator.Policy.ZERO, Interpolator.Policy.CLAMP);
+            double[] row = interpolator.evaluate(FlatMap3d.unbox(linearTable[i]));
 
-                if(Double.isNaN(kfldrl[i][j])) {
-                    kfldrl[i][j] = 0d;
-                }
+            for(int j = 0; j < nonLinearTable[i].length; j++) {
+                kfldrl[i][j] = Double.isNaN(row[j]) ? 0d : row[j];
             }
         }
 
@@ -155,22 +184,27 @@ public class LdrpidCalculator {
 
         Double[][] kfldimx = new Double[nonLinearTable.length][kfldimxXAxis.length];
 
+        // Every row interpolates the same curve at the same points
+        Interpolator interpolator = new Interpolator(FlatMap3d.unbox(linearBoostMax), FlatMap3d.unbox(kfldrlMap.xAxis), Interpolator.Policy.ZERO, Interpolator.Policy.CLAMP);
+        double[] row = interpolator.evaluate(FlatMap3d.unbox(kfldimxXAxis));
+
         for(int i = 0; i < kfldimx.length; i++) {
             for (int j = 0; j < kfldimx[i].length; j++) {
-                Double[] x = linearBoostMax;
-                Double[] y = kfldrlMap.xAxis;
-                Double[] xi = new Double[]{kfldimxXAxis[j]};
-
-                kfldimx[i][j] = LinearInterpolation.interpolate(x, y, xi)[0];
+                kfldimx[i][j] = row[j];
             }
         }
 
         return new Map3d(kfldimxXAxis, kfldimxMap.yAxis, kfldimx);
     }
 
-    public static LdrpidResult caclulateLdrpid(Map<Me7LogFileContract.Header, List<Double>> values, Map3d kfldrlMap, Map3d kfldimxMap) {
+    public static LdrpidResult caclulateLdrpid(LogFrame<Me7LogFileContract.Header> values, Map3d kfldrlMap, Map3d kfldimxMap) {
+        return caclulateLdrpid(calculateNonLinearTable(values, kfldrlMap), kfldrlMap, kfldimxMap);
+    }
 
-        Map3d nonLinearTable = calculateNonLinearTable(values, kfldrlMap);
+    /**
+     * @param nonLinearTable the table of a {@link NonLinearTableAccumulator} the logs were streamed through
+     */
+    public static LdrpidResult caclulateLdrpid(Map3d nonLinearTable, Map3d kfldrlMap, Map3d kfldimxMap) {
         Map3d linearTable = calculateLinearTable(nonLinearTable.zAxis, kfldrlMap);
         Map3d kfldrl = calculateKfldrl(nonLinearTable.zAxis, linearTable.zAxis, kfldrlMap);
         Map3d kfldimxMap3d = calculateKfldimx(nonLinearTable.zAxis, linearTable.zAxis, kfldrlMap, kfldimxMap);
@@ -0,0 +1,87 @@
+package domain.model.log;
+
+import java.util.Set;
+
+/**
+ * A stage of a {@link LogSink} pipeline that passes on only the rows matching a predicate. Each batch is filtered on its
+ * own, so the filter holds no more than one batch.
+ *
+ * @param <K> the column key, the headers of the log
+ */
+public class LogFilter<K extends Enum<K>> implements LogSink<K> {
+
+    public interface RowPredicate<K> {
+        boolean test(LogFrame<K> batch, int row);
+    }
+
+    private final Class<K> keyType;
+    private final RowPredicate<K> predicate;
+    private final LogSink<K> downstream;
+
+    public LogFilter(Class<K> keyType, RowPredicate<K> predicate, LogSink<K> downstream) {
+        this.keyType = keyType;
+        this.predicate = predicate;
+        this.downstream = downstream;
+    }
+
+    /**
+     * Passes on a batch of the matching rows. A batch with no matching rows is still passed on if it starts a log, so
+     * the start times reach the sink. A batch in which every row matches is passed on as it is.
+     */
+    @Override
+    public void onBatch(LogFrame<K> batch) {
+        int[] rows = new int[batch.size()];
+        int count = 0;
+
+        for (int i = 0; i < batch.size(); i++) {
+            if (predicate.test(batch, i)) {
+                rows[count++] = i;
+            }
+        }
+
+        if (count == batch.size()) {
+            if (!batch.isEmpty() || batch.getStartTimes().length > 0) {
+                downstream.onBatch(batch);
+            }
+
+            return;
+        }
+
+        double[] startTimes = batch.getStartTimes();
+
+        if (count == 0 && startTimes.length == 0) {
+            return;
+        }
+
+        LogFrame.Builder<K> builder = LogFrame.builder(keyType);
+        Set<K> keys = batch.getColumns();
+
+        for (K key : keys) {
+            builder.addColumn(key);
+            LogFrame.Column column = batch.column(key);
+
+            for (int start = 0; start < count; start += LogFrame.CHUNK_SIZE) {
+                int length = Math.min(LogFrame.CHUNK_SIZE, count - start);
+                // A full chunk is kept by the builder rather than copied
+                double[] values = new double[length];
+
+                for (int i = 0; i < length; i++) {
+                    values[i] = column.get(rows[start + i]);
+                }
+
+                builder.addChunk(key, values, length);
+            }
+        }
+
+        for (double startTime : startTimes) {
+            builder.addStartTime(startTime);
+        }
+
+        downstream.onBatch(builder.build());
+    }
+
+    @Override
+    public void onComplete() {
+        downstream.onComplete();
+    }
+}
@@ -0,0 +1,379 @@
+package domain.model.log;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * An immutable log stored as primitive columns. Each column is a list of fixed size double[] chunks, so appending while
+ * building never copies the samples already logged, and a slice of rows shares the chunks of the frame it was taken
+ * from instead of copying them.
+ * <p>
+ * Every column has a value for every row. The start times of the logs the frame was built from are kept apart from the
+ * columns since there is one per log, not one per row.
+ *
+ * @param <K> the column key, the headers of the log
+ */
+public class LogFrame<K> {
+
+    private static final int CHUNK_SHIFT = 13;
+    // Rows per chunk, an array of this many values can be handed to a builder without being copied
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final Map<K, double[][]> columns;
+    private final double[] startTimes;
+    private final int offset;
+    private final int size;
+
+    private LogFrame(Map<K, double[][]> columns, double[] startTimes, int offset, int size) {
+        this.columns = columns;
+        this.startTimes = startTimes;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    /**
+     * A builder for a frame with enum keys, the columns are stored in an {@link EnumMap}.
+     */
+    public static <K extends Enum<K>> Builder<K> builder(Class<K> keyType) {
+        return new Builder<>(new EnumMap<>(keyType));
+    }
+
+    /**
+     * A builder for a frame with any other keys, the columns keep the order they were added in.
+     */
+    public static <K> Builder<K> builder() {
+        return new Builder<>(new LinkedHashMap<>());
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean hasColumn(K key) {
+        return columns.containsKey(key);
+    }
+
+    public Set<K> getColumns() {
+        return Collections.unmodifiableSet(columns.keySet());
+    }
+
+    /**
+     * @return the start time of each log in the frame, in the order the logs were added
+     */
+    public double[] getStartTimes() {
+        return startTimes.clone();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the frame has no such column
+     */
+    public double get(K key, int row) throws IllegalArgumentException {
+        return column(key).get(row);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the frame has no such column
+     */
+    public Column column(K key) throws IllegalArgumentException {
+        double[][] chunks = columns.get(key);
+
+        if (chunks == null) {
+            throw new IllegalArgumentException("No column " + key);
+        }
+
+        return new Column(chunks, offset, size);
+    }
+
+    /**
+     * @return the rows from start, inclusive, to end, exclusive, sharing the data of this frame
+     */
+    public LogFrame<K> slice(int start, int end) {
+        checkRange(start, end, size);
+        return new LogFrame<>(columns, startTimes, offset + start, end - start);
+    }
+
+    private static void checkRange(int start, int end, int size) {
+        if (start < 0 || end > size || start > end) {
+            throw new IndexOutOfBoundsException("Range " + start + " to " + end + " of " + size);
+        }
+    }
+
+    /**
+     * A read only view of one column.
+     */
+    public static class Column {
+        private final double[][] chunks;
+        private final int offset;
+        private final int size;
+
+        private Column(double[][] chunks, int offset, int size) {
+            this.chunks = chunks;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public double get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " of " + size);
+            }
+
+            int i = offset + index;
+            return chunks[i >>> CHUNK_SHIFT][i & CHUNK_MASK];
+        }
+
+        public Column slice(int start, int end) {
+            checkRange(start, end, size);
+            return new Column(chunks, offset + start, end - start);
+        }
+
+        public double[] toArray() {
+            double[] values = new double[size];
+            copyTo(0, values, 0, size);
+
+            return values;
+        }
+
+        /**
+         * Copies the values from start, inclusive, to start + length, exclusive, into the destination.
+         */
+        public void copyTo(int start, double[] destination, int destinationStart, int length) {
+            checkRange(start, start + length, size);
+
+            int copied = 0;
+            while (copied < length) {
+                int i = offset + start + copied;
+                int chunkLength = Math.min(CHUNK_SIZE - (i & CHUNK_MASK), length - copied);
+                System.arraycopy(chunks[i >>> CHUNK_SHIFT], i & CHUNK_MASK, destination, destinationStart + copied, chunkLength);
+                copied += chunkLength;
+            }
+        }
+
+        /**
+         * @return the column as a list of boxed values for code that needs a {@link List}, such as the charts. Values
+         * are boxed on access, not copied.
+         */
+        public List<Double> asList() {
+            return new ColumnList(this);
+        }
+    }
+
+    private static class ColumnList extends AbstractList<Double> implements RandomAccess {
+        private final Column column;
+
+        private ColumnList(Column column) {
+            this.column = column;
+        }
+
+        @Override
+        public Double get(int index) {
+            return column.get(index);
+        }
+
+        @Override
+        public int size() {
+            return column.size();
+        }
+    }
+
+    /**
+     * Appends samples column by column. Every column must have the same number of rows when the frame is built.
+     */
+    public static class Builder<K> {
+        private final Map<K, double[][]> columns;
+        private final Map<K, Integer> sizes;
+        private double[] startTimes = new double[0];
+        private boolean built;
+
+        private Builder(Map<K, double[][]> columns) {
+            this.columns = columns;
+            this.sizes = new HashMap<>();
+        }
+
+        /**
+         * Adds an empty column if the frame does not have it yet.
+         */
+        public Builder<K> addColumn(K key) {
+            checkNotBuilt();
+
+            if (!columns.containsKey(key)) {
+                columns.put(key, new double[0][]);
+                sizes.put(key, 0);
+            }
+
+            return this;
+        }
+
+        public Builder<K> add(K key, double value) {
+            addColumn(key);
+
+            int size = sizes.get(key);
+            double[][] chunks = chunkFor(key, size);
+            chunks[size >>> CHUNK_SHIFT][size & CHUNK_MASK] = value;
+            sizes.put(key, size + 1);
+
+            return this;
+        }
+
+        public Builder<K> addAll(K key, double[] values) {
+            addColumn(key);
+
+            int size = sizes.get(key);
+            copy(key, size, values, values.length);
+            sizes.put(key, size + values.length);
+
+            return this;
+        }
+
+        /**
+         * Appends the first length values of an array the builder may keep. A full array of {@link #CHUNK_SIZE} values
+         * that starts a chunk becomes that chunk instead of being copied, so the caller must not change it afterwards.
+         */
+        public Builder<K> addChunk(K key, double[] values, int length) {
+            addColumn(key);
+
+            int size = sizes.get(key);
+
+            if (length == CHUNK_SIZE && values.length == CHUNK_SIZE && (size & CHUNK_MASK) == 0) {
+                adoptChunk(key, size, values);
+            } else {
+                copy(key, size, values, length);
+            }
+            sizes.put(key, size + length);
+
+            return this;
+        }
+
+        /**
+         * Appends the values of the column. While the column and the builder are both at the start of a chunk, the full
+         * chunks of the column are shared instead of copied, a frame never changes its chunks.
+         */
+        public Builder<K> addAll(K key, Column column) {
+            addColumn(key);
+
+            int size = sizes.get(key);
+            int added = 0;
+
+            if ((size & CHUNK_MASK) == 0 && (column.offset & CHUNK_MASK) == 0) {
+                for (; added + CHUNK_SIZE <= column.size; added += CHUNK_SIZE) {
+                    adoptChunk(key, size + added, column.chunks[(column.offset + added) >>> CHUNK_SHIFT]);
+                }
+            }
+
+            while (added < column.size) {
+                int i = size + added;
+                double[][] chunks = chunkFor(key, i);
+                int length = Math.min(CHUNK_SIZE - (i & CHUNK_MASK), column.size - added);
+                column.copyTo(added, chunks[i >>> CHUNK_SHIFT], i & CHUNK_MASK, length);
+                added += length;
+            }
+            sizes.put(key, size + column.size);
+
+            return this;
+        }
+
+        public Builder<K> addStartTime(double startTime) {
+            checkNotBuilt();
+
+            startTimes = Arrays.copyOf(startTimes, startTimes.length + 1);
+            startTimes[startTimes.length - 1] = startTime;
+
+            return this;
+        }
+
+        /**
+         * @return the number of rows of the column, 0 if the frame does not have it
+         */
+        public int size(K key) {
+            return sizes.getOrDefault(key, 0);
+        }
+
+        /**
+         * @throws IllegalStateException if the columns do not all have the same number of rows
+         */
+        public LogFrame<K> build() throws IllegalStateException {
+            checkNotBuilt();
+
+            int size = -1;
+            for (Map.Entry<K, Integer> entry : sizes.entrySet()) {
+                if (size == -1) {
+                    size = entry.getValue();
+                } else if (entry.getValue() != size) {
+                    throw new IllegalStateException("Data is not square! Got: " + entry.getValue() + " for " + entry.getKey() + " Expected: " + size);
+                }
+            }
+
+            // The chunks are handed to the frame, so the builder can not change them afterwards
+            built = true;
+
+            return new LogFrame<>(columns, startTimes, 0, Math.max(size, 0));
+        }
+
+        private void copy(K key, int row, double[] values, int length) {
+            int copied = 0;
+            while (copied < length) {
+                int i = row + copied;
+                double[][] chunks = chunkFor(key, i);
+                int chunkLength = Math.min(CHUNK_SIZE - (i & CHUNK_MASK), length - copied);
+                System.arraycopy(values, copied, chunks[i >>> CHUNK_SHIFT], i & CHUNK_MASK, chunkLength);
+                copied += chunkLength;
+            }
+        }
+
+        private void adoptChunk(K key, int row, double[] chunk) {
+            double[][] chunks = columns.get(key);
+            int index = row >>> CHUNK_SHIFT;
+
+            if (index >= chunks.length) {
+                chunks = Arrays.copyOf(chunks, Math.max(index + 1, chunks.length * 2));
+                columns.put(key, chunks);
+            }
+
+            chunks[index] = chunk;
+        }
+
+        /**
+         * @return the chunks of the column with room for the row
+         */
+        private double[][] chunkFor(K key, int row) {
+            double[][] chunks = columns.get(key);
+            int chunk = row >>> CHUNK_SHIFT;
+
+            if (chunk >= chunks.length) {
+                chunks = Arrays.copyOf(chunks, Math.max(chunk + 1, chunks.length * 2));
+                columns.put(key, chunks);
+            }
+
+            if (chunks[chunk] == null) {
+                chunks[chunk] = new double[CHUNK_SIZE];
+            }
+
+            return chunks;
+        }
+
+        private void checkNotBuilt() {
+            if (built) {
+                throw new IllegalStateException("The frame has already been built");
+            }
+        }
+    }
+}
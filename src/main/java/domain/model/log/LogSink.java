@@ -0,0 +1,19 @@
+package domain.model.log;
+
+/**
+ * Receives a log in batches of rows as it is read, so a log can be processed without holding all of it in memory.
+ *
+ * @param <K> the column key, the headers of the log
+ */
+public interface LogSink<K> {
+
+    /**
+     * @param batch the next rows of the log, in order
+     */
+    void onBatch(LogFrame<K> batch);
+
+    /**
+     * Called once after the last batch.
+     */
+    default void onComplete() {}
+}
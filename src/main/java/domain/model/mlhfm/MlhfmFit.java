@@ -0,0 +1,21 @@
+package domain.model.mlhfm;
+
+import domain.math.map.Map3d;
+
+import java.util.Map;
+
+public class MlhfmFit {
+    public final Map3d fitMlhfm;
+    public final int degree;
+    // Cross validated RMS error in kg/hr by degree, NaN if the degree could not be fit
+    public final Map<Integer, Double> errors;
+    // False if no degree in the range fits an MLHFM that never decreases
+    public final boolean monotonic;
+
+    public MlhfmFit(Map3d fitMlhfm, int degree, Map<Integer, Double> errors, boolean monotonic) {
+        this.fitMlhfm = fitMlhfm;
+        this.degree = degree;
+        this.errors = errors;
+        this.monotonic = monotonic;
+    }
+}
@@ -1,13 +1,20 @@
 package domain.model.mlhfm;
 
 import domain.math.CurveFitter;
+import domain.math.PolynomialSelector;
 import domain.math.map.Map3d;
+import domain.util.Util;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class MlhfmFitter {
+
+    private static final int CROSS_VALIDATION_FOLDS = 10;
+
     public static Map3d fitMlhfm(Map3d mlhfmMap, int degree) {
         List<Double> y = Arrays.asList(mlhfmMap.yAxis);
         List<Double> z = new ArrayList<>();
@@ -28,4 +35,42 @@ public class MlhfmFitter {
 
         return new Map3d(new Double[0], y.toArray(new Double[0]), zOut);
     }
+
+    /**
+     * Fits every degree from minDegree to maxDegree and keeps the one with the lowest cross validated error whose MLHFM
+     * never decreases. If no degree gives an MLHFM that never decreases the best degree is used and the fit is made
+     * non-decreasing by holding the previous value.
+     *
+     * @throws IllegalArgumentException if the MLHFM has too few points, or points too close together, to fit minDegree
+     */
+    public static MlhfmFit fitMlhfm(Map3d mlhfmMap, int minDegree, int maxDegree) throws IllegalArgumentException {
+        double[] y = Util.toDoubleArray(mlhfmMap.yAxis);
+        double[] z = new double[mlhfmMap.zAxis.length];
+
+        for(int i = 0; i < z.length; i++) {
+            z[i] = mlhfmMap.zAxis[i][0];
+        }
+
+        PolynomialSelector.Result result = PolynomialSelector.select(y, z, minDegree, maxDegree, CROSS_VALIDATION_FOLDS, true);
+
+        Double[][] zOut = new Double[z.length][1];
+
+        for(int i = 0; i < z.length; i++) {
+            double value = Math.max(0, result.fit[i]);
+
+            if(!result.monotonic && i > 0) {
+                value = Math.max(value, zOut[i - 1][0]);
+            }
+
+            zOut[i][0] = value;
+        }
+
+        Map<Integer, Double> errors = new LinkedHashMap<>();
+
+        for(int i = 0; i < result.errors.length; i++) {
+            errors.put(minDegree + i, result.errors[i]);
+        }
+
+        return new MlhfmFit(new Map3d(new Double[0], mlhfmMap.yAxis, zOut), result.degree, errors, result.monotonic);
+    }
 }
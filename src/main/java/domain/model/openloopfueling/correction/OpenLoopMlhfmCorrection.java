@@ -9,6 +9,7 @@ public class OpenLoopMlhfmCorrection {
     public final Map3d inputMlhfm;
     public final Map3d correctedMlhfm;
     public final Map3d fitMlhfm;
+    // A sample of the corrections at each voltage for the charts, not all of them
     public final Map<Double, List<Double>> correctionsAfrMap;
     public final Map<Double, Double> meanAfrMap;
     public final Map<Double, double[]> modeAfrMap;
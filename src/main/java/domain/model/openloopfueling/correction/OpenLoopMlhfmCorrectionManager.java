@@ -4,9 +4,12 @@ import data.contract.AfrLogFileContract;
 import data.contract.Me7LogFileContract;
 import domain.math.Index;
 import domain.math.map.Map3d;
+import domain.math.stat.BinStatistics;
+import domain.math.stat.SampleReservoir;
 import domain.model.openloopfueling.util.AfrLogUtil;
-import domain.model.openloopfueling.util.Me7LogUtil;
-import org.apache.commons.math3.stat.StatUtils;
+import domain.model.openloopfueling.util.Me7LogFinder;
+import domain.model.log.LogFrame;
+import domain.model.log.LogSink;
 import org.apache.commons.math3.stat.descriptive.moment.Mean;
 
 import java.util.*;
@@ -14,6 +17,16 @@ import java.util.*;
 public class OpenLoopMlhfmCorrectionManager {
     private static final int LAMBDA_CONTROL_ENABLED = 0;
 
+    // Corrections are binned to 0.1% for the mode
+    private static final double MIN_CORRECTION = -0.5;
+    private static final double MAX_CORRECTION = 0.5;
+    private static final double CORRECTION_RESOLUTION = 0.001;
+    // The most corrections of each voltage kept for the charts
+    private static final int MAX_CHART_SAMPLES = 256;
+
+    // The columns of an ME7 log a correction is calculated from
+    private static final List<Me7LogFileContract.Header> CORRECTION_COLUMNS = List.of(Me7LogFileContract.Header.MAF_VOLTAGE_HEADER, Me7LogFileContract.Header.STFT_COLUMN_HEADER, Me7LogFileContract.Header.LTFT_COLUMN_HEADER, Me7LogFileContract.Header.RPM_COLUMN_HEADER, Me7LogFileContract.Header.REQUESTED_LAMBDA_HEADER);
+
     private final int minPointsMe7;
     private final int minPointsAfr;
     private final double minThrottleAngle;
@@ -21,7 +34,8 @@ public class OpenLoopMlhfmCorrectionManager {
     private final double maxAfr;
 
     private final Map3d correctedMlhfm = new Map3d();
-    private final Map<Double, List<Double>> correctionsAfrMap = new HashMap<>();
+    private final Map<Double, SampleReservoir> correctionsAfrMap = new HashMap<>();
+    private final Map<Double, BinStatistics> correctionStatistics = new HashMap<>();
 
     public final Map<Double, Double> meanAfrMap = new HashMap<>();
     public final Map<Double, double[]> modeAfrMap = new HashMap<>();
@@ -37,25 +51,54 @@ public class OpenLoopMlhfmCorrectionManager {
         this.maxAfr = maxAfr;
     }
 
-    public void correct(Map<Me7LogFileContract.Header, List<Double>> me7Log, Map<String, List<Double>> afrLog, Map3d mlhfm) {
+    public void correct(LogFrame<Me7LogFileContract.Header> me7Log, LogFrame<String> afrLog, Map3d mlhfm) {
+        LogSink<Me7LogFileContract.Header> sink = stream(afrLog, mlhfm);
 
-        List<Map<Me7LogFileContract.Header, List<Double>>> me7LogList = Me7LogUtil.findMe7Logs(me7Log, minThrottleAngle, LAMBDA_CONTROL_ENABLED, minRpm, minPointsMe7);
-        List<Map<String, List<Double>>> afrLogList = AfrLogUtil.findAfrLogs(afrLog, minThrottleAngle, minRpm, maxAfr, minPointsAfr);
+        sink.onBatch(me7Log);
+        sink.onComplete();
+    }
 
-        generateMlhfm(mlhfm, me7LogList, afrLogList);
+    /**
+     * @return a sink to stream the ME7 logs through, the correction is made once the sink completes. Only the ME7 log
+     * being found is held in memory, each one is matched to the AFR log found at the same position as soon as it ends.
+     */
+    public LogSink<Me7LogFileContract.Header> stream(LogFrame<String> afrLog, Map3d mlhfm) {
+        List<LogFrame<String>> afrLogList = AfrLogUtil.findAfrLogs(afrLog, minThrottleAngle, minRpm, maxAfr, minPointsAfr);
+        List<Double> mlhfmVoltage = Arrays.asList(mlhfm.yAxis);
+
+        return new Me7LogFinder(minThrottleAngle, LAMBDA_CONTROL_ENABLED, minRpm, minPointsMe7, CORRECTION_COLUMNS, new LogSink<>() {
+            private int index;
+
+            @Override
+            public void onBatch(LogFrame<Me7LogFileContract.Header> me7Log) {
+                if (index < afrLogList.size()) {
+                    calculateCorrections(me7Log, afrLogList.get(index), mlhfmVoltage);
+                }
 
-        openLoopMlhfmCorrection = new OpenLoopMlhfmCorrection(mlhfm, correctedMlhfm, correctedMlhfm ,correctionsAfrMap, meanAfrMap, modeAfrMap, correctedAfrMap);
+                index++;
+            }
+
+            @Override
+            public void onComplete() {
+                generateMlhfm(mlhfm);
+
+                Map<Double, List<Double>> correctionSamples = new HashMap<>();
+                for (Map.Entry<Double, SampleReservoir> entry : correctionsAfrMap.entrySet()) {
+                    correctionSamples.put(entry.getKey(), entry.getValue().getSamples());
+                }
+
+                openLoopMlhfmCorrection = new OpenLoopMlhfmCorrection(mlhfm, correctedMlhfm, correctedMlhfm ,correctionSamples, meanAfrMap, modeAfrMap, correctedAfrMap);
+            }
+        });
     }
 
     public OpenLoopMlhfmCorrection getOpenLoopCorrection() {
         return openLoopMlhfmCorrection;
     }
 
-    private void generateMlhfm(Map3d mlhfm, List<Map<Me7LogFileContract.Header, List<Double>>> me7LogList, List<Map<String, List<Double>>> afrLogList) {
+    private void generateMlhfm(Map3d mlhfm) {
         List<Double> mlhfmVoltage = Arrays.asList(mlhfm.yAxis);
 
-        // Calculate the initial corrections sets
-        calculateCorrections(me7LogList, afrLogList, mlhfmVoltage);
         // Process the corrections sets into a single correction
         ArrayList<Double> correctedAfrList = processCorrections(mlhfmVoltage);
         // Clean up the corrections
@@ -130,14 +173,13 @@ public class OpenLoopMlhfmCorrectionManager {
     private ArrayList<Double> processCorrections(List<Double> mlhfmVoltage) {
         ArrayList<Double> correctedAfrList = new ArrayList<>();
 
-        Mean mean = new Mean();
         for (Double voltage : mlhfmVoltage) {
-            List<Double> corrections = correctionsAfrMap.get(voltage);
+            BinStatistics corrections = correctionStatistics.get(voltage);
             // Get the mean of the correction set
-            double meanValue = mean.evaluate(toDoubleArray(corrections.toArray(new Double[0])), 0, corrections.size());
+            double meanValue = corrections.getMean();
             meanAfrMap.put(voltage, meanValue);
             // Get the mode of the correction set
-            double[] mode = StatUtils.mode(toDoubleArray(corrections.toArray(new Double[0])));
+            double[] mode = corrections.getMode();
             modeAfrMap.put(voltage, mode);
 
             // Get the average of the mean and the mode
@@ -153,57 +195,57 @@ public class OpenLoopMlhfmCorrectionManager {
         return correctedAfrList;
     }
 
-    private void calculateCorrections(List<Map<Me7LogFileContract.Header, List<Double>>> me7LogList, List<Map<String, List<Double>>> afrLogList, List<Double> mlhfmVoltageList) {
-
-       int size = Math.min(me7LogList.size(), afrLogList.size());
-
-        // Loop over each log
-        for (int i = 0; i < size; i++) {
-            Map<Me7LogFileContract.Header, List<Double>> me7Log = me7LogList.get(i);
-            Map<String, List<Double>> afrLog = afrLogList.get(i);
-
-            // For each log, loop over the voltages in MLHFM and attempt to calculate a correction
-            for (int j = 0; j < mlhfmVoltageList.size(); j++) {
-
-                double mlhfmVoltage = mlhfmVoltageList.get(j);
-
-                correctionsAfrMap.put(mlhfmVoltage, new ArrayList<>());
-
-                // Get the measured MAF voltages in the log
-                List<Double> me7VoltageList = me7Log.get(Me7LogFileContract.Header.MAF_VOLTAGE_HEADER);
-
-                // Attempt to find the mlhfm voltages in the log.
-                List<Integer> me7VoltageIndices = getVoltageToMatchIndices(j, mlhfmVoltageList, me7VoltageList);
-
-                // Calculate a corrected AFR for each index that is found
-                for (int me7Index : me7VoltageIndices) {
-                    if (me7Index != 1 && me7Index != me7VoltageList.size() - 1) {
-                        double stft = me7Log.get(Me7LogFileContract.Header.STFT_COLUMN_HEADER).get(me7Index) - 1;
-                        double ltft = me7Log.get(Me7LogFileContract.Header.LTFT_COLUMN_HEADER).get(me7Index) - 1;
-                        double rpm = me7Log.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER).get(me7Index);
-                        double targetAfr = me7Log.get(Me7LogFileContract.Header.REQUESTED_LAMBDA_HEADER).get(me7Index);
-
-                        // Find the RPM from the ME7 log in the AFR log
-                        int afrIndex = Index.getInsertIndex(afrLog.get(AfrLogFileContract.RPM_HEADER), rpm);
-                        List<Double> afrList = afrLog.get(AfrLogFileContract.AFR_HEADER);
-
-                        // Now find the AFR that corresponds to the RPM in the AFR Log
-                        double afr = afrList.get(Math.min(afrIndex, afrList.size() - 1)) / 14.7;
-
-                        // Calculate a correction accounting for STFT and LTFT
-                        double rawAfr = afr / (1 - (stft + ltft));
-                        double afrCorrection = (rawAfr / targetAfr) - 1;
-
-                        correctionsAfrMap.get(mlhfmVoltage).add(afrCorrection);
-                    } else {
-                        correctionsAfrMap.get(mlhfmVoltage).add(Double.NaN);
-                    }
+    private void calculateCorrections(LogFrame<Me7LogFileContract.Header> me7Log, LogFrame<String> afrLog, List<Double> mlhfmVoltageList) {
+        // For each log, loop over the voltages in MLHFM and attempt to calculate a correction
+        for (int j = 0; j < mlhfmVoltageList.size(); j++) {
+
+            double mlhfmVoltage = mlhfmVoltageList.get(j);
+
+            correctionsAfrMap.put(mlhfmVoltage, new SampleReservoir(MAX_CHART_SAMPLES));
+            BinStatistics statistics = new BinStatistics(MIN_CORRECTION, MAX_CORRECTION, CORRECTION_RESOLUTION);
+            correctionStatistics.put(mlhfmVoltage, statistics);
+
+            // Get the measured MAF voltages in the log
+            LogFrame.Column me7VoltageList = me7Log.column(Me7LogFileContract.Header.MAF_VOLTAGE_HEADER);
+            LogFrame.Column stftList = me7Log.column(Me7LogFileContract.Header.STFT_COLUMN_HEADER);
+            LogFrame.Column ltftList = me7Log.column(Me7LogFileContract.Header.LTFT_COLUMN_HEADER);
+            LogFrame.Column rpmList = me7Log.column(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
+            LogFrame.Column targetAfrList = me7Log.column(Me7LogFileContract.Header.REQUESTED_LAMBDA_HEADER);
+            List<Double> afrRpmList = afrLog.column(AfrLogFileContract.RPM_HEADER).asList();
+            LogFrame.Column afrList = afrLog.column(AfrLogFileContract.AFR_HEADER);
+
+            // Attempt to find the mlhfm voltages in the log.
+            List<Integer> me7VoltageIndices = getVoltageToMatchIndices(j, mlhfmVoltageList, me7VoltageList);
+
+            // Calculate a corrected AFR for each index that is found
+            for (int me7Index : me7VoltageIndices) {
+                if (me7Index != 1 && me7Index != me7VoltageList.size() - 1) {
+                    double stft = stftList.get(me7Index) - 1;
+                    double ltft = ltftList.get(me7Index) - 1;
+                    double rpm = rpmList.get(me7Index);
+                    double targetAfr = targetAfrList.get(me7Index);
+
+                    // Find the RPM from the ME7 log in the AFR log
+                    int afrIndex = Index.getInsertIndex(afrRpmList, rpm);
+
+                    // Now find the AFR that corresponds to the RPM in the AFR Log
+                    double afr = afrList.get(Math.min(afrIndex, afrList.size() - 1)) / 14.7;
+
+                    // Calculate a correction accounting for STFT and LTFT
+                    double rawAfr = afr / (1 - (stft + ltft));
+                    double afrCorrection = (rawAfr / targetAfr) - 1;
+
+                    correctionsAfrMap.get(mlhfmVoltage).add(afrCorrection);
+                    statistics.add(afrCorrection);
+                } else {
+                    correctionsAfrMap.get(mlhfmVoltage).add(Double.NaN);
+                    statistics.add(Double.NaN);
                 }
             }
         }
     }
 
-    private List<Integer> getVoltageToMatchIndices(int mlhfmVoltageToMatchIndex, List<Double> mlhfmVoltageList, List<Double> me7VoltageList) {
+    private List<Integer> getVoltageToMatchIndices(int mlhfmVoltageToMatchIndex, List<Double> mlhfmVoltageList, LogFrame.Column me7VoltageList) {
         int previousIndex = mlhfmVoltageToMatchIndex - 1;
         int nextIndex = mlhfmVoltageToMatchIndex + 1;
 
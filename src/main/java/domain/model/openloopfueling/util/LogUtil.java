@@ -1,9 +1,9 @@
 package domain.model.openloopfueling.util;
 
-import java.util.List;
+import domain.model.log.LogFrame;
 
 public class LogUtil {
-    static boolean isValidLogLength(int start, int minPoints, double minThrottleAngle, List<Double> throttleAngle) {
+    static boolean isValidLogLength(int start, int minPoints, double minThrottleAngle, LogFrame.Column throttleAngle) {
         int minValidIndex = start + minPoints;
 
         if (minValidIndex < throttleAngle.size()) {
@@ -19,7 +19,7 @@ public class LogUtil {
         return false;
     }
 
-    static int findEndOfLog(int start, double minThrottleAngle, List<Double> thottleAngle) {
+    static int findEndOfLog(int start, double minThrottleAngle, LogFrame.Column thottleAngle) {
 
         for (int i = start; i < thottleAngle.size(); i++) {
             if (thottleAngle.get(i) < minThrottleAngle) {
@@ -0,0 +1,144 @@
+package domain.model.openloopfueling.util;
+
+import data.contract.Me7LogFileContract;
+import domain.model.log.LogFrame;
+import domain.model.log.LogSink;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the same logs as {@link Me7LogUtil#findMe7Logs} in a streamed log and passes each one on as a batch of its own.
+ * Only the rows of the log being found are held, and only the columns it is given. The rows of a log are copied into it
+ * column by column, a run of rows of a batch at a time.
+ */
+public class Me7LogFinder implements LogSink<Me7LogFileContract.Header> {
+
+    private final double minThrottleAngle;
+    private final double lambdaControlEnabled;
+    private final double minRpm;
+    private final int minPointsMe7;
+    private final List<Me7LogFileContract.Header> columns;
+    private final LogSink<Me7LogFileContract.Header> downstream;
+
+    // The rows from the start of the log being found, null until a row can start a log
+    private LogFrame.Builder<Me7LogFileContract.Header> log;
+    private int logSize;
+    // The row after the end of a log is never the start of the next one
+    private int skip;
+
+    /**
+     * @param columns the columns the logs that are found have, in addition to the columns a log is found by
+     */
+    public Me7LogFinder(double minThrottleAngle, double lambdaControlEnabled, double minRpm, int minPointsMe7, List<Me7LogFileContract.Header> columns, LogSink<Me7LogFileContract.Header> downstream) {
+        this.minThrottleAngle = minThrottleAngle;
+        this.lambdaControlEnabled = lambdaControlEnabled;
+        this.minRpm = minRpm;
+        this.minPointsMe7 = minPointsMe7;
+        this.downstream = downstream;
+
+        // The rows of a log that is not one are offered again, so they need the columns a log is found by
+        Set<Me7LogFileContract.Header> kept = EnumSet.of(Me7LogFileContract.Header.LAMBDA_CONTROL_ACTIVE_HEADER, Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER, Me7LogFileContract.Header.RPM_COLUMN_HEADER);
+        kept.addAll(columns);
+        this.columns = new ArrayList<>(kept);
+    }
+
+    @Override
+    public void onBatch(LogFrame<Me7LogFileContract.Header> batch) {
+        offer(batch, 0, batch.size());
+    }
+
+    @Override
+    public void onComplete() {
+        // A log that runs to the end of the stream ends one row short of it, like it does in the whole log
+        if (log != null && logSize > minPointsMe7) {
+            LogFrame<Me7LogFileContract.Header> found = log.build();
+            downstream.onBatch(found.slice(0, found.size() - 1));
+        }
+
+        log = null;
+        downstream.onComplete();
+    }
+
+    private void offer(LogFrame<Me7LogFileContract.Header> batch, int start, int end) {
+        LogFrame.Column lambdaControl = batch.column(Me7LogFileContract.Header.LAMBDA_CONTROL_ACTIVE_HEADER);
+        LogFrame.Column throttleAngle = batch.column(Me7LogFileContract.Header.THROTTLE_PLATE_ANGLE_HEADER);
+        LogFrame.Column rpm = batch.column(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
+
+        // The first row of the batch that belongs to the log and has not been copied into it yet, -1 if none
+        int run = -1;
+
+        for (int i = start; i < end; i++) {
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+
+            double angle = throttleAngle.get(i);
+
+            if (log == null) {
+                if (angle >= minThrottleAngle && lambdaControl.get(i) == lambdaControlEnabled && rpm.get(i) >= minRpm) {
+                    log = LogFrame.builder(Me7LogFileContract.Header.class);
+                    logSize = 0;
+                } else {
+                    continue;
+                }
+            }
+
+            if (logSize < minPointsMe7) {
+                if (angle <= minThrottleAngle && logSize == 0) {
+                    log = null;
+                    continue;
+                } else if (angle <= minThrottleAngle) {
+                    // Not a log, every row after its start may still start one
+                    copy(batch, run, i);
+                    run = -1;
+                    restart(batch, i);
+                    continue;
+                }
+            } else if (angle < minThrottleAngle) {
+                copy(batch, run, i);
+                run = -1;
+                downstream.onBatch(log.build());
+                log = null;
+                skip = 1;
+                continue;
+            }
+
+            if (run == -1) {
+                run = i;
+            }
+            logSize++;
+        }
+
+        if (log != null) {
+            copy(batch, run, end);
+        }
+    }
+
+    /**
+     * Copies the rows of the batch from start, inclusive, to end, exclusive, into the log, nothing if start is -1.
+     */
+    private void copy(LogFrame<Me7LogFileContract.Header> batch, int start, int end) {
+        if (start == -1) {
+            return;
+        }
+
+        for (Me7LogFileContract.Header column : columns) {
+            log.addAll(column, batch.column(column).slice(start, end));
+        }
+    }
+
+    /**
+     * Offers the rows after the start of the log again, followed by the row of the batch.
+     */
+    private void restart(LogFrame<Me7LogFileContract.Header> batch, int row) {
+        LogFrame<Me7LogFileContract.Header> rows = log.build();
+        log = null;
+
+        offer(rows, 1, rows.size());
+        offer(batch, row, row + 1);
+    }
+}
@@ -0,0 +1,62 @@
+package domain.model.plsol;
+
+/**
+ * The ME7 model between requested load and requested boost pressure that PLSOL and RLSOL both invert. The terms that
+ * depend only on the ambient conditions are computed once, so a curve of loads or pressures only pays for the residual
+ * gas correction of each point.
+ */
+public class LoadModel {
+
+    private static final double KFPRG = 70.0;
+    private static final double FPBRKDS = 1.016; // VE
+    private static final double KFFWTBR = 0.02;
+    private static final double VPSSPLS = 1.016; // pressure drop over the throttle plate
+    private static final double PSAGR = 250; // ?
+
+    private final double pirg;
+    private final double fupsrl;
+
+    /**
+     * @param pu barometric pressure
+     * @param tans intake air temperature
+     * @param tmot coolant temperature
+     */
+    public LoadModel(double pu, double tans, double tmot, double kfurl) {
+        double fho = pu/1013.0;
+
+        pirg = fho*KFPRG;
+
+        double evtmod = tans + (tmot - tans) * KFFWTBR;
+        double fwft = (tans+673.425)/731.334;
+        double ftbr = 273.0/(evtmod+273.0)*fwft;
+
+        fupsrl = kfurl * ftbr; // correct for air temperature (pressure)
+    }
+
+    /**
+     * @param ps intake manifold absolute pressure
+     * @param rlsol requested engine load
+     * @return the requested boost pressure
+     */
+    public double plsol(double ps, double rlsol) {
+        double pssol = (rlsol + rfagr(ps))/fupsrl/FPBRKDS;
+
+        return pssol/VPSSPLS;
+    }
+
+    /**
+     * @param ps intake manifold absolute pressure
+     * @param plsol requested boost pressure
+     * @return the requested engine load
+     */
+    public double rlsol(double ps, double plsol) {
+        return (plsol * fupsrl * FPBRKDS * VPSSPLS) - rfagr(ps);
+    }
+
+    // correct for residual cylinder pressure
+    private double rfagr(double ps) {
+        double pbr = ps * FPBRKDS;
+
+        return Math.max(pbr-pirg, 0)*fupsrl*PSAGR/ps;
+    }
+}
@@ -1,10 +1,31 @@
 package domain.model.plsol;
 
+import domain.util.Util;
+
 import java.awt.geom.Point2D;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Plsol {
 
+    static final double TMOT = 96;
+    // The load axis of a curve, 0 to 399 in steps of 1
+    static final int CURVE_SIZE = 400;
+    private static final int MAX_CACHED_CURVES = 256;
+
+    // Curves of the default load axis, the last used are kept while constants are edited
+    private static final Map<CurveKey, double[]> curves = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CurveKey, double[]> eldest) {
+            return size() > MAX_CACHED_CURVES;
+        }
+    });
+
+    private record CurveKey(double pu, double tans, double kfurl) {
+    }
+
     private final Point2D.Double[] points;
 
     /**
@@ -12,28 +33,21 @@ public class Plsol {
      * @param tans intake air temperature
      */
     public Plsol(double pu, double tans, double kfurl) {
-        points = new Point2D.Double[400];
-        double ps = pu;
+        double[] pressure = getCurve(pu, tans, kfurl);
+        points = new Point2D.Double[pressure.length];
 
         for(int i = 0; i < points.length; i++) {
-            double x = i;
-            double y = plsol(pu, ps, tans, 96, kfurl, x);
-            ps = y;
-
-            points[i] = new Point2D.Double(x,y);
+            points[i] = new Point2D.Double(i, pressure[i]);
         }
     }
 
     public Plsol(double pu, double tans, double kfurl, List<Double> load) {
-        points = new Point2D.Double[load.size()];
-        double ps = pu;
+        double[] pressure = new double[load.size()];
+        plsol(pu, tans, TMOT, kfurl, Util.toDoubleArray(load.toArray(new Double[0])), pressure);
+        points = new Point2D.Double[pressure.length];
 
         for(int i = 0; i < points.length; i++) {
-            double x = load.get(i);
-            double y = plsol(pu, ps, tans, 96, kfurl, x);
-            ps = y;
-
-            points[i] = new Point2D.Double(x,y);
+            points[i] = new Point2D.Double(load.get(i), pressure[i]);
         }
     }
 
@@ -52,28 +66,46 @@ public class Plsol {
      * @return
      */
     public static double plsol(double pu, double ps, double tans, double tmot, double kfurl, double rlsol) {
-        final double KFPRG = 70.0;
-        final double FPBRKDS = 1.016; // VE
-        final double KFFWTBR = 0.02;
-        final double VPSSPLS = 1.016; // pressure drop over the throttle plate
-
-        double fho = pu/1013.0;
-
-        double pirg = fho*KFPRG;
-
-        double pbr = ps * FPBRKDS;
-        double psagr = 250; // ?
+        return new LoadModel(pu, tans, tmot, kfurl).plsol(ps, rlsol);
+    }
 
-        double evtmod = tans + (tmot - tans) * KFFWTBR;
-        double fwft = (tans+673.425)/731.334;
-        double ftbr = 273.0/(evtmod+273.0)*fwft;
+    /**
+     * Evaluates PLSOL for every requested load in order. Like the curve of the constructors, the manifold pressure of
+     * each load is the pressure solved for the previous one, starting from pu. Everything that does not depend on the
+     * load is computed once.
+     *
+     * @param load requested engine load
+     * @param pressure receives the requested boost pressure of each load, at least as long as load
+     */
+    public static void plsol(double pu, double tans, double tmot, double kfurl, double[] load, double[] pressure) {
+        LoadModel loadModel = new LoadModel(pu, tans, tmot, kfurl);
 
-        double fupsrl = kfurl * ftbr; // correct for air temperature (pressure)
+        double ps = pu;
 
-        double rfagr = Math.max(pbr-pirg, 0)*fupsrl* psagr/ps; // correct for residual cylinder pressure
+        for(int i = 0; i < load.length; i++) {
+            ps = loadModel.plsol(ps, load[i]);
+            pressure[i] = ps;
+        }
+    }
 
-        double pssol = (rlsol + rfagr)/fupsrl/FPBRKDS;
+    /**
+     * @return the pressure of each load from 0 to 399, shared with the cache and not to be modified
+     */
+    static double[] getCurve(double pu, double tans, double kfurl) {
+        CurveKey key = new CurveKey(pu, tans, kfurl);
+        double[] pressure = curves.get(key);
+
+        if(pressure == null) {
+            double[] load = new double[CURVE_SIZE];
+            for(int i = 0; i < load.length; i++) {
+                load[i] = i;
+            }
+
+            pressure = new double[CURVE_SIZE];
+            plsol(pu, tans, TMOT, kfurl, load, pressure);
+            curves.put(key, pressure);
+        }
 
-        return pssol/VPSSPLS;
+        return pressure;
     }
 }
@@ -0,0 +1,86 @@
+package domain.model.plsol;
+
+import java.util.stream.IntStream;
+
+/**
+ * PLSOL across a grid of barometric pressures and intake air temperatures: the requested boost pressure of every load
+ * for every (pu, tans) pair. The pressures are stored in one array, load varying fastest, then intake air temperature,
+ * then barometric pressure. The curves are computed in parallel.
+ */
+public class PlsolSurface {
+
+    private final double[] barometricPressures;
+    private final double[] intakeAirTemperatures;
+    private final double[] load;
+    private final double[] pressure;
+
+    private PlsolSurface(double[] barometricPressures, double[] intakeAirTemperatures, double[] load, double[] pressure) {
+        this.barometricPressures = barometricPressures;
+        this.intakeAirTemperatures = intakeAirTemperatures;
+        this.load = load;
+        this.pressure = pressure;
+    }
+
+    /**
+     * Computes the surface over the load axis of {@link Plsol#Plsol(double, double, double)}, 0 to 399. Curves are
+     * shared with the PLSOL curve cache.
+     */
+    public static PlsolSurface compute(double[] barometricPressures, double[] intakeAirTemperatures, double kfurl) {
+        double[] load = new double[Plsol.CURVE_SIZE];
+        for (int i = 0; i < load.length; i++) {
+            load[i] = i;
+        }
+
+        double[] pressure = new double[barometricPressures.length * intakeAirTemperatures.length * load.length];
+
+        IntStream.range(0, barometricPressures.length * intakeAirTemperatures.length).parallel().forEach(curve -> {
+            double pu = barometricPressures[curve / intakeAirTemperatures.length];
+            double tans = intakeAirTemperatures[curve % intakeAirTemperatures.length];
+            System.arraycopy(Plsol.getCurve(pu, tans, kfurl), 0, pressure, curve * load.length, load.length);
+        });
+
+        return new PlsolSurface(barometricPressures.clone(), intakeAirTemperatures.clone(), load, pressure);
+    }
+
+    public static PlsolSurface compute(double[] barometricPressures, double[] intakeAirTemperatures, double kfurl, double[] load) {
+        double[] pressure = new double[barometricPressures.length * intakeAirTemperatures.length * load.length];
+
+        IntStream.range(0, barometricPressures.length * intakeAirTemperatures.length).parallel().forEach(curve -> {
+            double pu = barometricPressures[curve / intakeAirTemperatures.length];
+            double tans = intakeAirTemperatures[curve % intakeAirTemperatures.length];
+            double[] curvePressure = new double[load.length];
+            Plsol.plsol(pu, tans, Plsol.TMOT, kfurl, load, curvePressure);
+            System.arraycopy(curvePressure, 0, pressure, curve * load.length, load.length);
+        });
+
+        return new PlsolSurface(barometricPressures.clone(), intakeAirTemperatures.clone(), load.clone(), pressure);
+    }
+
+    public double[] getBarometricPressures() {
+        return barometricPressures;
+    }
+
+    public double[] getIntakeAirTemperatures() {
+        return intakeAirTemperatures;
+    }
+
+    public double[] getLoad() {
+        return load;
+    }
+
+    /**
+     * @return the requested boost pressure at the indices of the barometric pressure, intake air temperature and load
+     */
+    public double getPressure(int barometricPressure, int intakeAirTemperature, int load) {
+        return pressure[(barometricPressure * intakeAirTemperatures.length + intakeAirTemperature) * this.load.length + load];
+    }
+
+    /**
+     * @return a copy of the pressure over load for one barometric pressure and intake air temperature
+     */
+    public double[] getCurve(int barometricPressure, int intakeAirTemperature) {
+        double[] curve = new double[load.length];
+        System.arraycopy(pressure, (barometricPressure * intakeAirTemperatures.length + intakeAirTemperature) * load.length, curve, 0, load.length);
+        return curve;
+    }
+}
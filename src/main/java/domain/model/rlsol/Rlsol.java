@@ -1,5 +1,8 @@
 package domain.model.rlsol;
 
+import domain.model.plsol.LoadModel;
+import domain.util.Util;
+
 import java.awt.geom.Point2D;
 import java.util.List;
 
@@ -14,15 +17,12 @@ public class Rlsol {
      * @param pressure pressures in mbar
      */
     public Rlsol(double pu, double tans, double kfurl, List<Double> pressure) {
-        points = new Point2D.Double[pressure.size()];
-        double ps = pressure.get(0);
+        double[] load = new double[pressure.size()];
+        rlsol(pu, tans, 96, kfurl, Util.toDoubleArray(pressure.toArray(new Double[0])), load);
+        points = new Point2D.Double[load.length];
 
         for(int i = 0; i < points.length; i++) {
-            double x = pressure.get(i);
-            double y = rlsol(pu, ps, tans, 96, kfurl, x);
-            ps = x;
-
-            points[i] = new Point2D.Double(x,y);
+            points[i] = new Point2D.Double(pressure.get(i), load[i]);
         }
     }
 
@@ -41,26 +41,22 @@ public class Rlsol {
      * @return
      */
      public static double rlsol(double pu, double ps, double tans, double tmot, double kfurl, double plsol) {
-        final double KFPRG = 70.0;
-        double FPBRKDS = 1.016; // VE
-        final double KFFWTBR = 0.02;
-        final double VPSSPLS = 1.016; // pressure drop over the throttle plate
-
-        double fho = pu/1013.0;
-
-        double pirg = fho*KFPRG;
-
-        double pbr = ps * FPBRKDS;
-        double psagr = 250; // ?
-
-        double evtmod = tans + (tmot - tans) * KFFWTBR;
-        double fwft = (tans+673.425)/731.334;
-        double ftbr = 273.0/(evtmod+273)*fwft;
-
-        double fupsrl = kfurl * ftbr;
+        return new LoadModel(pu, tans, tmot, kfurl).rlsol(ps, plsol);
+    }
 
-        double rfagr = Math.max(pbr-pirg, 0)*fupsrl*psagr/ps;
+    /**
+     * Evaluates RLSOL for every requested pressure in order. Like the curve of the constructor, the manifold pressure of
+     * each pressure is the previous requested pressure, starting from the first. Everything that does not depend on the
+     * pressure is computed once.
+     *
+     * @param plsol requested boost pressures
+     * @param load receives the engine load of each pressure, at least as long as plsol
+     */
+    public static void rlsol(double pu, double tans, double tmot, double kfurl, double[] plsol, double[] load) {
+        LoadModel loadModel = new LoadModel(pu, tans, tmot, kfurl);
 
-        return (plsol * fupsrl * FPBRKDS * VPSSPLS) - rfagr;
+        for(int i = 0; i < plsol.length; i++) {
+            load[i] = loadModel.rlsol(plsol[Math.max(i - 1, 0)], plsol[i]);
+        }
     }
 }
@@ -0,0 +1,70 @@
+package domain.model.rlsol;
+
+import java.util.stream.IntStream;
+
+/**
+ * RLSOL across a grid of barometric pressures and intake air temperatures: the engine load of every requested pressure
+ * for every (pu, tans) pair. The loads are stored in one array, pressure varying fastest, then intake air temperature,
+ * then barometric pressure. The curves are computed in parallel.
+ */
+public class RlsolSurface {
+
+    private static final double TMOT = 96;
+
+    private final double[] barometricPressures;
+    private final double[] intakeAirTemperatures;
+    private final double[] pressure;
+    private final double[] load;
+
+    private RlsolSurface(double[] barometricPressures, double[] intakeAirTemperatures, double[] pressure, double[] load) {
+        this.barometricPressures = barometricPressures;
+        this.intakeAirTemperatures = intakeAirTemperatures;
+        this.pressure = pressure;
+        this.load = load;
+    }
+
+    /**
+     * @param pressure requested pressures in mbar
+     */
+    public static RlsolSurface compute(double[] barometricPressures, double[] intakeAirTemperatures, double kfurl, double[] pressure) {
+        double[] load = new double[barometricPressures.length * intakeAirTemperatures.length * pressure.length];
+
+        IntStream.range(0, barometricPressures.length * intakeAirTemperatures.length).parallel().forEach(curve -> {
+            double pu = barometricPressures[curve / intakeAirTemperatures.length];
+            double tans = intakeAirTemperatures[curve % intakeAirTemperatures.length];
+            double[] curveLoad = new double[pressure.length];
+            Rlsol.rlsol(pu, tans, TMOT, kfurl, pressure, curveLoad);
+            System.arraycopy(curveLoad, 0, load, curve * pressure.length, pressure.length);
+        });
+
+        return new RlsolSurface(barometricPressures.clone(), intakeAirTemperatures.clone(), pressure.clone(), load);
+    }
+
+    public double[] getBarometricPressures() {
+        return barometricPressures;
+    }
+
+    public double[] getIntakeAirTemperatures() {
+        return intakeAirTemperatures;
+    }
+
+    public double[] getPressure() {
+        return pressure;
+    }
+
+    /**
+     * @return the engine load at the indices of the barometric pressure, intake air temperature and pressure
+     */
+    public double getLoad(int barometricPressure, int intakeAirTemperature, int pressure) {
+        return load[(barometricPressure * intakeAirTemperatures.length + intakeAirTemperature) * this.pressure.length + pressure];
+    }
+
+    /**
+     * @return a copy of the load over pressure for one barometric pressure and intake air temperature
+     */
+    public double[] getCurve(int barometricPressure, int intakeAirTemperature) {
+        double[] curve = new double[pressure.length];
+        System.arraycopy(load, (barometricPressure * intakeAirTemperatures.length + intakeAirTemperature) * pressure.length, curve, 0, pressure.length);
+        return curve;
+    }
+}
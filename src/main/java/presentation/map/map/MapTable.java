@@ -1,6 +1,7 @@
 package presentation.map.map;
 
 import io.reactivex.subjects.PublishSubject;
+import domain.math.map.FlatMap3d;
 import domain.math.map.Map3d;
 import domain.util.Debouncer;
 import domain.util.Util;
@@ -114,6 +115,10 @@ public class MapTable extends JList implements TableModelListener {
         updateHeight();
     }
 
+    public void setMap(FlatMap3d map) {
+        setMap(map.toMap3d());
+    }
+
     public Map3d getMap3d() {
         return this.map3d;
     }
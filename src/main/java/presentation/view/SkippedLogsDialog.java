@@ -0,0 +1,46 @@
+package presentation.view;
+
+import data.parser.me7log.Me7LogParser;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.util.Map;
+
+public class SkippedLogsDialog {
+
+    private SkippedLogsDialog() {
+    }
+
+    /**
+     * Lists the logs that could not be read and the number of rows left out of the logs that were read, nothing is
+     * shown if every row of every log was read.
+     */
+    public static void show(Component parent, Me7LogParser.ParseReport parseReport) {
+        if (parseReport.isEmpty()) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder();
+
+        if (!parseReport.quarantinedFiles().isEmpty()) {
+            message.append("These logs could not be read and were skipped:");
+            for (Me7LogParser.QuarantinedFile quarantinedFile : parseReport.quarantinedFiles()) {
+                message.append("\n").append(quarantinedFile.file().getName()).append(": ").append(quarantinedFile.exception().getMessage());
+            }
+        }
+
+        if (!parseReport.skippedRows().isEmpty()) {
+            if (message.length() > 0) {
+                message.append("\n\n");
+            }
+
+            message.append("Rows that could not be parsed were skipped in these logs:");
+            for (Map.Entry<File, Integer> skippedRows : parseReport.skippedRows().entrySet()) {
+                message.append("\n").append(skippedRows.getKey().getName()).append(": ").append(skippedRows.getValue()).append(skippedRows.getValue() == 1 ? " row" : " rows");
+            }
+        }
+
+        JOptionPane.showMessageDialog(parent, message.toString(), "Skipped Logs", JOptionPane.WARNING_MESSAGE);
+    }
+}
@@ -5,6 +5,7 @@ import io.reactivex.annotations.NonNull;
 import io.reactivex.disposables.Disposable;
 import domain.math.map.Map3d;
 import domain.model.closedloopfueling.ClosedLoopFuelingCorrection;
+import domain.model.mlhfm.MlhfmFit;
 import domain.model.mlhfm.MlhfmFitter;
 import org.apache.commons.math3.stat.descriptive.moment.Mean;
 import org.apache.commons.math3.util.Pair;
@@ -37,6 +38,9 @@ public class ClosedLoopFuelingCorrectionView {
     private static final int CORRECTION_POINT_SERIES_INDEX = 1;
     private static final int CORRECTION_LINE_SERIES_INDEX = 0;
 
+    private static final int MIN_AUTO_FIT_DEGREE = 1;
+    private static final int MAX_AUTO_FIT_DEGREE = 20;
+
     private JFreeChart mlfhmChart;
     private JFreeChart stdDevChart;
     private JFreeChart afrCorrectionChart;
@@ -323,6 +327,7 @@ public class ClosedLoopFuelingCorrectionView {
                                 BinWriter.getInstance().write(file, tableDefinition, closedLoopFuelingCorrection.fitMlhfm);
                             } catch (IOException ioException) {
                                 ioException.printStackTrace();
+                                JOptionPane.showMessageDialog(null, "The map could not be written: " + ioException.getMessage(), "Write Map", JOptionPane.ERROR_MESSAGE);
                             }
                         }
                     }
@@ -358,23 +363,52 @@ public class ClosedLoopFuelingCorrectionView {
 
         panel.add(getFitMlhfmButton(), c);
 
+        c.gridx = 3;
+
+        panel.add(getAutoFitMlhfmButton(spinner), c);
+
         return panel;
     }
 
+    private JButton getAutoFitMlhfmButton(JSpinner spinner) {
+        JButton button = new JButton("Auto Fit");
+        button.setToolTipText("Fit the polynomial degree with the lowest cross validated error that keeps MLHFM increasing.");
+
+        button.addActionListener(e -> {
+            MlhfmFit fit;
+            try {
+                fit = MlhfmFitter.fitMlhfm(closedLoopFuelingCorrection.correctedMlhfm, MIN_AUTO_FIT_DEGREE, MAX_AUTO_FIT_DEGREE);
+            } catch (IllegalArgumentException exception) {
+                JOptionPane.showMessageDialog(null, "MLHFM could not be fit: " + exception.getMessage(), "Auto Fit", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            spinner.setValue(fit.degree);
+            setFitMlhfm(fit.fitMlhfm);
+
+            if (!fit.monotonic) {
+                JOptionPane.showMessageDialog(null, "No polynomial degree keeps MLHFM increasing, decreasing values were held at the previous value.", "Auto Fit", JOptionPane.WARNING_MESSAGE);
+            }
+        });
+
+        return button;
+    }
+
     private JButton getFitMlhfmButton() {
         JButton button = new JButton("Fit MLHFM");
         button.setToolTipText("Smooth the curve by fitting a polynomial.");
 
-        button.addActionListener(e -> {
-            Map3d correctedFitMlhfm = MlhfmFitter.fitMlhfm(closedLoopFuelingCorrection.correctedMlhfm, polynomialDegree);
-            closedLoopFuelingCorrection = new ClosedLoopFuelingCorrection(closedLoopFuelingCorrection.inputMlhfm, closedLoopFuelingCorrection.correctedMlhfm, correctedFitMlhfm, closedLoopFuelingCorrection.filteredVoltageDt, closedLoopFuelingCorrection.correctionsAfrMap, closedLoopFuelingCorrection.meanAfrMap, closedLoopFuelingCorrection.modeAfrMap, closedLoopFuelingCorrection.correctedAfrMap);
-            drawMlhfmChart(closedLoopFuelingCorrection.inputMlhfm, correctedFitMlhfm);
-            drawMapTable(correctedFitMlhfm);
-        });
+        button.addActionListener(e -> setFitMlhfm(MlhfmFitter.fitMlhfm(closedLoopFuelingCorrection.correctedMlhfm, polynomialDegree)));
 
         return button;
     }
 
+    private void setFitMlhfm(Map3d fitMlhfm) {
+        closedLoopFuelingCorrection = new ClosedLoopFuelingCorrection(closedLoopFuelingCorrection.inputMlhfm, closedLoopFuelingCorrection.correctedMlhfm, fitMlhfm, closedLoopFuelingCorrection.voltageDt, closedLoopFuelingCorrection.filteredVoltageDt, closedLoopFuelingCorrection.correctionsAfrMap, closedLoopFuelingCorrection.meanAfrMap, closedLoopFuelingCorrection.modeAfrMap, closedLoopFuelingCorrection.correctedAfrMap);
+        drawMlhfmChart(closedLoopFuelingCorrection.inputMlhfm, fitMlhfm);
+        drawMapTable(fitMlhfm);
+    }
+
     private void initMapTable() {
         mapTable = MapTable.getMapTable(new Double[0], new String[]{"kg/hr"}, new Double[0][]);
     }
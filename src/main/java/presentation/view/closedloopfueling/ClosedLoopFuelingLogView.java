@@ -1,7 +1,5 @@
 package presentation.view.closedloopfueling;
 
-import data.contract.Me7LogFileContract;
-import domain.derivative.Derivative;
 import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.annotations.Nullable;
@@ -15,7 +13,9 @@ import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 import data.parser.me7log.ClosedLoopLogParser;
+import data.parser.me7log.Me7LogParser;
 import data.preferences.closedloopfueling.ClosedLoopFuelingLogPreferences;
+import presentation.view.SkippedLogsDialog;
 import presentation.viewmodel.closedloopfueling.ClosedLoopFuelingLogViewModel;
 
 import javax.swing.*;
@@ -30,6 +30,7 @@ public class ClosedLoopFuelingLogView {
     private JFreeChart chart;
     private JPanel closedLoopLogPanel;
     private JLabel fileLabel;
+    private final JProgressBar dpb = new JProgressBar();
 
     private File me7LogFile;
 
@@ -42,7 +43,26 @@ public class ClosedLoopFuelingLogView {
 
             @Override
             public void onNext(@NonNull ClosedLoopFuelingLogViewModel.ClosedLoopMlhfmLogModel closedLoopMlhfmLogModel) {
-                drawChart(closedLoopMlhfmLogModel.getMe7LogMap(), closedLoopMlhfmLogModel.getMlhfm());
+                drawChart(closedLoopMlhfmLogModel.getVoltageDt(), closedLoopMlhfmLogModel.getMlhfm());
+            }
+
+            @Override
+            public void onError(@NonNull Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        ClosedLoopLogParser.getInstance().registerParseReportObserver(new Observer<>() {
+            @Override
+            public void onSubscribe(@NonNull Disposable disposable) {
+            }
+
+            @Override
+            public void onNext(@NonNull Me7LogParser.ParseReport parseReport) {
+                SkippedLogsDialog.show(closedLoopLogPanel, parseReport);
             }
 
             @Override
@@ -131,6 +151,13 @@ public class ClosedLoopFuelingLogView {
         fileLabel = new JLabel("No File Selected");
         panel.add(fileLabel, c);
 
+        c.gridx = 1;
+        c.gridy = 2;
+
+        dpb.setIndeterminate(false);
+        dpb.setVisible(false);
+        panel.add(dpb, c);
+
         return panel;
     }
 
@@ -183,7 +210,13 @@ public class ClosedLoopFuelingLogView {
     }
 
     private void loadMe7File(File file) {
-        ClosedLoopLogParser.getInstance().loadDirectory(file);
+        ClosedLoopLogParser.getInstance().loadDirectory(file, (value, max) -> {
+            SwingUtilities.invokeLater(() -> {
+                dpb.setMaximum(max);
+                dpb.setValue(value);
+                dpb.setVisible(value < max - 1);
+            });
+        });
         fileLabel.setText(file.getName());
     }
 
@@ -218,13 +251,12 @@ public class ClosedLoopFuelingLogView {
         plot.getRenderer().setSeriesPaint(1, Color.GREEN);
     }
 
-    private void drawChart(@Nullable Map<Me7LogFileContract.Header, List<Double>> me7LogMap, @Nullable Map3d mlhfm) {
+    private void drawChart(@Nullable Map<Double, List<Double>> dtMap, @Nullable Map3d mlhfm) {
 
         XYPlot plot = (XYPlot) chart.getPlot();
         ((XYSeriesCollection) plot.getDataset()).removeAllSeries();
 
-        if(me7LogMap != null && mlhfm != null) {
-            Map<Double, List<Double>> dtMap = Derivative.getMlfhm(me7LogMap, mlhfm);
+        if(dtMap != null && mlhfm != null) {
             Double[] voltages = mlhfm.yAxis;
 
             XYSeries invalidDtSeries = new XYSeries("Excluded Sample");
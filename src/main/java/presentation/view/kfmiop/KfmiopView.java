@@ -318,6 +318,7 @@ public class KfmiopView implements OnTabSelectedListener {
                     BinWriter.getInstance().write(BinFilePreferences.getInstance().getFile(), KfmiopPreferences.getInstance().getSelectedMap().getFirst(), outputKfmiop.getMap3d());
                 } catch (IOException ioException) {
                     ioException.printStackTrace();
+                    JOptionPane.showMessageDialog(null, "The map could not be written: " + ioException.getMessage(), "Write Map", JOptionPane.ERROR_MESSAGE);
                 }
             }
         });
@@ -264,6 +264,7 @@ public class KfmirlView implements OnTabSelectedListener {
                     BinWriter.getInstance().write(BinFilePreferences.getInstance().getFile(), KfmirlPreferences.getInstance().getSelectedMap().getFirst(), kfmirl.getMap3d());
                 } catch (IOException ioException) {
                     ioException.printStackTrace();
+                    JOptionPane.showMessageDialog(null, "The map could not be written: " + ioException.getMessage(), "Write Map", JOptionPane.ERROR_MESSAGE);
                 }
             }
         });
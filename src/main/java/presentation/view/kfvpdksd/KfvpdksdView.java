@@ -1,5 +1,6 @@
 package presentation.view.kfvpdksd;
 
+import data.parser.me7log.Me7LogParser;
 import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.disposables.Disposable;
@@ -14,6 +15,7 @@ import org.jfree.data.xy.XYSeriesCollection;
 import data.preferences.bin.BinFilePreferences;
 import data.preferences.kfvpdksd.KfvpdksdPreferences;
 import presentation.map.map.MapTable;
+import presentation.view.SkippedLogsDialog;
 import presentation.view.listener.OnTabSelectedListener;
 import presentation.viewmodel.kfvpdksd.KfvpdksdViewModel;
 import data.writer.BinWriter;
@@ -136,6 +138,25 @@ public class KfvpdksdView implements OnTabSelectedListener {
             public void onComplete() {
             }
         });
+
+        viewModel.registerParseReportObserver(new Observer<>() {
+            @Override
+            public void onSubscribe(@NonNull Disposable disposable) {
+            }
+
+            @Override
+            public void onNext(@NonNull Me7LogParser.ParseReport parseReport) {
+                SkippedLogsDialog.show(panel, parseReport);
+            }
+
+            @Override
+            public void onError(@NonNull Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
     }
 
     public void drawPressure(Map3d pressure) {
@@ -289,6 +310,7 @@ public class KfvpdksdView implements OnTabSelectedListener {
                     BinWriter.getInstance().write(BinFilePreferences.getInstance().getFile(), KfvpdksdPreferences.getInstance().getSelectedMap().getFirst(), kfvpdksdTable.getMap3d());
                 } catch (IOException ioException) {
                     ioException.printStackTrace();
+                    JOptionPane.showMessageDialog(null, "The map could not be written: " + ioException.getMessage(), "Write Map", JOptionPane.ERROR_MESSAGE);
                 }
             }
         });
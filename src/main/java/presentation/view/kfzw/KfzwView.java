@@ -246,6 +246,7 @@ public class KfzwView implements OnTabSelectedListener {
                     BinWriter.getInstance().write(BinFilePreferences.getInstance().getFile(), KfzwPreferences.getInstance().getSelectedMap().getFirst(), kfzwOutput.getMap3d());
                 } catch (IOException ioException) {
                     ioException.printStackTrace();
+                    JOptionPane.showMessageDialog(null, "The map could not be written: " + ioException.getMessage(), "Write Map", JOptionPane.ERROR_MESSAGE);
                 }
             }
         });
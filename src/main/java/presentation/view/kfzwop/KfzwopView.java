@@ -247,6 +247,7 @@ public class KfzwopView implements OnTabSelectedListener {
                     BinWriter.getInstance().write(BinFilePreferences.getInstance().getFile(), KfzwopPreferences.getInstance().getSelectedMap().getFirst(), kfzwopOutput.getMap3d());
                 } catch (IOException ioException) {
                     ioException.printStackTrace();
+                    JOptionPane.showMessageDialog(null, "The map could not be written: " + ioException.getMessage(), "Write Map", JOptionPane.ERROR_MESSAGE);
                 }
             }
         });
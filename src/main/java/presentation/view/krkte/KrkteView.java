@@ -150,6 +150,7 @@ public class KrkteView implements OnTabSelectedListener {
                             BinWriter.getInstance().write(BinFilePreferences.getInstance().getFile(), krkteTableDefinition, krkte);
                         } catch (IOException ioException) {
                             ioException.printStackTrace();
+                            JOptionPane.showMessageDialog(null, "The map could not be written: " + ioException.getMessage(), "Write Map", JOptionPane.ERROR_MESSAGE);
                         }
                     }
                 }
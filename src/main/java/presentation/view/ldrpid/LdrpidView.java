@@ -1,6 +1,5 @@
 package presentation.view.ldrpid;
 
-import data.contract.Me7LogFileContract;
 import data.parser.bin.BinParser;
 import data.preferences.MapPreferenceManager;
 import io.reactivex.Observer;
@@ -17,6 +16,7 @@ import data.preferences.kfldrl.KfldrlPreferences;
 import data.preferences.ldrpid.LdrpidPreferences;
 import presentation.map.axis.MapAxis;
 import presentation.map.map.MapTable;
+import presentation.view.SkippedLogsDialog;
 import data.writer.BinWriter;
 import presentation.viewmodel.kfzwop.KfzwopViewModel;
 
@@ -24,7 +24,6 @@ import javax.swing.*;
 import java.awt.*;
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 public class LdrpidView {
@@ -244,6 +243,7 @@ public class LdrpidView {
                     BinWriter.getInstance().write(BinFilePreferences.getInstance().getFile(), KfldimxPreferences.getInstance().getSelectedMap().getFirst(), kfldimxTable.getMap3d());
                 } catch (IOException ioException) {
                     ioException.printStackTrace();
+                    JOptionPane.showMessageDialog(null, "The map could not be written: " + ioException.getMessage(), "Write Map", JOptionPane.ERROR_MESSAGE);
                 }
             }
         });
@@ -292,6 +292,7 @@ public class LdrpidView {
                     BinWriter.getInstance().write(BinFilePreferences.getInstance().getFile(), KfldrlPreferences.getInstance().getSelectedMap().getFirst(), kfldrlTable.getMap3d());
                 } catch (IOException ioException) {
                     ioException.printStackTrace();
+                    JOptionPane.showMessageDialog(null, "The map could not be written: " + ioException.getMessage(), "Write Map", JOptionPane.ERROR_MESSAGE);
                 }
             }
         });
@@ -321,20 +322,26 @@ public class LdrpidView {
                     logFileLabel.setText(fc.getSelectedFile().getPath());
 
                     SwingWorker<Void, Void> worker = new SwingWorker<>() {
+                        private Me7LogParser.ParseReport parseReport;
+
                         @Override
                         public Void doInBackground() {
                             Me7LogParser parser = new Me7LogParser();
-                            Map<Me7LogFileContract.Header, List<Double>> values = parser.parseLogDirectory(Me7LogParser.LogType.LDRPID, fc.getSelectedFile(), (value, max) -> {
+                            Pair<TableDefinition, Map3d> kfldimxTableDefinition = KfldimxPreferences.getInstance().getSelectedMap();
+                            Pair<TableDefinition, Map3d> kfldrlTableDefinition = KfldrlPreferences.getInstance().getSelectedMap();
+
+                            // The logs are streamed through the accumulator, only the KFLDRL cells are kept in memory
+                            LdrpidCalculator.NonLinearTableAccumulator accumulator = new LdrpidCalculator.NonLinearTableAccumulator(kfldrlTableDefinition.getSecond());
+                            parser.streamLogDirectory(Me7LogParser.LogType.LDRPID, fc.getSelectedFile(), LdrpidCalculator.wideOpenThrottle(accumulator), (value, max) -> {
                                 SwingUtilities.invokeLater(() -> {
                                     dpb.setMaximum(max);
                                     dpb.setValue(value);
                                     dpb.setVisible(value < max - 1);
                                 });
                             });
-                            Pair<TableDefinition, Map3d> kfldimxTableDefinition = KfldimxPreferences.getInstance().getSelectedMap();
-                            Pair<TableDefinition, Map3d> kfldrlTableDefinition = KfldrlPreferences.getInstance().getSelectedMap();
+                            parseReport = parser.getReport();
 
-                            ldrpidResult = LdrpidCalculator.caclulateLdrpid(values, kfldrlTableDefinition.getSecond(), kfldimxTableDefinition.getSecond());
+                            ldrpidResult = LdrpidCalculator.caclulateLdrpid(accumulator.getNonLinearTable(), kfldrlTableDefinition.getSecond(), kfldimxTableDefinition.getSecond());
                             return null;
                         }
 
@@ -348,6 +355,8 @@ public class LdrpidView {
                             kfldImxXAxisValues[0] = ldrpidResult.kfldimx.xAxis;
                             kfldimxXAxis.setTableData(kfldImxXAxisValues);
                             kfldimxTable.setMap(ldrpidResult.kfldimx);
+
+                            SkippedLogsDialog.show(parent, parseReport);
                         }
                     };
 
@@ -4,6 +4,7 @@ import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.disposables.Disposable;
 import domain.math.map.Map3d;
+import domain.model.mlhfm.MlhfmFit;
 import domain.model.mlhfm.MlhfmFitter;
 import domain.model.openloopfueling.correction.OpenLoopMlhfmCorrection;
 import org.apache.commons.math3.stat.descriptive.moment.Mean;
@@ -37,6 +38,9 @@ public class OpenLoopFuelingCorrectionView {
     private static final int AFR_CORRECTION_POINT_SERIES_INDEX = 1;
     private static final int AFR_CORRECTION_LINE_SERIES_INDEX = 0;
 
+    private static final int MIN_AUTO_FIT_DEGREE = 1;
+    private static final int MAX_AUTO_FIT_DEGREE = 20;
+
     private JFreeChart mlfhmChart;
     private JFreeChart afrCorrectionChart;
     private JPanel correctionPanel;
@@ -273,6 +277,7 @@ public class OpenLoopFuelingCorrectionView {
                                 BinWriter.getInstance().write(file, tableDefinition, openLoopMlhfmCorrection.fitMlhfm);
                             } catch (IOException ioException) {
                                 ioException.printStackTrace();
+                                JOptionPane.showMessageDialog(null, "The map could not be written: " + ioException.getMessage(), "Write Map", JOptionPane.ERROR_MESSAGE);
                             }
                         }
                     }
@@ -308,22 +313,51 @@ public class OpenLoopFuelingCorrectionView {
 
         panel.add(getFitMlhfmButton(), c);
 
+        c.gridx = 3;
+
+        panel.add(getAutoFitMlhfmButton(spinner), c);
+
         return panel;
     }
 
-    private JButton getFitMlhfmButton() {
-        JButton button = new JButton("Fit MLHFM");
+    private JButton getAutoFitMlhfmButton(JSpinner spinner) {
+        JButton button = new JButton("Auto Fit");
+        button.setToolTipText("Fit the polynomial degree with the lowest cross validated error that keeps MLHFM increasing.");
 
         button.addActionListener(e -> {
-            Map3d correctedFitMlhfm = MlhfmFitter.fitMlhfm(openLoopMlhfmCorrection.correctedMlhfm, polynomialDegree);
-            openLoopMlhfmCorrection = new OpenLoopMlhfmCorrection(openLoopMlhfmCorrection.inputMlhfm, openLoopMlhfmCorrection.correctedMlhfm, correctedFitMlhfm, openLoopMlhfmCorrection.correctionsAfrMap, openLoopMlhfmCorrection.meanAfrMap, openLoopMlhfmCorrection.modeAfrMap, openLoopMlhfmCorrection.correctedAfrMap);
-            drawMlhfmChart(openLoopMlhfmCorrection.inputMlhfm, correctedFitMlhfm);
-            drawMapTable(correctedFitMlhfm);
+            MlhfmFit fit;
+            try {
+                fit = MlhfmFitter.fitMlhfm(openLoopMlhfmCorrection.correctedMlhfm, MIN_AUTO_FIT_DEGREE, MAX_AUTO_FIT_DEGREE);
+            } catch (IllegalArgumentException exception) {
+                JOptionPane.showMessageDialog(null, "MLHFM could not be fit: " + exception.getMessage(), "Auto Fit", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            spinner.setValue(fit.degree);
+            setFitMlhfm(fit.fitMlhfm);
+
+            if (!fit.monotonic) {
+                JOptionPane.showMessageDialog(null, "No polynomial degree keeps MLHFM increasing, decreasing values were held at the previous value.", "Auto Fit", JOptionPane.WARNING_MESSAGE);
+            }
         });
 
         return button;
     }
 
+    private JButton getFitMlhfmButton() {
+        JButton button = new JButton("Fit MLHFM");
+
+        button.addActionListener(e -> setFitMlhfm(MlhfmFitter.fitMlhfm(openLoopMlhfmCorrection.correctedMlhfm, polynomialDegree)));
+
+        return button;
+    }
+
+    private void setFitMlhfm(Map3d fitMlhfm) {
+        openLoopMlhfmCorrection = new OpenLoopMlhfmCorrection(openLoopMlhfmCorrection.inputMlhfm, openLoopMlhfmCorrection.correctedMlhfm, fitMlhfm, openLoopMlhfmCorrection.correctionsAfrMap, openLoopMlhfmCorrection.meanAfrMap, openLoopMlhfmCorrection.modeAfrMap, openLoopMlhfmCorrection.correctedAfrMap);
+        drawMlhfmChart(openLoopMlhfmCorrection.inputMlhfm, fitMlhfm);
+        drawMapTable(fitMlhfm);
+    }
+
     private void initMapTable() {
         mapTable = MapTable.getMapTable(new Double[0], new String[]{"kg/hr"}, new Double[0][]);
     }
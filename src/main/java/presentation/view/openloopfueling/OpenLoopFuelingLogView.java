@@ -2,12 +2,14 @@ package presentation.view.openloopfueling;
 
 import data.contract.AfrLogFileContract;
 import data.contract.Me7LogFileContract;
+import data.parser.me7log.Me7LogParser;
 import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.disposables.Disposable;
 import domain.model.airflow.AirflowEstimation;
 import domain.model.openloopfueling.util.AfrLogUtil;
 import domain.model.openloopfueling.util.Me7LogUtil;
+import domain.model.log.LogFrame;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -18,6 +20,7 @@ import org.jfree.data.xy.XYSeriesCollection;
 import data.preferences.filechooser.AfrFileChooserPreferences;
 import data.preferences.filechooser.OpenLoopFileChooserPreferences;
 import data.preferences.openloopfueling.OpenLoopFuelingLogFilterPreferences;
+import presentation.view.SkippedLogsDialog;
 import presentation.viewmodel.openloopfueling.OpenLoopFuelingLogViewModel;
 
 import javax.swing.*;
@@ -25,7 +28,6 @@ import javax.swing.filechooser.FileFilter;
 import java.awt.*;
 import java.io.File;
 import java.util.List;
-import java.util.Map;
 
 public class OpenLoopFuelingLogView {
     private static final int ME7_FUELING_DATA_SERIES_INDEX = 0;
@@ -82,6 +84,25 @@ public class OpenLoopFuelingLogView {
             public void onComplete() {
             }
         });
+
+        viewModel.registerParseReportObserver(new Observer<>() {
+            @Override
+            public void onSubscribe(@NonNull Disposable disposable) {
+            }
+
+            @Override
+            public void onNext(@NonNull Me7LogParser.ParseReport parseReport) {
+                SkippedLogsDialog.show(openLoopLogPanel, parseReport);
+            }
+
+            @Override
+            public void onError(@NonNull Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
     }
 
     private JTabbedPane getTabbedPane() {
@@ -431,24 +452,24 @@ public class OpenLoopFuelingLogView {
         plot.setDataset(ESTIMATED_AIRFLOW_DATA_SERIES_INDEX, estimatedAirflowDataset);
     }
 
-    private void drawMe7FuelingLogChart(Map<Me7LogFileContract.Header, List<Double>> me7LogMap) {
+    private void drawMe7FuelingLogChart(LogFrame<Me7LogFileContract.Header> me7LogMap) {
         me7FuelingDataset.removeAllSeries();
 
         if(me7LogMap == null) {
             return;
         }
 
-        List<Map<Me7LogFileContract.Header, List<Double>>> me7LogList = Me7LogUtil.findMe7Logs(me7LogMap, OpenLoopFuelingLogFilterPreferences.getMinThrottleAnglePreference(), 0, OpenLoopFuelingLogFilterPreferences.getMinRpmPreference(), OpenLoopFuelingLogFilterPreferences.getMinMe7PointsPreference());
+        List<LogFrame<Me7LogFileContract.Header>> me7LogList = Me7LogUtil.findMe7Logs(me7LogMap, OpenLoopFuelingLogFilterPreferences.getMinThrottleAnglePreference(), 0, OpenLoopFuelingLogFilterPreferences.getMinRpmPreference(), OpenLoopFuelingLogFilterPreferences.getMinMe7PointsPreference());
 
         int logCount = 1;
-        for (Map<Me7LogFileContract.Header, List<Double>> map : me7LogList) {
+        for (LogFrame<Me7LogFileContract.Header> map : me7LogList) {
             XYSeries series = new XYSeries("Desired AFR " + logCount++);
 
-            List<Double> requestedAfr = map.get(Me7LogFileContract.Header.REQUESTED_LAMBDA_HEADER);
-            List<Double> rpm = map.get(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
+            LogFrame.Column requestedAfr = map.column(Me7LogFileContract.Header.REQUESTED_LAMBDA_HEADER);
+            LogFrame.Column rpm = map.column(Me7LogFileContract.Header.RPM_COLUMN_HEADER);
 
             for (int i = 0; i < rpm.size(); i++) {
-                series.add(rpm.get(i).doubleValue(), requestedAfr.get(i)*14.7);
+                series.add(rpm.get(i), requestedAfr.get(i)*14.7);
             }
 
             me7FuelingDataset.addSeries(series);
@@ -458,24 +479,24 @@ public class OpenLoopFuelingLogView {
         plot.setDataset(ME7_FUELING_DATA_SERIES_INDEX, me7FuelingDataset);
     }
 
-    private void drawAfrFuelingLogChart(Map<String, List<Double>> afrLogMap) {
+    private void drawAfrFuelingLogChart(LogFrame<String> afrLogMap) {
         afrFuelingDataset.removeAllSeries();
 
         if(afrLogMap == null) {
             return;
         }
 
-        List<Map<String, List<Double>>> afrLogList = AfrLogUtil.findAfrLogs(afrLogMap, OpenLoopFuelingLogFilterPreferences.getMinThrottleAnglePreference(), OpenLoopFuelingLogFilterPreferences.getMinRpmPreference(), OpenLoopFuelingLogFilterPreferences.getMaxAfrPreference(), OpenLoopFuelingLogFilterPreferences.getMinAfrPointsPreference());
+        List<LogFrame<String>> afrLogList = AfrLogUtil.findAfrLogs(afrLogMap, OpenLoopFuelingLogFilterPreferences.getMinThrottleAnglePreference(), OpenLoopFuelingLogFilterPreferences.getMinRpmPreference(), OpenLoopFuelingLogFilterPreferences.getMaxAfrPreference(), OpenLoopFuelingLogFilterPreferences.getMinAfrPointsPreference());
 
         int logCount = 1;
-        for (Map<String, List<Double>> map : afrLogList) {
+        for (LogFrame<String> map : afrLogList) {
             XYSeries series = new XYSeries("Actual AFR " + logCount++);
 
-            List<Double> actualAfr = map.get(AfrLogFileContract.AFR_HEADER);
-            List<Double> rpm = map.get(AfrLogFileContract.RPM_HEADER);
+            LogFrame.Column actualAfr = map.column(AfrLogFileContract.AFR_HEADER);
+            LogFrame.Column rpm = map.column(AfrLogFileContract.RPM_HEADER);
 
             for (int i = 0; i < rpm.size(); i++) {
-                series.add(rpm.get(i).doubleValue(), actualAfr.get(i).doubleValue());
+                series.add(rpm.get(i), actualAfr.get(i));
             }
 
             afrFuelingDataset.addSeries(series);
@@ -1,37 +1,29 @@
 package presentation.viewmodel.closedloopfueling;
 
-import data.contract.Me7LogFileContract;
 import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.annotations.Nullable;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.subjects.PublishSubject;
 import domain.math.map.Map3d;
-import org.apache.commons.math3.util.Pair;
+import domain.model.closedloopfueling.ClosedLoopFuelingCorrection;
 import data.parser.me7log.ClosedLoopLogParser;
 import data.parser.xdf.TableDefinition;
-import data.preferences.mlhfm.MlhfmPreferences;
 import data.writer.BinWriter;
 
 import java.util.List;
 import java.util.Map;
 
+
 public class ClosedLoopFuelingLogViewModel {
 
     private final PublishSubject<ClosedLoopMlhfmLogModel> publishSubject = PublishSubject.create();
 
     public ClosedLoopFuelingLogViewModel() {
-        ClosedLoopLogParser.getInstance().registerClosedLoopLogOnChangeObserver(new Observer<>() {
+        ClosedLoopLogParser.getInstance().registerClosedLoopCorrectionObserver(new Observer<>() {
             @Override
-            public void onNext(@NonNull Map<Me7LogFileContract.Header, List<Double>> me7LogMap) {
-                Pair<TableDefinition, Map3d> mlhfmDefinition = MlhfmPreferences.getInstance().getSelectedMap();
-
-                if (mlhfmDefinition != null) {
-                    Map3d mlhfm = mlhfmDefinition.getValue();
-                    if (mlhfm != null) {
-                        publishSubject.onNext(new ClosedLoopMlhfmLogModel(me7LogMap, mlhfm));
-                    }
-                }
+            public void onNext(@NonNull ClosedLoopFuelingCorrection closedLoopFuelingCorrection) {
+                publishSubject.onNext(new ClosedLoopMlhfmLogModel(closedLoopFuelingCorrection.voltageDt, closedLoopFuelingCorrection.inputMlhfm));
             }
 
             @Override
@@ -71,17 +63,20 @@ public class ClosedLoopFuelingLogViewModel {
     }
 
     public static class ClosedLoopMlhfmLogModel {
-        private final Map<Me7LogFileContract.Header, List<Double>> me7LogMap;
+        private final Map<Double, List<Double>> voltageDt;
         private final Map3d mlhfm;
 
-        public ClosedLoopMlhfmLogModel(@Nullable Map<Me7LogFileContract.Header, List<Double>> me7LogMap, @Nullable Map3d mlhfm) {
-            this.me7LogMap = me7LogMap;
+        public ClosedLoopMlhfmLogModel(@Nullable Map<Double, List<Double>> voltageDt, @Nullable Map3d mlhfm) {
+            this.voltageDt = voltageDt;
             this.mlhfm = mlhfm;
         }
 
+        /**
+         * @return a sample of the dt of the logged voltages at each MLHFM voltage
+         */
         @Nullable
-        public Map<Me7LogFileContract.Header, List<Double>> getMe7LogMap() {
-            return me7LogMap;
+        public Map<Double, List<Double>> getVoltageDt() {
+            return voltageDt;
         }
 
         @Nullable
@@ -1,11 +1,11 @@
 package presentation.viewmodel.closedloopfueling;
 
-import data.contract.Me7LogFileContract;
 import io.reactivex.Observer;
 import io.reactivex.annotations.NonNull;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.subjects.BehaviorSubject;
 import domain.math.map.Map3d;
+import domain.model.closedloopfueling.ClosedLoopFuelingCorrection;
 import org.apache.commons.math3.util.Pair;
 import data.parser.bin.BinParser;
 import data.parser.me7log.ClosedLoopLogParser;
@@ -14,7 +14,6 @@ import data.preferences.mlhfm.MlhfmPreferences;
 import data.writer.BinWriter;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 public class ClosedLoopFuelingViewModel {
@@ -132,13 +131,13 @@ public class ClosedLoopFuelingViewModel {
             public void onComplete() {}
         });
 
-        ClosedLoopLogParser.getInstance().registerClosedLoopLogOnChangeObserver(new Observer<>() {
+        ClosedLoopLogParser.getInstance().registerClosedLoopCorrectionObserver(new Observer<>() {
             @Override
             public void onSubscribe(@NonNull Disposable disposable) {
             }
 
             @Override
-            public void onNext(@NonNull Map<Me7LogFileContract.Header, List<Double>> stringListMap) {
+            public void onNext(@NonNull ClosedLoopFuelingCorrection closedLoopFuelingCorrection) {
                 ClosedLoopMlfhmModel model = behaviorSubject.getValue();
                 ClosedLoopMlfhmModel.Builder builder;
                 if (model == null) {
@@ -147,7 +146,8 @@ public class ClosedLoopFuelingViewModel {
                     builder = new ClosedLoopMlfhmModel.Builder(model);
                 }
 
-                builder.correctionsTabEnabled(!stringListMap.isEmpty());
+                // Any dt means the logs had rows
+                builder.correctionsTabEnabled(closedLoopFuelingCorrection.voltageDt.values().stream().anyMatch(samples -> !samples.isEmpty()));
                 builder.selectedTabIndex(1);
 
                 behaviorSubject.onNext(builder.build()); // No map found
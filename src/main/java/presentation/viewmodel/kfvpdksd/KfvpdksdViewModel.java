@@ -1,6 +1,5 @@
 package presentation.viewmodel.kfvpdksd;
 
-import data.contract.Me7LogFileContract;
 import data.parser.bin.BinParser;
 import data.parser.me7log.KfvpdksdLogParser;
 import data.parser.me7log.Me7LogParser;
@@ -73,11 +72,8 @@ public class KfvpdksdViewModel {
             }
 
             @Override
-            public void onNext(@NonNull Map<Me7LogFileContract.Header, List<Double>> log) {
-                Pair<TableDefinition, Map3d> kfvpdksdTable = KfvpdksdPreferences.getInstance().getSelectedMap();
-                if (kfvpdksdTable != null) {
-                    calculateKfvpdksd(Kfvpdksd.parsePressure(log, kfvpdksdTable.getSecond().yAxis));
-                }
+            public void onNext(@NonNull Double[] maxPressure) {
+                calculateKfvpdksd(maxPressure);
             }
 
             @Override
@@ -116,8 +112,16 @@ public class KfvpdksdViewModel {
         subject.subscribe(observer);
     }
 
+    public void registerParseReportObserver(Observer<Me7LogParser.ParseReport> observer) {
+        KfvpdksdLogParser.getInstance().registerParseReportObserver(observer);
+    }
+
     public void loadLogs(File file, Me7LogParser.ProgressCallback progressCallback) {
-        KfvpdksdLogParser.getInstance().loadDirectory(file, progressCallback);
+        Pair<TableDefinition, Map3d> kfvpdksdTable = KfvpdksdPreferences.getInstance().getSelectedMap();
+        // The max pressure is found for the RPM axis of the table
+        if (kfvpdksdTable != null) {
+            KfvpdksdLogParser.getInstance().loadDirectory(file, kfvpdksdTable.getSecond().yAxis, progressCallback);
+        }
     }
 
     public void calculateKfvpdksd(Double[] maxPressure) {
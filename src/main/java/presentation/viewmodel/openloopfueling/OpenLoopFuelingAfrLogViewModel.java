@@ -5,22 +5,21 @@ import io.reactivex.annotations.NonNull;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.subjects.PublishSubject;
 import data.parser.afrLog.AfrLogParser;
+import domain.model.log.LogFrame;
 
 import java.io.File;
-import java.util.List;
-import java.util.Map;
 
 public class OpenLoopFuelingAfrLogViewModel {
 
-    private final PublishSubject<Map<String, List<Double>>> publishSubject = PublishSubject.create();
+    private final PublishSubject<LogFrame<String>> publishSubject = PublishSubject.create();
 
     public OpenLoopFuelingAfrLogViewModel() {
-        AfrLogParser.getInstance().register(new Observer<Map<String, List<Double>>>() {
+        AfrLogParser.getInstance().register(new Observer<LogFrame<String>>() {
             @Override
             public void onSubscribe(@NonNull Disposable disposable) {}
 
             @Override
-            public void onNext(@NonNull Map<String, List<Double>> logs) {
+            public void onNext(@NonNull LogFrame<String> logs) {
                 publishSubject.onNext(logs);
             }
 
@@ -32,7 +31,7 @@ public class OpenLoopFuelingAfrLogViewModel {
         });
     }
 
-    public PublishSubject<Map<String, List<Double>>> getPublishSubject() {
+    public PublishSubject<LogFrame<String>> getPublishSubject() {
         return publishSubject;
     }
 
@@ -8,6 +8,7 @@ import io.reactivex.subjects.BehaviorSubject;
 import domain.math.map.Map3d;
 import domain.model.openloopfueling.correction.OpenLoopMlhfmCorrection;
 import domain.model.openloopfueling.correction.OpenLoopMlhfmCorrectionManager;
+import domain.model.log.LogFrame;
 import org.apache.commons.math3.util.Pair;
 import data.parser.afrLog.AfrLogParser;
 import data.parser.bin.BinParser;
@@ -17,13 +18,12 @@ import data.preferences.mlhfm.MlhfmPreferences;
 import data.preferences.openloopfueling.OpenLoopFuelingLogFilterPreferences;
 
 import java.util.List;
-import java.util.Map;
 
 public class OpenLoopFuelingCorrectionViewModel {
 
     private Map3d mlhfmMap;
-    private Map<Me7LogFileContract.Header, List<Double>> me7LogMap;
-    private Map<String, List<Double>> afrLogMap;
+    private LogFrame<Me7LogFileContract.Header> me7LogMap;
+    private LogFrame<String> afrLogMap;
 
     private final BehaviorSubject<OpenLoopMlhfmCorrection> publishSubject = BehaviorSubject.create();
 
@@ -34,7 +34,7 @@ public class OpenLoopFuelingCorrectionViewModel {
             }
 
             @Override
-            public void onNext(@NonNull Map<Me7LogFileContract.Header, List<Double>> logs) {
+            public void onNext(@NonNull LogFrame<Me7LogFileContract.Header> logs) {
                 OpenLoopFuelingCorrectionViewModel.this.me7LogMap = logs;
                 generateCorrection();
             }
@@ -55,7 +55,7 @@ public class OpenLoopFuelingCorrectionViewModel {
             }
 
             @Override
-            public void onNext(@NonNull Map<String, List<Double>> logs) {
+            public void onNext(@NonNull LogFrame<String> logs) {
                 OpenLoopFuelingCorrectionViewModel.this.afrLogMap = logs;
                 generateCorrection();
             }
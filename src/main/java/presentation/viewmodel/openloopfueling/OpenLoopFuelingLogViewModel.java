@@ -9,9 +9,11 @@ import io.reactivex.subjects.BehaviorSubject;
 import domain.math.map.Map3d;
 import domain.model.airflow.AirflowEstimation;
 import domain.model.airflow.AirflowEstimationManager;
+import domain.model.log.LogFrame;
 import org.apache.commons.math3.util.Pair;
 import data.parser.afrLog.AfrLogParser;
 import data.parser.bin.BinParser;
+import data.parser.me7log.Me7LogParser;
 import data.parser.me7log.OpenLoopLogParser;
 import data.parser.xdf.TableDefinition;
 import data.preferences.mlhfm.MlhfmPreferences;
@@ -20,7 +22,6 @@ import data.writer.BinWriter;
 
 import java.io.File;
 import java.util.List;
-import java.util.Map;
 
 public class OpenLoopFuelingLogViewModel {
 
@@ -33,7 +34,7 @@ public class OpenLoopFuelingLogViewModel {
             }
 
             @Override
-            public void onNext(@NonNull Map<Me7LogFileContract.Header, List<Double>> logs) {
+            public void onNext(@NonNull LogFrame<Me7LogFileContract.Header> logs) {
                 OpenLoopFuelingLogModel model = behaviorSubject.getValue();
                 OpenLoopFuelingLogModel.Builder builder;
                 if (model == null) {
@@ -47,7 +48,7 @@ public class OpenLoopFuelingLogViewModel {
                 System.out.println("onNext");
                 behaviorSubject.onNext(builder.build()); // Before ME7.5 the wide band afr must be parsed from another log
 
-                if(!logs.get(Me7LogFileContract.Header.WIDE_BAND_O2_HEADER).isEmpty()) {
+                if(logs.hasColumn(Me7LogFileContract.Header.WIDE_BAND_O2_HEADER)) {
                     AfrLogParser.getInstance().load(logs); // ME7.5+ might have the wide band afr with it
                 }
             }
@@ -68,7 +69,7 @@ public class OpenLoopFuelingLogViewModel {
             }
 
             @Override
-            public void onNext(@NonNull Map<String, List<Double>> logs) {
+            public void onNext(@NonNull LogFrame<String> logs) {
                 OpenLoopFuelingLogModel model = behaviorSubject.getValue();
                 OpenLoopFuelingLogModel.Builder builder;
                 if (model == null) {
@@ -150,6 +151,10 @@ public class OpenLoopFuelingLogViewModel {
         behaviorSubject.subscribe(observer);
     }
 
+    public void registerParseReportObserver(Observer<Me7LogParser.ParseReport> observer) {
+        OpenLoopLogParser.getInstance().registerParseReportObserver(observer);
+    }
+
     public void loadMe7File(File file) {
         OpenLoopLogParser.getInstance().loadFile(file);
     }
@@ -176,8 +181,8 @@ public class OpenLoopFuelingLogViewModel {
     }
 
     public static class OpenLoopFuelingLogModel {
-        private final Map<Me7LogFileContract.Header, List<Double>> me7Logs;
-        private final Map<String, List<Double>> afrLogs;
+        private final LogFrame<Me7LogFileContract.Header> me7Logs;
+        private final LogFrame<String> afrLogs;
         private final Map3d mlhfm;
         private final AirflowEstimation airflowEstimation;
 
@@ -189,11 +194,11 @@ public class OpenLoopFuelingLogViewModel {
         }
 
         @Nullable
-        public Map<Me7LogFileContract.Header, List<Double>> getMe7Logs() {
+        public LogFrame<Me7LogFileContract.Header> getMe7Logs() {
             return me7Logs;
         }
 
-        public Map<String, List<Double>> getAfrLogs() {
+        public LogFrame<String> getAfrLogs() {
             return afrLogs;
         }
 
@@ -207,8 +212,8 @@ public class OpenLoopFuelingLogViewModel {
         }
 
         public static class Builder {
-            private Map<Me7LogFileContract.Header, List<Double>> me7Logs;
-            private Map<String, List<Double>> afrLogs;
+            private LogFrame<Me7LogFileContract.Header> me7Logs;
+            private LogFrame<String> afrLogs;
             private Map3d mlhfm;
             private AirflowEstimation airflowEstimation;
 
@@ -222,13 +227,13 @@ public class OpenLoopFuelingLogViewModel {
                 this.airflowEstimation = model.airflowEstimation;
             }
 
-            public Builder me7Logs(Map<Me7LogFileContract.Header, List<Double>> me7Logs) {
+            public Builder me7Logs(LogFrame<Me7LogFileContract.Header> me7Logs) {
                 this.me7Logs = me7Logs;
 
                 return this;
             }
 
-            public Builder afrLogs(Map<String, List<Double>> afrLogs) {
+            public Builder afrLogs(LogFrame<String> afrLogs) {
                 this.afrLogs = afrLogs;
 
                 return this;
@@ -6,6 +6,7 @@ import io.reactivex.annotations.NonNull;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.subjects.BehaviorSubject;
 import domain.math.map.Map3d;
+import domain.model.log.LogFrame;
 import org.apache.commons.math3.util.Pair;
 import data.parser.afrLog.AfrLogParser;
 import data.parser.bin.BinParser;
@@ -16,7 +17,6 @@ import data.writer.BinWriter;
 import presentation.viewmodel.closedloopfueling.ClosedLoopFuelingViewModel;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 public class OpenLoopFuelingViewModel {
@@ -142,7 +142,7 @@ public class OpenLoopFuelingViewModel {
             }
 
             @Override
-            public void onNext(@NonNull Map<Me7LogFileContract.Header, List<Double>> logs) {
+            public void onNext(@NonNull LogFrame<Me7LogFileContract.Header> logs) {
                 OpenLoopMlfhmModel model = behaviorSubject.getValue();
                 OpenLoopMlfhmModel.Builder builder;
                 if (model == null) {
@@ -172,7 +172,7 @@ public class OpenLoopFuelingViewModel {
             }
 
             @Override
-            public void onNext(@NonNull Map<String, List<Double>> logs) {
+            public void onNext(@NonNull LogFrame<String> logs) {
                 OpenLoopMlfhmModel model = behaviorSubject.getValue();
                 OpenLoopMlfhmModel.Builder builder;
                 if (model == null) {